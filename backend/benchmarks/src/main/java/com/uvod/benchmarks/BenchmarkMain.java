@@ -0,0 +1,69 @@
+package com.uvod.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Entry point of benchmarks.jar. Accepts the usual JMH command line
+ * (e.g. "CatalogBenchmark -p films=1000") and, unless -rf/-rff are given,
+ * writes results as JSON to jmh-results/<timestamp>.json so runs can be
+ * compared over time. Runs of SerializationBenchmark in that file also
+ * get the encoded size of their payload.
+ */
+public final class BenchmarkMain {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private BenchmarkMain() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+
+        Path results = null;
+        if (!cli.getResultFormat().hasValue() && !cli.getResult().hasValue()) {
+            Path dir = Files.createDirectories(Path.of("jmh-results"));
+            results = dir.resolve(LocalDateTime.now().format(TIMESTAMP) + ".json");
+            options.resultFormat(ResultFormatType.JSON).result(results.toString());
+        }
+        new Runner(options.build()).run();
+        if (results != null && Files.exists(results)) {
+            addPayloadSizes(results);
+        }
+    }
+
+    private static void addPayloadSizes(Path results) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode runs = mapper.readTree(results.toFile());
+        boolean added = false;
+        for (JsonNode run : runs) {
+            if (!run.path("benchmark").asText().startsWith(SerializationBenchmark.class.getName() + ".")) {
+                continue;
+            }
+            JsonNode params = run.path("params");
+            SerializationBenchmark.EncodedSize size = SerializationBenchmark.encodedSize(
+                    params.path("format").asText(), params.path("payload").asText());
+            ((ObjectNode) run).putObject("payloadSize")
+                    .put("bytes", size.bytes())
+                    .put("gzippedBytes", size.gzippedBytes());
+            added = true;
+        }
+        if (added) {
+            mapper.writerWithDefaultPrettyPrinter().writeValue(results.toFile(), runs);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.uvod.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uvod.catalog.dto.FilmCardResponse;
+import com.uvod.catalog.dto.FilmResponse;
+import com.uvod.catalog.mapper.FilmMapper;
+import com.uvod.catalog.model.Film;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog read path: Film → DTO mapping and JSON serialization of the
+ * list served by GET /catalog, at increasing catalog sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogBenchmark {
+
+    @Param({ "10", "1000", "100000" })
+    int films;
+
+    private final FilmMapper filmMapper = Mappers.getMapper(FilmMapper.class);
+
+    /** Same defaults as the ObjectMapper Spring Boot configures */
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private List<Film> filmList;
+    private List<FilmResponse> responses;
+
+    @Setup
+    public void setUp() {
+        filmList = Fixtures.films(films);
+        responses = filmMapper.toResponseList(filmList);
+    }
+
+    @Benchmark
+    public List<FilmResponse> mapResponses() {
+        return filmMapper.toResponseList(filmList);
+    }
+
+    @Benchmark
+    public List<FilmCardResponse> mapCards() {
+        return filmMapper.toCardList(filmList);
+    }
+
+    @Benchmark
+    public byte[] serializeResponses() throws Exception {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+}
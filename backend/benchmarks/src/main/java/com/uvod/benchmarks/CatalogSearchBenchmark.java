@@ -0,0 +1,148 @@
+package com.uvod.benchmarks;
+
+import com.uvod.catalog.model.Film;
+import com.uvod.catalog.seed.SyntheticCatalogGenerator;
+import com.uvod.catalog.search.FacetIndex;
+import com.uvod.catalog.search.SearchIndex;
+import com.uvod.catalog.search.SimilarityIndex;
+import com.uvod.catalog.search.SuggestionIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory catalog indexes: query latency and build time on a catalog
+ * where every query word matches a large share of the films (see
+ * Fixtures.searchCatalog). Faceted browse runs on the seeder's synthetic
+ * catalog instead, whose long tail of cast names is what the facet
+ * postings are sized for; so does "more like this", whose LSH buckets
+ * depend on realistic tag and cast overlap. Queries rotate over a fixed, seeded set.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogSearchBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({ "1000", "50000" })
+    int films;
+
+    private List<Film> filmList;
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final String[] searchQueries = new String[QUERIES];
+    private SuggestionIndex suggestionIndex;
+    private final String[] prefixes = new String[QUERIES];
+    private List<Film> browseFilms;
+    private FacetIndex facetIndex;
+    private final FacetIndex.Query[] browseQueries = new FacetIndex.Query[QUERIES];
+    private SimilarityIndex similarityIndex;
+    private final String[] similarIds = new String[QUERIES];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        filmList = Fixtures.searchCatalog(films, random);
+        searchIndex.rebuild(filmList);
+        for (int i = 0; i < QUERIES; i++) {
+            searchQueries[i] = Fixtures.words(random, 1 + random.nextInt(3));
+        }
+        suggestionIndex = SuggestionIndex.build(filmList, 20);
+        for (int i = 0; i < QUERIES; i++) {
+            // Every length from the first keystroke to the whole word
+            String word = Fixtures.words(random, 1);
+            prefixes[i] = word.substring(0, 1 + random.nextInt(word.length()));
+        }
+
+        SyntheticCatalogGenerator generator = new SyntheticCatalogGenerator(42);
+        browseFilms = new ArrayList<>(films);
+        for (int i = 0; i < films; i++) {
+            browseFilms.add(generator.film(i));
+        }
+        facetIndex = FacetIndex.build(browseFilms, 20);
+        String[] genres = { "Drama", "Thriller", "Sci-Fi", "Comedy" };
+        String[] tags = { "futuro", "noir", "mafia", "famiglia" };
+        for (int i = 0; i < QUERIES; i++) {
+            int from = 1950 + random.nextInt(70);
+            browseQueries[i] = new FacetIndex.Query(
+                    random.nextBoolean() ? List.of(genres[random.nextInt(genres.length)]) : null,
+                    random.nextBoolean() ? List.of(tags[random.nextInt(tags.length)]) : null,
+                    null, from, from + random.nextInt(30), null, null,
+                    FacetIndex.Sort.values()[random.nextInt(3)], true, 0, 24);
+        }
+
+        // Defaults of application.properties: exact up to 2000 films, LSH above
+        similarityIndex = SimilarityIndex.build(browseFilms, 20, 2_000, 100);
+        for (int i = 0; i < QUERIES; i++) {
+            similarIds[i] = browseFilms.get(random.nextInt(films)).getId();
+        }
+    }
+
+    @Benchmark
+    public List<SearchIndex.Hit> search() {
+        return searchIndex.search(searchQueries[nextQuery()], 20);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SearchIndex rebuildSearchIndex() {
+        SearchIndex index = new SearchIndex();
+        index.rebuild(filmList);
+        return index;
+    }
+
+    @Benchmark
+    public List<SuggestionIndex.Suggestion> suggest() {
+        return suggestionIndex.suggest(prefixes[nextQuery()], 8);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SuggestionIndex buildSuggestionIndex() {
+        return SuggestionIndex.build(filmList, 20);
+    }
+
+    @Benchmark
+    public FacetIndex.Result browse() {
+        return facetIndex.browse(browseQueries[nextQuery()]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public FacetIndex buildFacetIndex() {
+        return FacetIndex.build(browseFilms, 20);
+    }
+
+    @Benchmark
+    public List<String> similar() {
+        return similarityIndex.similar(similarIds[nextQuery()], 10);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SimilarityIndex buildSimilarityIndex() {
+        return SimilarityIndex.build(browseFilms, 20, 2_000, 100);
+    }
+
+    private int nextQuery() {
+        next = (next + 1) & (QUERIES - 1);
+        return next;
+    }
+}
@@ -0,0 +1,207 @@
+package com.uvod.benchmarks;
+
+import com.uvod.catalog.model.Film;
+import com.uvod.user.cache.RegisteredUsers;
+import com.uvod.user.cache.UserProfileCache;
+import com.uvod.user.model.FavoriteItem;
+import com.uvod.user.model.SupportedLocale;
+import com.uvod.user.model.User;
+import com.uvod.user.repository.UserRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory test data shared by the benchmarks. Sizes and contents are
+ * close to real documents; no Cosmos access.
+ */
+final class Fixtures {
+
+    private static final String[] GENRES = { "Sci-Fi", "Thriller", "Drama" };
+
+    private static final String[] WORDS = {
+            "notte", "città", "segreto", "viaggio", "memoria", "fuoco", "mare", "ombra", "destino", "guerra",
+            "amore", "silenzio", "confine", "tempesta", "luce", "specchio", "deserto", "ritorno", "promessa",
+            "signal", "dream", "storm", "river", "shadow", "winter", "empire", "ghost", "echo", "frontier" };
+
+    private static final String[] NAMES = {
+            "Alex Rivera", "Mia Chen", "Jordan Blake", "Elena Rossi", "Kenji Tanaka", "Sara Novak",
+            "Leo Marshall", "Hank Patel", "Claudia Neri", "Enzo Ricci", "Sofia Lindqvist", "Oliver Grant" };
+
+    private Fixtures() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    static Film film(int i) {
+        return Film.builder()
+                .id(String.format("00000000-0000-0000-0000-%012d", i))
+                .slug("film-" + i)
+                .title("Film " + i)
+                .description("In un futuro dove la realtà è frammentata, un fisico scopre che i confini "
+                        + "tra universi paralleli stanno collassando. Dovrà scegliere quale versione "
+                        + "della sua vita salvare.")
+                .releaseYear(1990 + i % 35)
+                .genre(GENRES[i % GENRES.length])
+                .durationInMinutes(90 + i % 60)
+                .thumbnailUrl("https://dummyimage.com/600x400/6c3fc5/ffffff&text=Film%20" + i)
+                .blobName("film-" + i + ".mp4")
+                .cast(List.of("Alex Rivera", "Mia Chen", "Jordan Blake"))
+                .tags(List.of("futuro", "universi paralleli", "fisica quantistica"))
+                .build();
+    }
+
+    static List<Film> films(int count) {
+        return IntStream.range(0, count).mapToObj(Fixtures::film).collect(Collectors.toList());
+    }
+
+    /**
+     * Films drawn from a ~30-word vocabulary, so every query word matches
+     * a large share of the catalog: the worst case for the search indexes.
+     */
+    static List<Film> searchCatalog(int count, Random random) {
+        List<Film> films = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            films.add(Film.builder()
+                    .id("f" + i)
+                    .slug("f-" + i)
+                    .title(words(random, 3))
+                    .description(words(random, 25))
+                    .releaseYear(1970 + random.nextInt(56))
+                    .genre(GENRES[random.nextInt(GENRES.length)])
+                    .durationInMinutes(80 + random.nextInt(100))
+                    .cast(List.of(NAMES[random.nextInt(NAMES.length)], NAMES[random.nextInt(NAMES.length)]))
+                    .tags(List.of(WORDS[random.nextInt(WORDS.length)]))
+                    .build());
+        }
+        return films;
+    }
+
+    /**
+     * Random words from the {@link #searchCatalog} vocabulary.
+     */
+    static String words(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return sb.toString().trim();
+    }
+
+    static FavoriteItem favorite(int i) {
+        Film film = film(i);
+        return FavoriteItem.builder()
+                .movieId(film.getId())
+                .slug(film.getSlug())
+                .title(film.getTitle())
+                .description(film.getDescription())
+                .releaseYear(film.getReleaseYear())
+                .genre(film.getGenre())
+                .durationInMinutes(film.getDurationInMinutes())
+                .thumbnailUrl(film.getThumbnailUrl())
+                .cast(film.getCast())
+                .tags(film.getTags())
+                .build();
+    }
+
+    static User user(String id, int favorites) {
+        List<FavoriteItem> items = new ArrayList<>();
+        for (int i = 0; i < favorites; i++) {
+            items.add(favorite(i));
+        }
+        Instant now = Instant.parse("2026-01-27T14:30:00Z");
+        return User.builder()
+                .id(id)
+                .username("user-" + id)
+                .email(id + "@example.com")
+                .identityProvider("github")
+                .avatarUrl("/avatars/avatar-1.png")
+                .locale(SupportedLocale.IT)
+                .createdAt(now)
+                .updatedAt(now)
+                .favorites(items)
+                .build();
+    }
+
+    /**
+     * Base64 x-ms-client-principal header, as injected by Static Web Apps.
+     */
+    static String principalHeader(int roles) {
+        String userRoles = IntStream.range(0, roles)
+                .mapToObj(i -> i == 0 ? "\"anonymous\"" : i == 1 ? "\"authenticated\"" : "\"role-" + i + "\"")
+                .collect(Collectors.joining(","));
+        String json = "{\"identityProvider\":\"github\",\"userId\":\"d75b260a64504067bfc5b2905e3b8182\","
+                + "\"userDetails\":\"user@example.com\",\"userRoles\":[" + userRoles + "]}";
+        return Base64.getEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * UserRepo backed by a map: only findById, existsById, save, the
+     * favorites patches and revalidate are implemented (ETags are not
+     * checked), every other method fails loudly.
+     *
+     * @param latency simulated Cosmos round trip, added to every call
+     */
+    static UserRepo userRepo(User initial, Duration latency) {
+        Map<String, User> users = new ConcurrentHashMap<>(Map.of(initial.getId(), initial));
+        return (UserRepo) Proxy.newProxyInstance(UserRepo.class.getClassLoader(),
+                new Class<?>[] { UserRepo.class },
+                (proxy, method, args) -> {
+                    if (!latency.isZero()) {
+                        Thread.sleep(latency);
+                    }
+                    return switch (method.getName()) {
+                        case "findById" -> Optional.ofNullable(users.get((String) args[0]));
+                        case "existsById" -> users.containsKey((String) args[0]);
+                        case "save" -> {
+                            User saved = (User) args[0];
+                            users.put(saved.getId(), saved);
+                            yield saved;
+                        }
+                        case "revalidate" -> Optional.ofNullable(users.get(((User) args[0]).getId()));
+                        case "appendFavorite" -> {
+                            User patched = users.get((String) args[0]);
+                            patched.getFavorites().add((FavoriteItem) args[2]);
+                            patched.setUpdatedAt((Instant) args[3]);
+                            yield patched;
+                        }
+                        case "removeFavoriteAt" -> {
+                            User patched = users.get((String) args[0]);
+                            patched.getFavorites().remove((int) args[2]);
+                            patched.setUpdatedAt((Instant) args[3]);
+                            yield patched;
+                        }
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                });
+    }
+
+    /**
+     * Profile cache over the given repository.
+     *
+     * @param maxEntries 0 disables caching: every read goes to the repository
+     */
+    static UserProfileCache profileCache(UserRepo userRepo, int maxEntries) {
+        return new UserProfileCache(userRepo, new SimpleMeterRegistry(), maxEntries, Duration.ofSeconds(10));
+    }
+
+    /**
+     * Registered users filter that is never seeded (no Cosmos client):
+     * every check goes to the repository.
+     */
+    static RegisteredUsers registeredUsers(UserRepo userRepo) {
+        return new RegisteredUsers(userRepo, null, null, new SimpleMeterRegistry(),
+                1_000, 0.01, Duration.ofSeconds(30), 20);
+    }
+}
@@ -0,0 +1,69 @@
+package com.uvod.benchmarks;
+
+import com.uvod.common.dto.ClientPrincipal;
+import com.uvod.common.security.PrincipalParser;
+import com.uvod.gateway.SwaAuthFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * x-ms-client-principal decoding, run on every authenticated request:
+ * once in the gateway filter, once in the downstream service.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrincipalBenchmark {
+
+    /** Number of userRoles in the principal: drives the header size */
+    @Param({ "2", "10", "100" })
+    int roles;
+
+    private final SwaAuthFilter filter = new SwaAuthFilter();
+
+    /** Downstream chain: completes immediately, no routing */
+    private final GatewayFilterChain chain = exchange -> Mono.empty();
+
+    private String header;
+
+    @Setup
+    public void setUp() {
+        header = Fixtures.principalHeader(roles);
+    }
+
+    @Benchmark
+    public ClientPrincipal parsePrincipal() {
+        return PrincipalParser.parse(header);
+    }
+
+    /**
+     * Includes building the mock exchange, which is a fixed cost
+     * comparable to what Netty does per request. INFO logging is off
+     * (logback.xml), so the filter's log line only costs a level check.
+     */
+    @Benchmark
+    public Void gatewayFilter() {
+        ServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/catalog").header("x-ms-client-principal", header));
+        return filter.filter(exchange, chain).block();
+    }
+}
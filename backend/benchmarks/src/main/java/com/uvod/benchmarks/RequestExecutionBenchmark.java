@@ -0,0 +1,94 @@
+package com.uvod.benchmarks;
+
+import com.uvod.user.dto.UserResponse;
+import com.uvod.user.mapper.UserMapper;
+import com.uvod.user.repository.UserRepo;
+import com.uvod.user.service.UserService;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request execution model: a burst of concurrent profile reads against a
+ * repository that blocks for a simulated Cosmos round trip.
+ *
+ * "platform" mimics Tomcat's default pool (200 threads), "virtual" a
+ * virtual thread per request (spring.threads.virtual.enabled). One
+ * operation is the whole burst, so its sampled time is the latency of the
+ * slowest request in it: the tail latency seen under that concurrency.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestExecutionBenchmark {
+
+    private static final String USER_ID = "bench-user";
+
+    /** server.tomcat.threads.max default */
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({ "platform", "virtual" })
+    String mode;
+
+    @Param({ "5", "50" })
+    int cosmosLatencyMs;
+
+    @Param({ "200", "2000" })
+    int concurrentRequests;
+
+    private final UserMapper userMapper = Mappers.getMapper(UserMapper.class);
+
+    private UserService userService;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UserRepo userRepo = Fixtures.userRepo(Fixtures.user(USER_ID, 10), Duration.ofMillis(cosmosLatencyMs));
+        // Profile cache off: every request pays the Cosmos round trip
+        userService = new UserService(userRepo, userMapper, Fixtures.profileCache(userRepo, 0),
+                Fixtures.registeredUsers(userRepo));
+        executor = "virtual".equals(mode)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int burst() throws Exception {
+        List<Future<UserResponse>> responses = new ArrayList<>(concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            responses.add(executor.submit(() -> userService.getProfile(USER_ID)));
+        }
+        int favorites = 0;
+        for (Future<UserResponse> response : responses) {
+            favorites += response.get().getFavorites().size();
+        }
+        return favorites;
+    }
+}
@@ -0,0 +1,101 @@
+package com.uvod.benchmarks;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uvod.catalog.dto.FilmResponse;
+import com.uvod.catalog.mapper.FilmMapper;
+import com.uvod.user.dto.UserResponse;
+import com.uvod.user.mapper.UserMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON vs Smile vs CBOR on the two largest payloads: the catalog list
+ * (1000 films) and a profile with 30 (MAX_FAVORITES) embedded favorites.
+ * Encoded sizes, raw and gzipped, are added by BenchmarkMain to each
+ * run of the results file, as "payloadSize".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({ "json", "smile", "cbor" })
+    String format;
+
+    @Param({ "catalog", "profile" })
+    String payload;
+
+    private ObjectMapper objectMapper;
+    private Object value;
+    private JavaType type;
+    private byte[] encoded;
+
+    /** Size of a payload encoded in a format, raw and gzipped */
+    record EncodedSize(int bytes, int gzippedBytes) {
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        // Spring defaults, as in the services' message converters
+        objectMapper = switch (format) {
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        if ("profile".equals(payload)) {
+            value = Mappers.getMapper(UserMapper.class).toResponse(Fixtures.user("bench-user", 30));
+            type = objectMapper.constructType(UserResponse.class);
+        } else {
+            value = Mappers.getMapper(FilmMapper.class).toResponseList(Fixtures.films(1000));
+            type = objectMapper.getTypeFactory().constructCollectionType(List.class, FilmResponse.class);
+        }
+        encoded = objectMapper.writeValueAsBytes(value);
+    }
+
+    static EncodedSize encodedSize(String format, String payload) throws IOException {
+        SerializationBenchmark benchmark = new SerializationBenchmark();
+        benchmark.format = format;
+        benchmark.payload = payload;
+        benchmark.setUp();
+        return new EncodedSize(benchmark.encoded.length, gzip(benchmark.encoded).length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return objectMapper.readValue(encoded, type);
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        }
+        return out.toByteArray();
+    }
+}
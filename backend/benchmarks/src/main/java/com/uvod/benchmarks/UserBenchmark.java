@@ -0,0 +1,96 @@
+package com.uvod.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uvod.user.dto.FavoriteRequest;
+import com.uvod.user.dto.UserResponse;
+import com.uvod.user.mapper.UserMapper;
+import com.uvod.user.model.FavoriteItem;
+import com.uvod.user.model.User;
+import com.uvod.user.repository.UserRepo;
+import com.uvod.user.service.UserService;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * User profile path: mapping, JSON serialization and favorites mutation,
+ * with 0 to 30 (MAX_FAVORITES) embedded favorites.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserBenchmark {
+
+    private static final String USER_ID = "bench-user";
+
+    /** 29 leaves room for the add/remove round trip below the limit */
+    @Param({ "0", "10", "29" })
+    int favorites;
+
+    private final UserMapper userMapper = Mappers.getMapper(UserMapper.class);
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private User user;
+    private UserResponse response;
+    private UserService userService;
+    private FavoriteRequest newFavorite;
+
+    @Setup
+    public void setUp() {
+        user = Fixtures.user(USER_ID, favorites);
+        response = userMapper.toResponse(user);
+        UserRepo userRepo = Fixtures.userRepo(Fixtures.user(USER_ID, favorites), Duration.ZERO);
+        userService = new UserService(userRepo, userMapper, Fixtures.profileCache(userRepo, 1_000),
+                Fixtures.registeredUsers(userRepo));
+
+        FavoriteItem item = Fixtures.favorite(1_000);
+        newFavorite = FavoriteRequest.builder()
+                .movieId(item.getMovieId())
+                .slug(item.getSlug())
+                .title(item.getTitle())
+                .description(item.getDescription())
+                .releaseYear(item.getReleaseYear())
+                .genre(item.getGenre())
+                .durationInMinutes(item.getDurationInMinutes())
+                .thumbnailUrl(item.getThumbnailUrl())
+                .cast(item.getCast())
+                .tags(item.getTags())
+                .build();
+    }
+
+    @Benchmark
+    public UserResponse mapResponse() {
+        return userMapper.toResponse(user);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    /**
+     * Add then remove the same favorite, so the list size stays constant
+     * across invocations. Excludes the repository round trip.
+     */
+    @Benchmark
+    public UserResponse addAndRemoveFavorite() {
+        userService.addFavorite(USER_ID, newFavorite);
+        return userService.removeFavorite(USER_ID, newFavorite.getMovieId());
+    }
+}
@@ -1,9 +1,14 @@
 package com.uvod.catalog;
 
+import com.uvod.catalog.config.CatalogRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@ImportRuntimeHints(CatalogRuntimeHints.class)
+@EnableScheduling
 public class CatalogApplication {
 
 	public static void main(String[] args) {
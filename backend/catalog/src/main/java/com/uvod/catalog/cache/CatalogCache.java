@@ -0,0 +1,344 @@
+package com.uvod.catalog.cache;
+
+import com.azure.cosmos.CosmosAsyncClient;
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.models.CosmosChangeFeedRequestOptions;
+import com.azure.cosmos.models.FeedRange;
+import com.azure.cosmos.models.FeedResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uvod.catalog.config.CatalogCosmosProperties;
+import com.uvod.catalog.model.Film;
+import com.uvod.catalog.repository.FilmRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read-through, in-process cache of the whole film catalog.
+ *
+ * The first read loads the full catalog from Cosmos into a CatalogSnapshot.
+ * From then on the snapshot is kept fresh by polling the change feed of the
+ * films container (pull model, no lease container needed: every replica
+ * consumes the full feed for its own copy), so reads never hit Cosmos.
+ *
+ * The change feed does not report deletes: a periodic reconcile compares
+ * the snapshot's ids with an id-only scan of the container and drops the
+ * films that no longer exist. A forced rebuild (see CatalogCacheEndpoint)
+ * also drops them at once.
+ */
+@Component
+public class CatalogCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogCache.class);
+
+    private final FilmRepo filmRepo;
+    private final CosmosAsyncClient cosmosAsyncClient;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<CatalogChangeListener> listeners;
+
+    private final boolean enabled;
+    private final CatalogCosmosProperties cosmos;
+    private final int maxPagesPerPoll;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter rebuilds;
+    private final Counter changesApplied;
+    private final Counter filmsRemoved;
+
+    /**
+     * Serializes loads and polls. A ReentrantLock rather than synchronized:
+     * both hold it across blocking Cosmos calls, which would pin a virtual
+     * thread to its carrier (JDK 21).
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile CatalogSnapshot snapshot;
+    private volatile String changeFeedContinuation;
+    private volatile Instant lastSyncAt;
+
+    public CatalogCache(FilmRepo filmRepo,
+            CosmosAsyncClient cosmosAsyncClient,
+            ObjectMapper objectMapper,
+            ObjectProvider<CatalogChangeListener> listeners,
+            MeterRegistry meterRegistry,
+            @Value("${catalog.cache.enabled:true}") boolean enabled,
+            CatalogCosmosProperties cosmos,
+            @Value("${catalog.cache.change-feed-max-pages:20}") int maxPagesPerPoll) {
+        this.filmRepo = filmRepo;
+        this.cosmosAsyncClient = cosmosAsyncClient;
+        this.objectMapper = objectMapper;
+        this.listeners = listeners;
+        this.enabled = enabled;
+        this.cosmos = cosmos;
+        this.maxPagesPerPoll = maxPagesPerPoll;
+
+        this.hits = Counter.builder("catalog.cache.gets").tag("result", "hit")
+                .description("Catalog reads served from memory").register(meterRegistry);
+        this.misses = Counter.builder("catalog.cache.gets").tag("result", "miss")
+                .description("Catalog reads that had to go to Cosmos").register(meterRegistry);
+        this.rebuilds = Counter.builder("catalog.cache.rebuilds")
+                .description("Full reloads of the catalog snapshot").register(meterRegistry);
+        this.changesApplied = Counter.builder("catalog.cache.changes")
+                .description("Film changes applied from the change feed").register(meterRegistry);
+        this.filmsRemoved = Counter.builder("catalog.cache.removals")
+                .description("Deleted films dropped by the reconcile").register(meterRegistry);
+        Gauge.builder("catalog.cache.size", this, c -> c.snapshot != null ? c.snapshot.size() : 0)
+                .description("Films held in the catalog snapshot").register(meterRegistry);
+        Gauge.builder("catalog.cache.version", this, c -> c.snapshot != null ? c.snapshot.getVersion() : 0)
+                .description("Version of the current catalog snapshot").register(meterRegistry);
+        Gauge.builder("catalog.cache.staleness", this, CatalogCache::stalenessSeconds)
+                .description("Seconds since the last successful change feed sync")
+                .baseUnit("seconds").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the current snapshot, loading it from Cosmos on first access.
+     * Empty when the cache is disabled.
+     */
+    public Optional<CatalogSnapshot> snapshot() {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        CatalogSnapshot current = snapshot;
+        if (current != null) {
+            hits.increment();
+            return Optional.of(current);
+        }
+        misses.increment();
+        return Optional.of(loadIfAbsent());
+    }
+
+    /**
+     * Same as {@link #snapshot()}, without counting a cache get: for
+     * read-through callers that answer from the indexes built on the
+     * snapshot, and for monitoring.
+     */
+    public Optional<CatalogSnapshot> current() {
+        return enabled ? Optional.of(loaded()) : Optional.empty();
+    }
+
+    /**
+     * Looks up a film by ID. An empty result means "not cached" (the film may
+     * have been created after the last sync), so the caller falls back to Cosmos.
+     */
+    public Optional<Film> findById(String id) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return record(loaded().findById(id));
+    }
+
+    /**
+     * Looks up a film by slug. Same semantics as {@link #findById(String)}.
+     */
+    public Optional<Film> findBySlug(String slug) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return record(loaded().findBySlug(slug));
+    }
+
+    /**
+     * Discards the current snapshot and reloads the whole catalog from Cosmos.
+     *
+     * @return the new snapshot
+     */
+    public CatalogSnapshot rebuild() {
+        lock.lock();
+        try {
+            return rebuildLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private CatalogSnapshot rebuildLocked() {
+        long start = System.nanoTime();
+        CosmosAsyncContainer container = filmsContainer();
+
+        // Take the change feed position BEFORE reading the catalog:
+        // changes made during the load are re-applied on the next poll.
+        String continuation = currentChangeFeedPosition(container);
+        List<Film> films = filmRepo.findAllFilms();
+
+        long version = snapshot != null ? snapshot.getVersion() + 1 : 1;
+        CatalogSnapshot rebuilt = CatalogSnapshot.of(version, films);
+        this.snapshot = rebuilt;
+        this.changeFeedContinuation = continuation;
+        this.lastSyncAt = Instant.now();
+        rebuilds.increment();
+
+        logger.info("Catalog snapshot v{} built: {} films in {} ms",
+                version, rebuilt.size(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+
+        listeners.orderedStream().forEach(l -> l.onSnapshotRebuilt(rebuilt));
+        return rebuilt;
+    }
+
+    /**
+     * Polls the films change feed and applies inserted/updated films
+     * to a new snapshot. No-op until the first snapshot has been loaded.
+     */
+    @Scheduled(fixedDelayString = "${catalog.cache.change-feed-poll-ms:5000}")
+    public void pollChangeFeed() {
+        lock.lock();
+        try {
+            pollChangeFeedLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void pollChangeFeedLocked() {
+        if (!enabled || snapshot == null) {
+            return;
+        }
+        try {
+            CosmosChangeFeedRequestOptions options = changeFeedContinuation != null
+                    ? CosmosChangeFeedRequestOptions.createForProcessingFromContinuation(changeFeedContinuation)
+                    : CosmosChangeFeedRequestOptions.createForProcessingFromNow(FeedRange.forFullRange());
+
+            List<Film> changed = new ArrayList<>();
+            String continuation = changeFeedContinuation;
+            for (FeedResponse<JsonNode> page : filmsContainer()
+                    .queryChangeFeed(options, JsonNode.class)
+                    .byPage()
+                    .take(maxPagesPerPoll)
+                    .takeUntil(p -> p.getResults().isEmpty())
+                    .toIterable()) {
+                for (JsonNode node : page.getResults()) {
+                    changed.add(objectMapper.treeToValue(node, Film.class));
+                }
+                continuation = page.getContinuationToken();
+            }
+
+            this.changeFeedContinuation = continuation;
+            this.lastSyncAt = Instant.now();
+
+            if (!changed.isEmpty()) {
+                CatalogSnapshot updated = snapshot.withChanges(changed);
+                this.snapshot = updated;
+                changesApplied.increment(changed.size());
+                logger.info("Catalog snapshot v{}: applied {} change(s) from the change feed",
+                        updated.getVersion(), changed.size());
+                listeners.orderedStream().forEach(l -> l.onFilmsChanged(updated, changed));
+            }
+        } catch (JsonProcessingException e) {
+            logger.error("Unreadable document in films change feed, forcing a rebuild", e);
+            rebuildLocked();
+        } catch (RuntimeException e) {
+            // Keep serving the last snapshot; staleness grows until Cosmos is back
+            logger.warn("Change feed poll failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drops the films deleted from Cosmos, which the change feed does not
+     * report: the snapshot's ids are compared with an id-only scan of the
+     * container. No-op until the first snapshot has been loaded.
+     */
+    @Scheduled(initialDelayString = "${catalog.cache.reconcile-interval-ms:600000}",
+            fixedDelayString = "${catalog.cache.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        lock.lock();
+        try {
+            reconcileLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reconcileLocked() {
+        if (!enabled || snapshot == null) {
+            return;
+        }
+        try {
+            // Holding the lock: every film of the snapshot existed in Cosmos before the scan
+            Set<String> existing = new HashSet<>();
+            for (Film film : filmRepo.findAllIds()) {
+                existing.add(film.getId());
+            }
+            List<String> removed = snapshot.missingFrom(existing);
+            if (removed.isEmpty()) {
+                return;
+            }
+            CatalogSnapshot updated = snapshot.withoutFilms(removed);
+            this.snapshot = updated;
+            filmsRemoved.increment(removed.size());
+            logger.info("Catalog snapshot v{}: dropped {} deleted film(s)", updated.getVersion(), removed.size());
+            listeners.orderedStream().forEach(l -> l.onFilmsRemoved(updated, removed));
+        } catch (RuntimeException e) {
+            logger.warn("Catalog reconcile failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Seconds elapsed since the snapshot was last known to be in sync with Cosmos.
+     */
+    public double stalenessSeconds() {
+        Instant last = lastSyncAt;
+        return last == null ? 0 : Duration.between(last, Instant.now()).toMillis() / 1000.0;
+    }
+
+    public double hitCount() {
+        return hits.count();
+    }
+
+    public double missCount() {
+        return misses.count();
+    }
+
+    private CatalogSnapshot loadIfAbsent() {
+        lock.lock();
+        try {
+            return snapshot != null ? snapshot : rebuildLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private CatalogSnapshot loaded() {
+        CatalogSnapshot current = snapshot;
+        return current != null ? current : loadIfAbsent();
+    }
+
+    private Optional<Film> record(Optional<Film> film) {
+        (film.isPresent() ? hits : misses).increment();
+        return film;
+    }
+
+    private String currentChangeFeedPosition(CosmosAsyncContainer container) {
+        CosmosChangeFeedRequestOptions options = CosmosChangeFeedRequestOptions
+                .createForProcessingFromNow(FeedRange.forFullRange());
+        FeedResponse<JsonNode> first = container.queryChangeFeed(options, JsonNode.class)
+                .byPage()
+                .blockFirst();
+        return first != null ? first.getContinuationToken() : null;
+    }
+
+    private CosmosAsyncContainer filmsContainer() {
+        return cosmosAsyncClient.getDatabase(cosmos.database()).getContainer(cosmos.filmsContainer());
+    }
+}
@@ -0,0 +1,50 @@
+package com.uvod.catalog.cache;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for the catalog cache.
+ *
+ * GET  /actuator/catalogcache → cache statistics
+ * POST /actuator/catalogcache → forces a full rebuild from Cosmos
+ */
+@Component
+@Endpoint(id = "catalogcache")
+public class CatalogCacheEndpoint {
+
+    private final CatalogCache catalogCache;
+
+    public CatalogCacheEndpoint(CatalogCache catalogCache) {
+        this.catalogCache = catalogCache;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", catalogCache.isEnabled());
+        stats.put("hits", catalogCache.hitCount());
+        stats.put("misses", catalogCache.missCount());
+        stats.put("stalenessSeconds", catalogCache.stalenessSeconds());
+        catalogCache.current().ifPresent(snapshot -> {
+            stats.put("version", snapshot.getVersion());
+            stats.put("films", snapshot.size());
+            stats.put("genres", snapshot.getFilmsByGenre().keySet());
+            stats.put("builtAt", snapshot.getBuiltAt().toString());
+        });
+        return stats;
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        CatalogSnapshot snapshot = catalogCache.rebuild();
+        return Map.of(
+                "version", snapshot.getVersion(),
+                "films", snapshot.size());
+    }
+}
@@ -0,0 +1,45 @@
+package com.uvod.catalog.cache;
+
+import com.uvod.catalog.model.Film;
+
+import java.util.List;
+
+/**
+ * Callback for components that derive data from the catalog
+ * (indexes, pre-rendered responses, ...).
+ *
+ * Every bean implementing this interface is notified by CatalogCache
+ * after a new snapshot has been published.
+ */
+public interface CatalogChangeListener {
+
+    /**
+     * Called after a full rebuild of the catalog snapshot.
+     *
+     * @param snapshot the newly published snapshot
+     */
+    void onSnapshotRebuilt(CatalogSnapshot snapshot);
+
+    /**
+     * Called after a batch of changes has been read from the change feed.
+     * By default, treats the batch as a full rebuild.
+     *
+     * @param snapshot the newly published snapshot (already includes the changes)
+     * @param changed  films inserted or updated since the previous snapshot
+     */
+    default void onFilmsChanged(CatalogSnapshot snapshot, List<Film> changed) {
+        onSnapshotRebuilt(snapshot);
+    }
+
+    /**
+     * Called after films deleted from Cosmos have been dropped from the
+     * snapshot (see CatalogCache#reconcile). By default, treats it as a
+     * full rebuild.
+     *
+     * @param snapshot   the newly published snapshot (already without the films)
+     * @param removedIds ids of the deleted films
+     */
+    default void onFilmsRemoved(CatalogSnapshot snapshot, List<String> removedIds) {
+        onSnapshotRebuilt(snapshot);
+    }
+}
@@ -0,0 +1,130 @@
+package com.uvod.catalog.cache;
+
+import com.uvod.catalog.model.Film;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable, in-memory view of the whole film catalog.
+ *
+ * Holds the full film list plus per-genre, per-id and per-slug lookups.
+ * A new snapshot (with a higher version) is built every time the catalog
+ * changes; readers never see a partially updated snapshot.
+ */
+@Getter
+public final class CatalogSnapshot {
+
+    /** Monotonic version, incremented on every rebuild or change batch */
+    private final long version;
+
+    /** When this snapshot was built */
+    private final Instant builtAt;
+
+    /** All films, sorted by title */
+    private final List<Film> films;
+
+    /** Films grouped by genre (partition key) */
+    private final Map<String, List<Film>> filmsByGenre;
+
+    private final Map<String, Film> filmsById;
+
+    private final Map<String, Film> filmsBySlug;
+
+    private CatalogSnapshot(long version, Collection<Film> films) {
+        List<Film> sorted = new ArrayList<>(films);
+        sorted.sort(Comparator.comparing(Film::getTitle, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+
+        Map<String, List<Film>> byGenre = new LinkedHashMap<>();
+        Map<String, Film> byId = new LinkedHashMap<>();
+        Map<String, Film> bySlug = new LinkedHashMap<>();
+        for (Film film : sorted) {
+            byGenre.computeIfAbsent(film.getGenre(), g -> new ArrayList<>()).add(film);
+            byId.put(film.getId(), film);
+            if (film.getSlug() != null) {
+                bySlug.put(film.getSlug(), film);
+            }
+        }
+        byGenre.replaceAll((genre, list) -> Collections.unmodifiableList(list));
+
+        this.version = version;
+        this.builtAt = Instant.now();
+        this.films = Collections.unmodifiableList(sorted);
+        this.filmsByGenre = Collections.unmodifiableMap(byGenre);
+        this.filmsById = Collections.unmodifiableMap(byId);
+        this.filmsBySlug = Collections.unmodifiableMap(bySlug);
+    }
+
+    /**
+     * Builds a snapshot from a full catalog load.
+     */
+    public static CatalogSnapshot of(long version, Collection<Film> films) {
+        return new CatalogSnapshot(version, films);
+    }
+
+    /**
+     * Returns a new snapshot with the given films inserted or replaced (by id).
+     * The current snapshot is left untouched.
+     *
+     * @param changed films read from the change feed
+     */
+    public CatalogSnapshot withChanges(Collection<Film> changed) {
+        Map<String, Film> merged = new LinkedHashMap<>(filmsById);
+        for (Film film : changed) {
+            merged.put(film.getId(), film);
+        }
+        return new CatalogSnapshot(version + 1, merged.values());
+    }
+
+    /**
+     * Returns a new snapshot without the given films.
+     * The current snapshot is left untouched.
+     *
+     * @param removedIds ids of deleted films
+     */
+    public CatalogSnapshot withoutFilms(Collection<String> removedIds) {
+        Map<String, Film> remaining = new LinkedHashMap<>(filmsById);
+        remaining.keySet().removeAll(removedIds);
+        return new CatalogSnapshot(version + 1, remaining.values());
+    }
+
+    /**
+     * Ids of the films of this snapshot that are not in the given set,
+     * i.e. films deleted since they were loaded.
+     *
+     * @param existingIds ids of every film currently in Cosmos
+     */
+    public List<String> missingFrom(Set<String> existingIds) {
+        return filmsById.keySet().stream()
+                .filter(id -> !existingIds.contains(id))
+                .toList();
+    }
+
+    public Optional<Film> findById(String id) {
+        return Optional.ofNullable(filmsById.get(id));
+    }
+
+    public Optional<Film> findBySlug(String slug) {
+        return Optional.ofNullable(filmsBySlug.get(slug));
+    }
+
+    /**
+     * Returns the films of a genre, or an empty list if the genre is unknown.
+     */
+    public List<Film> findByGenre(String genre) {
+        return filmsByGenre.getOrDefault(genre, List.of());
+    }
+
+    public int size() {
+        return films.size();
+    }
+}
@@ -0,0 +1,110 @@
+package com.uvod.catalog.cache;
+
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A response body serialized once and kept in memory,
+ * in identity and gzip encodings, with its content-hash ETag.
+ * The body is JSON or one of its binary forms (see ResponseFormat).
+ */
+@Getter
+public final class EncodedBody {
+
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    /** Serialized bytes, uncompressed */
+    private final byte[] body;
+
+    /** Gzip-compressed body, or null if compression does not pay off */
+    private final byte[] gzip;
+
+    /**
+     * Hex SHA-256 prefix of the body bytes (without quotes). Each format
+     * has different bytes, hence its own validator.
+     */
+    private final String hash;
+
+    private EncodedBody(byte[] body, byte[] gzip, String hash) {
+        this.body = body;
+        this.gzip = gzip;
+        this.hash = hash;
+    }
+
+    public static EncodedBody of(byte[] body) {
+        byte[] gzip = gzip(body);
+        return new EncodedBody(body, gzip.length < body.length ? gzip : null, sha256Prefix(body));
+    }
+
+    /**
+     * Strong ETag of the identity representation.
+     */
+    public String etag() {
+        return "\"" + hash + "\"";
+    }
+
+    /**
+     * Strong ETag of the gzip representation (a different byte sequence,
+     * so it needs its own validator).
+     */
+    public String gzipEtag() {
+        return "\"" + hash + GZIP_SUFFIX + "\"";
+    }
+
+    /**
+     * Evaluates an If-None-Match header against this body.
+     * Uses the weak comparison required by RFC 9110 for If-None-Match,
+     * and accepts the validator of either encoding.
+     *
+     * @param ifNoneMatch header value (can be null)
+     * @return true if the client copy is current (→ 304 Not Modified)
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            tag = tag.replace("\"", "");
+            if (tag.endsWith(GZIP_SUFFIX)) {
+                tag = tag.substring(0, tag.length() - GZIP_SUFFIX.length());
+            }
+            if (tag.equals(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha256Prefix(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.uvod.catalog.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps serialized (and gzip-compressed) catalog responses in memory,
+ * one entry per response and ResponseFormat.
+ *
+ * Entries belong to a generation bound to the current catalog snapshot:
+ * when the catalog changes the whole generation is dropped, so a body is
+ * serialized at most once per catalog version.
+ */
+@Component
+public class EncodedResponseCache implements CatalogChangeListener {
+
+    private final Map<ResponseFormat, ObjectMapper> objectMappers = new EnumMap<>(ResponseFormat.class);
+    private final CatalogCache catalogCache;
+    private final int maxEntries;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    private volatile Map<String, EncodedBody> generation = new ConcurrentHashMap<>();
+
+    /**
+     * The binary formats reuse the ObjectMappers of the MVC message
+     * converters, so cached and non-cached endpoints encode identically.
+     */
+    public EncodedResponseCache(ObjectMapper objectMapper,
+            MappingJackson2SmileHttpMessageConverter smileConverter,
+            MappingJackson2CborHttpMessageConverter cborConverter,
+            CatalogCache catalogCache,
+            MeterRegistry meterRegistry,
+            @Value("${catalog.response-cache.max-entries:10000}") int maxEntries) {
+        this.objectMappers.put(ResponseFormat.JSON, objectMapper);
+        this.objectMappers.put(ResponseFormat.SMILE, smileConverter.getObjectMapper());
+        this.objectMappers.put(ResponseFormat.CBOR, cborConverter.getObjectMapper());
+        this.catalogCache = catalogCache;
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder("catalog.response.cache.gets").tag("result", "hit")
+                .description("Catalog responses served pre-serialized").register(meterRegistry);
+        this.misses = Counter.builder("catalog.response.cache.gets").tag("result", "miss")
+                .description("Catalog responses that had to be serialized").register(meterRegistry);
+    }
+
+    /**
+     * Returns the encoded body for a key, serializing the value produced
+     * by the supplier on a miss.
+     *
+     * @param key      response identity (e.g. "all", "id:{id}")
+     * @param format   encoding negotiated with the client
+     * @param producer produces the DTO to serialize; exceptions propagate to the caller
+     */
+    public EncodedBody get(String key, ResponseFormat format, Supplier<?> producer) {
+        if (!catalogCache.isEnabled()) {
+            // No change notifications → nothing to invalidate with, never store
+            misses.increment();
+            return encode(format, producer.get());
+        }
+
+        String entryKey = format == ResponseFormat.JSON ? key : format.name() + ':' + key;
+        Map<String, EncodedBody> current = generation;
+        EncodedBody cached = current.get(entryKey);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        EncodedBody body = encode(format, producer.get());
+        if (current.size() < maxEntries) {
+            current.putIfAbsent(entryKey, body);
+        }
+        return body;
+    }
+
+    @Override
+    public void onSnapshotRebuilt(CatalogSnapshot snapshot) {
+        generation = new ConcurrentHashMap<>();
+    }
+
+    private EncodedBody encode(ResponseFormat format, Object value) {
+        try {
+            return EncodedBody.of(objectMappers.get(format).writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize catalog response", e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.uvod.catalog.cache;
+
+import com.uvod.catalog.model.Film;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * slug → (id, genre) and id → genre mappings, so that lookups by slug or
+ * by id can be served as single-partition point reads (or a readMany)
+ * instead of cross-partition queries.
+ *
+ * Filled from catalog snapshots and change-feed batches, and learned from
+ * query results: it keeps working when the snapshot cache is disabled.
+ */
+@Component
+public class FilmKeyIndex implements CatalogChangeListener {
+
+    /**
+     * Everything needed for a point read: id and partition key.
+     */
+    public record FilmKey(String id, String genre) {
+    }
+
+    private final Map<String, FilmKey> keysBySlug = new ConcurrentHashMap<>();
+    private final Map<String, String> genresById = new ConcurrentHashMap<>();
+
+    public FilmKeyIndex(MeterRegistry meterRegistry) {
+        Gauge.builder("catalog.film.key.index.size", genresById, Map::size)
+                .description("Films resolvable with a point read")
+                .register(meterRegistry);
+    }
+
+    public Optional<FilmKey> findBySlug(String slug) {
+        return Optional.ofNullable(keysBySlug.get(slug));
+    }
+
+    public Optional<FilmKey> findById(String id) {
+        String genre = genresById.get(id);
+        return genre == null ? Optional.empty() : Optional.of(new FilmKey(id, genre));
+    }
+
+    /**
+     * Records the key of a film, e.g. after it has been read with a query.
+     */
+    public void put(Film film) {
+        if (film.getId() == null || film.getGenre() == null) {
+            return;
+        }
+        genresById.put(film.getId(), film.getGenre());
+        if (film.getSlug() != null) {
+            keysBySlug.put(film.getSlug(), new FilmKey(film.getId(), film.getGenre()));
+        }
+    }
+
+    /**
+     * Drops a slug mapping that turned out to be stale (film deleted or slug changed).
+     */
+    public void evictSlug(String slug) {
+        keysBySlug.remove(slug);
+    }
+
+    /**
+     * Drops an id mapping that turned out to be stale (film deleted or genre changed).
+     */
+    public void evictId(String id) {
+        genresById.remove(id);
+    }
+
+    @Override
+    public void onSnapshotRebuilt(CatalogSnapshot snapshot) {
+        keysBySlug.clear();
+        genresById.clear();
+        snapshot.getFilms().forEach(this::put);
+    }
+
+    @Override
+    public void onFilmsChanged(CatalogSnapshot snapshot, List<Film> changed) {
+        changed.forEach(this::put);
+    }
+
+    @Override
+    public void onFilmsRemoved(CatalogSnapshot snapshot, List<String> removedIds) {
+        Set<String> removed = new HashSet<>(removedIds);
+        genresById.keySet().removeAll(removed);
+        keysBySlug.values().removeIf(key -> removed.contains(key.id()));
+    }
+}
@@ -0,0 +1,61 @@
+package com.uvod.catalog.cache;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Encodings the pre-serialized catalog responses are available in.
+ * Same document, same field names: Smile and CBOR are binary JSON.
+ */
+public enum ResponseFormat {
+
+    JSON(MediaType.APPLICATION_JSON),
+    SMILE(new MediaType("application", "x-jackson-smile")),
+    CBOR(MediaType.APPLICATION_CBOR);
+
+    private final MediaType mediaType;
+
+    ResponseFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Picks the format for an Accept header: the binary formats only when
+     * explicitly listed (highest quality first), JSON otherwise, including
+     * for wildcards and malformed headers.
+     */
+    public static ResponseFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        return accepted.stream()
+                .filter(type -> type.getQualityValue() > 0 && !type.isWildcardType() && !type.isWildcardSubtype())
+                .sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed())
+                .map(ResponseFormat::of)
+                .filter(format -> format != null)
+                .findFirst()
+                .orElse(JSON);
+    }
+
+    private static ResponseFormat of(MediaType type) {
+        for (ResponseFormat format : values()) {
+            if (format.mediaType.equalsTypeAndSubtype(type)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
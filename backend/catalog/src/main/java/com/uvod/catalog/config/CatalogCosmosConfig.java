@@ -4,14 +4,20 @@ import com.azure.cosmos.CosmosClientBuilder;
 import com.azure.cosmos.GatewayConnectionConfig;
 import com.azure.identity.DefaultAzureCredentialBuilder;
 import com.azure.spring.data.cosmos.config.AbstractCosmosConfiguration;
+import com.azure.spring.data.cosmos.config.CosmosConfig;
 import com.azure.spring.data.cosmos.repository.config.EnableCosmosRepositories;
+import com.azure.spring.data.cosmos.repository.config.EnableReactiveCosmosRepositories;
+import com.uvod.common.cosmos.CosmosResponseRecorder;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.util.StringUtils;
 
 @Configuration
 @EnableCosmosRepositories(basePackages = "com.uvod.catalog.repository")
+@EnableReactiveCosmosRepositories(basePackages = "com.uvod.catalog.reactive")
+@EnableConfigurationProperties(CatalogCosmosProperties.class)
 public class CatalogCosmosConfig extends AbstractCosmosConfiguration {
 
     @Value("${AZURE_COSMOS_URI}")
@@ -20,12 +26,27 @@ public class CatalogCosmosConfig extends AbstractCosmosConfiguration {
     @Value("${AZURE_COSMOS_KEY:}")
     private String key;
 
-    @Value("${AZURE_COSMOS_DB}")
-    private String dbName;
+    private final CatalogCosmosProperties cosmos;
+
+    public CatalogCosmosConfig(CatalogCosmosProperties cosmos) {
+        this.cosmos = cosmos;
+    }
 
     @Override
     protected String getDatabaseName() {
-        return dbName;
+        return cosmos.database();
+    }
+
+    /**
+     * Attributes the request charge of every response to the
+     * repository method that issued it (cosmos.repository.* metrics).
+     */
+    @Override
+    @Bean
+    public CosmosConfig cosmosConfig() {
+        return CosmosConfig.builder()
+                .responseDiagnosticsProcessor(new CosmosResponseRecorder())
+                .build();
     }
 
     @Bean
@@ -0,0 +1,15 @@
+package com.uvod.catalog.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Where the catalog lives in Cosmos, bound once from catalog.cosmos.*
+ * (the database comes from AZURE_COSMOS_DB, see application.properties).
+ *
+ * @param database       Cosmos database name
+ * @param filmsContainer container holding the films, partitioned by /genre
+ */
+@ConfigurationProperties("catalog.cosmos")
+public record CatalogCosmosProperties(String database, @DefaultValue("films") String filmsContainer) {
+}
@@ -0,0 +1,29 @@
+package com.uvod.catalog.config;
+
+import com.uvod.catalog.dto.FilmCardResponse;
+import com.uvod.catalog.dto.FilmResponse;
+import com.uvod.catalog.dto.HomeResponse;
+import com.uvod.catalog.model.Film;
+import com.uvod.common.cosmos.CosmosRuntimeHints;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection hints for the native image (-Pnative).
+ *
+ * DTOs returned by controller methods are registered by Spring MVC's AOT
+ * processing; the ones listed here never appear in a signature: they are
+ * serialized by hand into the EncodedResponseCache (the endpoints return
+ * byte[]) or streamed as NDJSON from a Flux<?>. MapStruct mappers are plain
+ * generated beans and need nothing.
+ */
+public class CatalogRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        CosmosRuntimeHints.registerEntities(hints, Film.class);
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                FilmResponse.class, FilmCardResponse.class, HomeResponse.class);
+    }
+}
@@ -2,48 +2,94 @@ package com.uvod.catalog.config;
 
 import com.uvod.catalog.model.Film;
 import com.uvod.catalog.repository.FilmRepo;
+import com.uvod.catalog.seed.BulkFilmLoader;
+import com.uvod.catalog.seed.SyntheticCatalogGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 /**
- * Populates the database with dummy films on application startup.
+ * Populates the database on application startup.
+ *
+ * Modes (catalog.seed.mode):
+ * - demo: the hand-written films below (default, local development)
+ * - synthetic: catalog.seed.synthetic.count generated films, for scale testing
+ * - none: no seeding and no database access at all (production)
+ *
+ * Films are written with the Cosmos bulk executor. Seeding only runs when
+ * the container is empty, checked with a TOP 1 query rather than a COUNT.
  */
 @Component
 public class CatalogSeeder implements CommandLineRunner {
 
         private static final Logger logger = LoggerFactory.getLogger(CatalogSeeder.class);
 
-        private final FilmRepo filmRepo;
+        private static final String MODE_DEMO = "demo";
+        private static final String MODE_SYNTHETIC = "synthetic";
+        private static final String MODE_NONE = "none";
 
-        public CatalogSeeder(FilmRepo filmRepo) {
+        private final FilmRepo filmRepo;
+        private final BulkFilmLoader bulkFilmLoader;
+        private final String mode;
+        private final int syntheticCount;
+        private final long syntheticSeed;
+        private final int batchSize;
+        private final int parallelism;
+
+        public CatalogSeeder(FilmRepo filmRepo,
+                        BulkFilmLoader bulkFilmLoader,
+                        @Value("${catalog.seed.mode:demo}") String mode,
+                        @Value("${catalog.seed.synthetic.count:10000}") int syntheticCount,
+                        @Value("${catalog.seed.synthetic.random-seed:42}") long syntheticSeed,
+                        @Value("${catalog.seed.bulk.batch-size:1000}") int batchSize,
+                        @Value("${catalog.seed.bulk.parallelism:4}") int parallelism) {
                 this.filmRepo = filmRepo;
+                this.bulkFilmLoader = bulkFilmLoader;
+                this.mode = mode.trim().toLowerCase(Locale.ROOT);
+                this.syntheticCount = syntheticCount;
+                this.syntheticSeed = syntheticSeed;
+                this.batchSize = batchSize;
+                this.parallelism = parallelism;
         }
 
         @Override
         public void run(String... args) {
-                long count = filmRepo.count();
-                if (count > 0) {
-                        logger.info("Catalog already populated ({} films). Seeding skipped.", count);
+                if (MODE_NONE.equals(mode)) {
+                        logger.info("Catalog seeding disabled.");
+                        return;
+                }
+                if (!MODE_DEMO.equals(mode) && !MODE_SYNTHETIC.equals(mode)) {
+                        logger.warn("Unknown catalog.seed.mode '{}'. Seeding skipped.", mode);
+                        return;
+                }
+                if (!filmRepo.findAnyId().isEmpty()) {
+                        logger.info("Catalog already populated. Seeding skipped.");
                         return;
                 }
 
-                logger.info("Collection empty. Starting catalog seeding...");
-
-                List<Film> films = createSeedData();
+                logger.info("Collection empty. Starting catalog seeding ({})...", mode);
 
-                // Save one by one to handle different partition keys
-                for (Film film : films) {
-                        filmRepo.save(film);
+                BulkFilmLoader.LoadReport report;
+                if (MODE_SYNTHETIC.equals(mode)) {
+                        SyntheticCatalogGenerator generator = new SyntheticCatalogGenerator(syntheticSeed);
+                        report = bulkFilmLoader.load(syntheticCount, generator::film, batchSize, parallelism);
+                } else {
+                        List<Film> films = createSeedData();
+                        report = bulkFilmLoader.load(films.size(), films::get, batchSize, parallelism);
                 }
 
-                logger.info("Seeding completed: {} films inserted.", films.size());
+                logger.info("Seeding completed: {} films inserted, {} failed in {} ms "
+                                + "({} films/s, {} RU total, {} RU/s).",
+                                report.inserted(), report.failed(), report.elapsed().toMillis(),
+                                String.format("%.0f", report.filmsPerSecond()),
+                                String.format("%.0f", report.requestCharge()),
+                                String.format("%.0f", report.requestUnitsPerSecond()));
         }
 
         private List<Film> createSeedData() {
@@ -51,6 +97,8 @@ public class CatalogSeeder implements CommandLineRunner {
                 // Dark purple background: 6c3fc5 | Indigo background: 4a2fa0 | Light blue
                 // background: 3a86c8
                 // White text: ffffff
+                // A new color must also be added to the streaming service's
+                // streaming.thumbnails.placeholder-colors, which rejects any other
 
                 return List.of(
                                 // --- SCI-FI (5 films) ---
@@ -238,9 +286,8 @@ public class CatalogSeeder implements CommandLineRunner {
         private Film buildFilm(String title, String description, int year, String genre,
                         int duration, String blobName, List<String> cast,
                         List<String> tags, String bgColor) {
-                String encodedTitle = URLEncoder.encode(title, StandardCharsets.UTF_8).replace("+", "%20");
-                String thumbnailUrl = String.format("https://dummyimage.com/600x400/%s/ffffff&text=%s", bgColor,
-                                encodedTitle);
+                String thumbnailUrl = SyntheticCatalogGenerator.thumbnailUrl(
+                                blobName.substring(0, blobName.lastIndexOf('.')), title, bgColor);
                 String slug = title.toLowerCase()
                                 .replaceAll("[^a-z0-9\\s-]", "")
                                 .replaceAll("\\s+", "-");
@@ -1,32 +1,110 @@
 package com.uvod.catalog.controller;
 
+import com.uvod.catalog.cache.EncodedBody;
+import com.uvod.catalog.cache.EncodedResponseCache;
+import com.uvod.catalog.cache.ResponseFormat;
+import com.uvod.catalog.dto.BrowseRequest;
+import com.uvod.catalog.dto.BrowseResponse;
+import com.uvod.catalog.dto.FilmBatchResponse;
+import com.uvod.catalog.dto.FilmPageResponse;
 import com.uvod.catalog.dto.FilmResponse;
+import com.uvod.catalog.dto.SuggestionResponse;
 import com.uvod.catalog.service.CatalogService;
+import com.uvod.catalog.service.CatalogStreamService;
+import com.uvod.common.http.ContentCoding;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Controller for the film catalog.
+ *
+ * List and detail responses are served pre-serialized from the
+ * EncodedResponseCache, with a content-hash ETag: a matching
+ * If-None-Match gets 304 Not Modified without any body. They are
+ * available as JSON (default), Smile or CBOR, chosen by the Accept header.
  */
 @RestController
 @RequestMapping("/catalog")
 public class CatalogController {
 
+    private static final String VIEW_FULL = "full";
+    private static final String VIEW_CARD = "card";
+
     private final CatalogService catalogService;
+    private final CatalogStreamService catalogStreamService;
+    private final EncodedResponseCache responseCache;
+    private final CacheControl cacheControl;
 
-    public CatalogController(CatalogService catalogService) {
+    public CatalogController(CatalogService catalogService,
+            CatalogStreamService catalogStreamService,
+            EncodedResponseCache responseCache,
+            @Value("${catalog.http.max-age-seconds:60}") long maxAgeSeconds) {
         this.catalogService = catalogService;
+        this.catalogStreamService = catalogStreamService;
+        this.responseCache = responseCache;
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds))
+                .cachePublic()
+                .mustRevalidate();
     }
 
     /**
-     * GET /catalog
+     * GET /catalog[?view=card]
      * Returns all films in the catalog.
+     * With view=card, returns only the fields needed to render a card.
      */
     @GetMapping
-    public ResponseEntity<List<FilmResponse>> getAllFilms() {
-        return ResponseEntity.ok(catalogService.getAllFilms());
+    public ResponseEntity<byte[]> getAllFilms(
+            @RequestParam(defaultValue = VIEW_FULL) String view,
+            @RequestHeader HttpHeaders headers) {
+        if (isCardView(view)) {
+            return cached("all:card", catalogService::getAllFilmCards, headers);
+        }
+        return cached("all", catalogService::getAllFilms, headers);
+    }
+
+    /**
+     * GET /catalog[?view=card] with Accept: application/x-ndjson
+     * Streams the catalog one film per line, with backpressure.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<?> streamAllFilms(@RequestParam(defaultValue = VIEW_FULL) String view) {
+        return isCardView(view) ? catalogStreamService.streamAllFilmCards() : catalogStreamService.streamAllFilms();
+    }
+
+    /**
+     * GET /catalog?pageSize=...&continuationToken=...[&view=card]
+     * Returns one page of the catalog. The response carries the
+     * continuationToken to pass for the next page (null on the last one).
+     */
+    @GetMapping(params = "pageSize")
+    public ResponseEntity<FilmPageResponse<?>> getFilmsPage(
+            @RequestParam int pageSize,
+            @RequestParam(required = false) String continuationToken,
+            @RequestParam(defaultValue = VIEW_FULL) String view) {
+        if (isCardView(view)) {
+            return ResponseEntity.ok(catalogService.getFilmCardsPage(pageSize, continuationToken));
+        }
+        return ResponseEntity.ok(catalogService.getFilmsPage(pageSize, continuationToken));
+    }
+
+    /**
+     * GET /catalog/home
+     * Hero film plus the newest films of each genre, in one payload.
+     * Rebuilt only when the catalog changes.
+     */
+    @GetMapping("/home")
+    public ResponseEntity<byte[]> getHome(@RequestHeader HttpHeaders headers) {
+        return cached("home", catalogService::getHome, headers);
     }
 
     /**
@@ -34,17 +112,87 @@ public class CatalogController {
      * Returns a single film by ID.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<FilmResponse> getFilmById(@PathVariable String id) {
-        return ResponseEntity.ok(catalogService.getFilmById(id));
+    public ResponseEntity<byte[]> getFilmById(@PathVariable String id, @RequestHeader HttpHeaders headers) {
+        return cached("id:" + id, () -> catalogService.getFilmById(id), headers);
     }
 
     /**
-     * GET /catalog/genre/{genre}
+     * GET /catalog/{id}/similar?limit=...
+     * Related films ("more like this"), from precomputed lists.
+     */
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<FilmResponse>> getSimilarFilms(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "12") int limit) {
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .body(catalogService.getSimilarFilms(id, limit));
+    }
+
+    /**
+     * GET /catalog/batch?ids=id1,id2,...
+     * Returns several films in one call, in request order, plus the ids
+     * that were not found.
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<FilmBatchResponse> getFilmsByIds(@RequestParam List<String> ids) {
+        return ResponseEntity.ok(catalogService.getFilmsByIds(ids));
+    }
+
+    /**
+     * GET /catalog/genre/{genre}[?view=card]
      * Returns films filtered by genre.
      */
     @GetMapping("/genre/{genre}")
-    public ResponseEntity<List<FilmResponse>> getFilmsByGenre(@PathVariable String genre) {
-        return ResponseEntity.ok(catalogService.getFilmsByGenre(genre));
+    public ResponseEntity<byte[]> getFilmsByGenre(
+            @PathVariable String genre,
+            @RequestParam(defaultValue = VIEW_FULL) String view,
+            @RequestHeader HttpHeaders headers) {
+        if (isCardView(view)) {
+            return cached("genre:card:" + genre, () -> catalogService.getFilmCardsByGenre(genre), headers);
+        }
+        return cached("genre:" + genre, () -> catalogService.getFilmsByGenre(genre), headers);
+    }
+
+    /**
+     * GET /catalog/genre/{genre}[?view=card] with Accept: application/x-ndjson
+     * Streams a genre one film per line, with backpressure.
+     */
+    @GetMapping(value = "/genre/{genre}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<?> streamFilmsByGenre(
+            @PathVariable String genre,
+            @RequestParam(defaultValue = VIEW_FULL) String view) {
+        return isCardView(view)
+                ? catalogStreamService.streamFilmCardsByGenre(genre)
+                : catalogStreamService.streamFilmsByGenre(genre);
+    }
+
+    /**
+     * GET /catalog/genre/{genre}?pageSize=...&continuationToken=...[&view=card]
+     * Returns one page of a genre.
+     */
+    @GetMapping(value = "/genre/{genre}", params = "pageSize")
+    public ResponseEntity<FilmPageResponse<?>> getFilmsByGenrePage(
+            @PathVariable String genre,
+            @RequestParam int pageSize,
+            @RequestParam(required = false) String continuationToken,
+            @RequestParam(defaultValue = VIEW_FULL) String view) {
+        if (isCardView(view)) {
+            return ResponseEntity.ok(catalogService.getFilmCardsByGenrePage(genre, pageSize, continuationToken));
+        }
+        return ResponseEntity.ok(catalogService.getFilmsByGenrePage(genre, pageSize, continuationToken));
+    }
+
+    /**
+     * GET /catalog/browse?genre=...&tag=...&cast=...&yearFrom=...&yearTo=...
+     *     &durationFrom=...&durationTo=...&sort=year|duration|title&order=asc|desc&offset=...&limit=...
+     * Multi-filter browse with facet counts, served from memory.
+     */
+    @GetMapping("/browse")
+    public ResponseEntity<BrowseResponse> browse(BrowseRequest request) {
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .body(catalogService.browse(request));
     }
 
     /**
@@ -56,12 +204,67 @@ public class CatalogController {
         return ResponseEntity.ok(catalogService.searchFilms(query));
     }
 
+    /**
+     * GET /catalog/suggest?prefix=...&limit=...
+     * Typeahead completions (titles, cast, tags), served from memory.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .body(catalogService.suggest(prefix, limit));
+    }
+
     /**
      * GET /catalog/slug/{slug}
      * Returns a single film by slug.
      */
     @GetMapping("/slug/{slug}")
-    public ResponseEntity<FilmResponse> getFilmBySlug(@PathVariable String slug) {
-        return ResponseEntity.ok(catalogService.getFilmBySlug(slug));
+    public ResponseEntity<byte[]> getFilmBySlug(@PathVariable String slug, @RequestHeader HttpHeaders headers) {
+        return cached("slug:" + slug, () -> catalogService.getFilmBySlug(slug), headers);
+    }
+
+    /**
+     * Serves a pre-serialized body, honouring Accept, If-None-Match and Accept-Encoding.
+     */
+    private ResponseEntity<byte[]> cached(String key, Supplier<?> producer, HttpHeaders headers) {
+        ResponseFormat format = ResponseFormat.negotiate(headers.getFirst(HttpHeaders.ACCEPT));
+        EncodedBody body = responseCache.get(key, format, producer);
+        boolean gzip = body.getGzip() != null && acceptsGzip(headers);
+        boolean notModified = body.matches(headers.getFirst(HttpHeaders.IF_NONE_MATCH));
+
+        ResponseEntity.BodyBuilder response = ResponseEntity
+                .status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .eTag(gzip ? body.gzipEtag() : body.etag());
+
+        if (notModified) {
+            return response.build();
+        }
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response
+                .contentType(format.getMediaType())
+                .body(gzip ? body.getGzip() : body.getBody());
+    }
+
+    /**
+     * Only list endpoints support projections; detail endpoints
+     * (/catalog/{id}, /catalog/slug/{slug}) always return the full document.
+     */
+    private static boolean isCardView(String view) {
+        return VIEW_CARD.equalsIgnoreCase(view);
+    }
+
+    /**
+     * Honours q-values: "gzip;q=0" is a refusal, not an acceptance.
+     */
+    private static boolean acceptsGzip(HttpHeaders headers) {
+        return ContentCoding.negotiate(headers.getFirst(HttpHeaders.ACCEPT_ENCODING),
+                List.of(ContentCoding.GZIP)) == ContentCoding.GZIP;
     }
 }
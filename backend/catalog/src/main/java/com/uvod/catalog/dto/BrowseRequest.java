@@ -0,0 +1,51 @@
+package com.uvod.catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Query parameters of /catalog/browse.
+ * Every filter is optional; list parameters can be repeated
+ * (?tag=noir&tag=mafia) or comma-separated.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BrowseRequest {
+
+    /** Any of these genres */
+    private List<String> genre;
+
+    /** All of these tags */
+    private List<String> tag;
+
+    /** All of these cast members */
+    private List<String> cast;
+
+    /** Release year range, inclusive */
+    private Integer yearFrom;
+    private Integer yearTo;
+
+    /** Duration range in minutes, inclusive */
+    private Integer durationFrom;
+    private Integer durationTo;
+
+    /** year | duration | title */
+    @Builder.Default
+    private String sort = "year";
+
+    /** asc | desc */
+    @Builder.Default
+    private String order = "desc";
+
+    @Builder.Default
+    private int offset = 0;
+
+    @Builder.Default
+    private int limit = 24;
+}
@@ -0,0 +1,31 @@
+package com.uvod.catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a faceted browse: one page of matching films plus facet counts.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BrowseResponse {
+
+    /** Number of films matching the filters (all pages) */
+    private int total;
+
+    /** The requested page, as cards */
+    private List<FilmCardResponse> films;
+
+    /**
+     * Counts by facet: genre, tag, cast, decade, duration.
+     * Genre counts ignore the genre filter; tag and cast list the most frequent values only.
+     */
+    private Map<String, List<FacetValueResponse>> facets;
+}
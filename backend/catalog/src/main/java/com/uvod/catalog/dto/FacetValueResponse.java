@@ -0,0 +1,19 @@
+package com.uvod.catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A facet value (genre, tag, cast member, decade, duration bucket)
+ * and the number of matching films having it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetValueResponse {
+    private String value;
+    private int count;
+}
@@ -0,0 +1,24 @@
+package com.uvod.catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of a batch lookup by id.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FilmBatchResponse {
+
+    /** Films found, in the order their ids were requested */
+    private List<FilmResponse> films;
+
+    /** Requested ids that do not match any film */
+    private List<String> missingIds;
+}
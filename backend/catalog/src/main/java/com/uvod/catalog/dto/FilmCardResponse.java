@@ -0,0 +1,23 @@
+package com.uvod.catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lightweight projection of a film, with only the fields
+ * needed to render a card in a list (?view=card).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FilmCardResponse {
+    private String id;
+    private String slug;
+    private String title;
+    private String thumbnailUrl;
+    private String genre;
+    private int releaseYear;
+}
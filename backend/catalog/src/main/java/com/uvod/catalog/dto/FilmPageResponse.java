@@ -0,0 +1,26 @@
+package com.uvod.catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a paginated catalog listing.
+ *
+ * @param <T> FilmResponse or FilmCardResponse, depending on the requested view
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FilmPageResponse<T> {
+
+    /** Films in this page */
+    private List<T> items;
+
+    /** Opaque token for the next page, null when this is the last page */
+    private String continuationToken;
+}
@@ -0,0 +1,25 @@
+package com.uvod.catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One genre row of the home page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenreRowResponse {
+    private String genre;
+
+    /** Films in the genre, including those not in the row */
+    private int totalFilms;
+
+    /** Newest films of the genre, at most catalog.home.films-per-genre */
+    private List<FilmResponse> films;
+}
@@ -0,0 +1,24 @@
+package com.uvod.catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Everything the home page needs for first paint, in one payload.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HomeResponse {
+
+    /** Film for the hero banner (null if the catalog is empty) */
+    private FilmResponse hero;
+
+    /** Genre rows, largest genre first */
+    private List<GenreRowResponse> rows;
+}
@@ -0,0 +1,25 @@
+package com.uvod.catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A typeahead completion returned by /catalog/suggest.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionResponse {
+
+    /** Text to display (film title, cast name or tag) */
+    private String text;
+
+    /** "title", "cast" or "tag" */
+    private String type;
+
+    /** Film slug, only for "title" suggestions */
+    private String slug;
+}
@@ -0,0 +1,12 @@
+package com.uvod.catalog.exception;
+
+/**
+ * Exception thrown when a batch lookup has no ids or too many.
+ * Converted to HTTP 400 Bad Request by CatalogExceptionHandler.
+ */
+public class InvalidBatchRequestException extends RuntimeException {
+
+    public InvalidBatchRequestException(String message) {
+        super(message);
+    }
+}
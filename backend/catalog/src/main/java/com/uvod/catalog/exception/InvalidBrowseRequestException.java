@@ -0,0 +1,13 @@
+package com.uvod.catalog.exception;
+
+/**
+ * Exception thrown when /catalog/browse parameters are invalid
+ * (unknown sort, empty range, negative offset).
+ * Converted to HTTP 400 Bad Request by CatalogExceptionHandler.
+ */
+public class InvalidBrowseRequestException extends RuntimeException {
+
+    public InvalidBrowseRequestException(String message) {
+        super(message);
+    }
+}
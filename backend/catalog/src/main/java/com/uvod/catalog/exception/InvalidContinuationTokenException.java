@@ -0,0 +1,13 @@
+package com.uvod.catalog.exception;
+
+/**
+ * Exception thrown when a pagination continuation token cannot be decoded
+ * or is rejected by Cosmos.
+ * Converted to HTTP 400 Bad Request by CatalogExceptionHandler.
+ */
+public class InvalidContinuationTokenException extends RuntimeException {
+
+    public InvalidContinuationTokenException(String token) {
+        super("Invalid continuation token: " + token);
+    }
+}
@@ -1,5 +1,6 @@
 package com.uvod.catalog.mapper;
 
+import com.uvod.catalog.dto.FilmCardResponse;
 import com.uvod.catalog.dto.FilmResponse;
 import com.uvod.catalog.model.Film;
 import org.mapstruct.Mapper;
@@ -17,4 +18,8 @@ public interface FilmMapper {
     FilmResponse toResponse(Film film);
 
     List<FilmResponse> toResponseList(List<Film> films);
+
+    FilmCardResponse toCard(Film film);
+
+    List<FilmCardResponse> toCardList(List<Film> films);
 }
@@ -0,0 +1,32 @@
+package com.uvod.catalog.reactive;
+
+import com.azure.spring.data.cosmos.repository.Query;
+import com.azure.spring.data.cosmos.repository.ReactiveCosmosRepository;
+import com.uvod.catalog.model.Film;
+import com.uvod.catalog.repository.FilmRepo;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+
+/**
+ * Reactive counterpart of FilmRepo, used by the NDJSON streaming endpoints.
+ *
+ * Results are fetched one Cosmos page at a time, on demand: a slow client
+ * slows down the page fetches instead of filling up memory.
+ *
+ * Lives outside the repository package: the blocking repository scan is
+ * recursive and would otherwise pick it up too.
+ */
+public interface ReactiveFilmRepo extends ReactiveCosmosRepository<Film, String> {
+
+    @Query("SELECT * FROM c")
+    Flux<Film> streamAllFilms();
+
+    @Query("SELECT * FROM c WHERE c.genre = @genre")
+    Flux<Film> streamByGenre(@Param("genre") String genre);
+
+    @Query(FilmRepo.CARD_PROJECTION)
+    Flux<Film> streamAllCards();
+
+    @Query(FilmRepo.CARD_PROJECTION + " WHERE c.genre = @genre")
+    Flux<Film> streamCardsByGenre(@Param("genre") String genre);
+}
@@ -0,0 +1,104 @@
+package com.uvod.catalog.repository;
+
+import com.azure.cosmos.models.SqlParameter;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.uvod.catalog.search.FacetIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A browse query translated to Cosmos SQL, for when the in-memory
+ * FacetIndex is not available. Same filter semantics (genres any of, tags
+ * and cast all of, inclusive ranges), matched case-insensitively; unlike
+ * the index, accents must match.
+ */
+final class BrowseQuery {
+
+    private final List<SqlParameter> parameters = new ArrayList<>();
+    private final List<String> conditions = new ArrayList<>();
+
+    private BrowseQuery(FacetIndex.Query query, boolean withGenres) {
+        if (withGenres) {
+            anyOf("c.genre", "genre", query.genres());
+        }
+        allOf("tags", "tag", query.tags());
+        allOf("cast", "cast", query.cast());
+        range("c.releaseYear", "year", query.yearFrom(), query.yearTo());
+        range("c.durationInMinutes", "duration", query.durationFrom(), query.durationTo());
+    }
+
+    /**
+     * One page of matching cards, in the requested order.
+     */
+    static SqlQuerySpec page(FacetIndex.Query query) {
+        BrowseQuery browse = new BrowseQuery(query, true);
+        String field = switch (query.sort()) {
+            case DURATION -> "c.durationInMinutes";
+            case TITLE -> "c.title";
+            default -> "c.releaseYear";
+        };
+        browse.parameters.add(new SqlParameter("@offset", query.offset()));
+        browse.parameters.add(new SqlParameter("@limit", query.limit()));
+        return browse.spec(FilmRepo.CARD_PROJECTION, " ORDER BY " + field + (query.descending() ? " DESC" : " ASC")
+                + " OFFSET @offset LIMIT @limit");
+    }
+
+    /**
+     * Number of matching films.
+     */
+    static SqlQuerySpec count(FacetIndex.Query query) {
+        return new BrowseQuery(query, true).spec("SELECT VALUE COUNT(1) FROM c", "");
+    }
+
+    /**
+     * Films per genre, ignoring the genre filter like the index does.
+     */
+    static SqlQuerySpec genreCounts(FacetIndex.Query query) {
+        return new BrowseQuery(query, false).spec("SELECT c.genre, COUNT(1) AS films FROM c", " GROUP BY c.genre");
+    }
+
+    private SqlQuerySpec spec(String select, String suffix) {
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        return new SqlQuerySpec(select + where + suffix, parameters);
+    }
+
+    private void anyOf(String path, String name, List<String> values) {
+        List<String> alternatives = new ArrayList<>();
+        for (String value : nonBlank(values)) {
+            alternatives.add("STRINGEQUALS(" + path + ", " + parameter(name, value) + ", true)");
+        }
+        if (!alternatives.isEmpty()) {
+            conditions.add("(" + String.join(" OR ", alternatives) + ")");
+        }
+    }
+
+    private void allOf(String field, String name, List<String> values) {
+        for (String value : nonBlank(values)) {
+            conditions.add("EXISTS(SELECT VALUE v FROM v IN c[\"" + field + "\"] WHERE STRINGEQUALS(v, "
+                    + parameter(name, value) + ", true))");
+        }
+    }
+
+    private void range(String path, String name, Integer from, Integer to) {
+        if (from != null) {
+            conditions.add(path + " >= " + parameter(name + "From", from));
+        }
+        if (to != null) {
+            conditions.add(path + " <= " + parameter(name + "To", to));
+        }
+    }
+
+    private String parameter(String name, Object value) {
+        String parameter = "@" + name + parameters.size();
+        parameters.add(new SqlParameter(parameter, value));
+        return parameter;
+    }
+
+    private static List<String> nonBlank(List<String> values) {
+        return values == null ? List.of() : values.stream()
+                .filter(value -> value != null && !value.isBlank())
+                .map(String::trim)
+                .toList();
+    }
+}
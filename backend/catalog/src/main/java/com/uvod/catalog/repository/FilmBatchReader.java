@@ -0,0 +1,128 @@
+package com.uvod.catalog.repository;
+
+import com.azure.cosmos.CosmosAsyncClient;
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.models.CosmosItemIdentity;
+import com.azure.cosmos.models.CosmosQueryRequestOptions;
+import com.azure.cosmos.models.FeedResponse;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uvod.catalog.cache.FilmKeyIndex;
+import com.uvod.catalog.config.CatalogCosmosProperties;
+import com.uvod.catalog.model.Film;
+import com.uvod.catalog.search.FacetIndex;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-document reads that spring-data-cosmos does not expose.
+ *
+ * readMany takes (id, partition key) pairs: Cosmos groups them by partition
+ * and runs one point-read-like query per partition, so N films cost about
+ * N RU and a single round trip from the caller's point of view.
+ *
+ * browse runs a faceted browse with its filters in the query (see
+ * BrowseQuery), for when the in-memory index is not available.
+ */
+@Component
+public class FilmBatchReader {
+
+    private static final String COUNT_BY_GENRE = "SELECT c.genre, COUNT(1) AS films FROM c GROUP BY c.genre";
+
+    private final CosmosAsyncClient cosmosAsyncClient;
+    private final ObjectMapper objectMapper;
+    private final CatalogCosmosProperties cosmos;
+
+    public FilmBatchReader(CosmosAsyncClient cosmosAsyncClient,
+            ObjectMapper objectMapper,
+            CatalogCosmosProperties cosmos) {
+        this.cosmosAsyncClient = cosmosAsyncClient;
+        this.objectMapper = objectMapper;
+        this.cosmos = cosmos;
+    }
+
+    /**
+     * Reads the given films. Films that do not exist are simply absent
+     * from the result, which is in no particular order.
+     */
+    public List<Film> readMany(Collection<FilmKeyIndex.FilmKey> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        List<CosmosItemIdentity> identities = keys.stream()
+                .map(key -> new CosmosItemIdentity(new PartitionKey(key.genre()), key.id()))
+                .toList();
+
+        FeedResponse<JsonNode> response = filmsContainer()
+                .readMany(identities, JsonNode.class)
+                .block();
+
+        List<Film> films = new ArrayList<>();
+        if (response != null) {
+            for (JsonNode node : response.getResults()) {
+                films.add(objectMapper.convertValue(node, Film.class));
+            }
+        }
+        return films;
+    }
+
+    /**
+     * Number of films per genre, in one GROUP BY query.
+     */
+    public Map<String, Integer> countByGenre() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (JsonNode node : query(new SqlQuerySpec(COUNT_BY_GENRE))) {
+            if (node.hasNonNull("genre")) {
+                counts.put(node.get("genre").asText(), node.get("films").asInt());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Faceted browse answered by Cosmos: the page, the total and the genre
+     * counts, three queries with the filters pushed down. The other facets
+     * need the in-memory index and are returned empty.
+     */
+    public FacetIndex.Result browse(FacetIndex.Query query) {
+        List<Film> page = new ArrayList<>();
+        for (JsonNode node : query(BrowseQuery.page(query))) {
+            page.add(objectMapper.convertValue(node, Film.class));
+        }
+        List<JsonNode> totals = query(BrowseQuery.count(query));
+        int total = totals.stream().mapToInt(JsonNode::asInt).sum();
+
+        List<FacetIndex.FacetValue> genres = query(BrowseQuery.genreCounts(query)).stream()
+                .filter(node -> node.hasNonNull("genre"))
+                .map(node -> new FacetIndex.FacetValue(node.get("genre").asText(), node.get("films").asInt()))
+                .sorted(Comparator.comparingInt(FacetIndex.FacetValue::count).reversed()
+                        .thenComparing(FacetIndex.FacetValue::value))
+                .toList();
+        Map<String, List<FacetIndex.FacetValue>> facets = new LinkedHashMap<>();
+        facets.put(FacetIndex.GENRE, genres);
+        for (String facet : List.of(FacetIndex.TAG, FacetIndex.CAST, FacetIndex.DECADE, FacetIndex.DURATION)) {
+            facets.put(facet, List.of());
+        }
+        return new FacetIndex.Result(total, page, facets);
+    }
+
+    private List<JsonNode> query(SqlQuerySpec spec) {
+        List<JsonNode> results = filmsContainer()
+                .queryItems(spec, new CosmosQueryRequestOptions(), JsonNode.class)
+                .collectList()
+                .block();
+        return results == null ? List.of() : results;
+    }
+
+    private CosmosAsyncContainer filmsContainer() {
+        return cosmosAsyncClient.getDatabase(cosmos.database()).getContainer(cosmos.filmsContainer());
+    }
+}
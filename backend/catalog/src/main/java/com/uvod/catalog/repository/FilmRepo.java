@@ -4,19 +4,98 @@ import com.azure.spring.data.cosmos.repository.CosmosRepository;
 import com.azure.spring.data.cosmos.repository.Query;
 import com.uvod.catalog.model.Film;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.repository.query.Param;
 
 public interface FilmRepo extends CosmosRepository<Film, String> {
 
+    String CARD_PROJECTION = "SELECT c.id, c.slug, c.title, c.thumbnailUrl, c.genre, c.releaseYear FROM c";
+
     @Query("SELECT * FROM c")
     List<Film> findAllFilms();
 
+    /**
+     * Cheap emptiness check: stops at the first document instead of
+     * counting the whole container.
+     */
+    @Query("SELECT TOP 1 c.id FROM c")
+    List<Film> findAnyId();
+
+    /**
+     * Ids only (other Film fields are left empty): the cheapest full scan,
+     * used to detect deleted films.
+     */
+    @Query("SELECT c.id FROM c")
+    List<Film> findAllIds();
+
+    /**
+     * Paginated full listing. Returns a Slice (not a Page) so that
+     * Cosmos does not run an extra cross-partition COUNT per page.
+     * Pass a CosmosPageRequest to resume from a continuation token.
+     */
+    @Query("SELECT * FROM c")
+    Slice<Film> findAllFilms(Pageable pageable);
+
     List<Film> findByGenre(String genre);
 
+    /**
+     * Single-partition, paginated genre listing.
+     */
+    Slice<Film> findByGenre(String genre, Pageable pageable);
+
+    /**
+     * Card projections: only the fields listed in FilmCardResponse are read,
+     * the other Film fields are left empty. Cuts RU charge and payload size.
+     */
+    @Query(CARD_PROJECTION)
+    List<Film> findAllCards();
+
+    @Query(CARD_PROJECTION)
+    Slice<Film> findAllCards(Pageable pageable);
+
+    @Query(CARD_PROJECTION + " WHERE c.genre = @genre")
+    List<Film> findCardsByGenre(@Param("genre") String genre);
+
+    @Query(CARD_PROJECTION + " WHERE c.genre = @genre")
+    Slice<Film> findCardsByGenre(@Param("genre") String genre, Pageable pageable);
+
+    /**
+     * Newest films of a genre (single-partition query).
+     */
+    @Query("SELECT * FROM c WHERE c.genre = @genre ORDER BY c.releaseYear DESC OFFSET 0 LIMIT @limit")
+    List<Film> findNewestByGenre(@Param("genre") String genre, @Param("limit") int limit);
+
+    /**
+     * Films other than the given one sharing at least one tag or cast
+     * member, at most max of them: the candidates for "more like this"
+     * when the similarity index is not available.
+     */
+    @Query("SELECT TOP @max * FROM c WHERE c.id != @id"
+            + " AND (EXISTS(SELECT VALUE t FROM t IN c.tags WHERE ARRAY_CONTAINS(@tags, t))"
+            + " OR EXISTS(SELECT VALUE m FROM m IN c[\"cast\"] WHERE ARRAY_CONTAINS(@cast, m)))")
+    List<Film> findSharingTagsOrCast(@Param("id") String id, @Param("tags") Collection<String> tags,
+            @Param("cast") Collection<String> cast, @Param("max") int max);
+
     @Query("SELECT * FROM c WHERE CONTAINS(c.title, @query, true)")
     List<Film> searchByTitle(@Param("query") String query);
 
+    /**
+     * Titles (and slugs) starting with a prefix, at most limit of them:
+     * typeahead when the suggestion index is not available.
+     */
+    @Query("SELECT TOP @limit c.title, c.slug FROM c WHERE STARTSWITH(c.title, @prefix, true)")
+    List<Film> findTitlesStartingWith(@Param("prefix") String prefix, @Param("limit") int limit);
+
     Film findBySlug(String slug);
+
+    /**
+     * Cross-partition lookup of several films in one query, for ids whose
+     * partition key is not known.
+     */
+    @Query("SELECT * FROM c WHERE ARRAY_CONTAINS(@ids, c.id)")
+    List<Film> findByIds(@Param("ids") Collection<String> ids);
 }
@@ -0,0 +1,63 @@
+package com.uvod.catalog.search;
+
+import com.uvod.catalog.cache.CatalogChangeListener;
+import com.uvod.catalog.cache.CatalogSnapshot;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Holds the FacetIndex used by /catalog/browse and rebuilds it whenever
+ * the catalog snapshot changes. Reads are lock-free: a rebuild swaps in
+ * a new immutable index.
+ */
+@Component
+public class CatalogBrowseEngine implements CatalogChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogBrowseEngine.class);
+
+    private final int maxFacetValues;
+    private final Timer browseTimer;
+
+    /** Null until the first snapshot has been indexed */
+    private volatile FacetIndex index;
+
+    public CatalogBrowseEngine(MeterRegistry meterRegistry,
+            @Value("${catalog.browse.max-facet-values:20}") int maxFacetValues) {
+        this.maxFacetValues = maxFacetValues;
+        this.browseTimer = Timer.builder("catalog.browse.latency")
+                .description("In-memory faceted browse latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("catalog.browse.documents", this, e -> e.index == null ? 0 : e.index.size())
+                .description("Films in the faceted browse index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a query against the in-memory index.
+     *
+     * @return the result, or empty if the index has not been built yet
+     */
+    public Optional<FacetIndex.Result> browse(FacetIndex.Query query) {
+        FacetIndex current = index;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(browseTimer.record(() -> current.browse(query)));
+    }
+
+    @Override
+    public void onSnapshotRebuilt(CatalogSnapshot snapshot) {
+        long start = System.nanoTime();
+        index = FacetIndex.build(snapshot.getFilms(), maxFacetValues);
+        logger.info("Browse index rebuilt: {} films in {} ms",
+                index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,75 @@
+package com.uvod.catalog.search;
+
+import com.uvod.catalog.cache.CatalogChangeListener;
+import com.uvod.catalog.cache.CatalogSnapshot;
+import com.uvod.catalog.model.Film;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps the full-text SearchIndex in sync with the catalog cache
+ * and answers searches from memory.
+ */
+@Component
+public class CatalogSearchEngine implements CatalogChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSearchEngine.class);
+
+    private final SearchIndex index = new SearchIndex();
+    private final Timer searchTimer;
+
+    /** Snapshot version the index reflects, 0 = not built yet */
+    private volatile long indexedVersion;
+
+    public CatalogSearchEngine(MeterRegistry meterRegistry) {
+        this.searchTimer = Timer.builder("catalog.search.latency")
+                .description("In-memory full-text search latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("catalog.search.documents", index, SearchIndex::size)
+                .description("Films in the full-text index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Searches the in-memory index.
+     *
+     * @return ranked films, or empty if the index has not been built yet
+     */
+    public Optional<List<Film>> search(String query, int limit) {
+        if (indexedVersion == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(searchTimer.record(() -> index.search(query, limit).stream()
+                .map(SearchIndex.Hit::film)
+                .toList()));
+    }
+
+    @Override
+    public void onSnapshotRebuilt(CatalogSnapshot snapshot) {
+        long start = System.nanoTime();
+        index.rebuild(snapshot.getFilms());
+        indexedVersion = snapshot.getVersion();
+        logger.info("Search index rebuilt: {} films in {} ms",
+                index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void onFilmsChanged(CatalogSnapshot snapshot, List<Film> changed) {
+        index.upsert(changed);
+        indexedVersion = snapshot.getVersion();
+    }
+
+    @Override
+    public void onFilmsRemoved(CatalogSnapshot snapshot, List<String> removedIds) {
+        index.remove(removedIds);
+        indexedVersion = snapshot.getVersion();
+    }
+}
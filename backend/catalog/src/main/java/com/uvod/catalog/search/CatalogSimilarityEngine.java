@@ -0,0 +1,93 @@
+package com.uvod.catalog.search;
+
+import com.uvod.catalog.cache.CatalogChangeListener;
+import com.uvod.catalog.cache.CatalogSnapshot;
+import com.uvod.catalog.model.Film;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Holds the SimilarityIndex behind /catalog/{id}/similar. A full rebuild
+ * swaps in a new index; change-feed batches are applied in place, unless
+ * they are large enough that a rebuild is cheaper.
+ *
+ * Deleted films, found by the catalog reconcile, trigger a full rebuild.
+ */
+@Component
+public class CatalogSimilarityEngine implements CatalogChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSimilarityEngine.class);
+
+    private final int topK;
+    private final int exactMaxFilms;
+    private final int maxBucketSize;
+    private final int maxIncrementalChanges;
+
+    /** Null until the first snapshot has been indexed */
+    private volatile SimilarityIndex index;
+
+    public CatalogSimilarityEngine(MeterRegistry meterRegistry,
+            @Value("${catalog.similar.top-k:20}") int topK,
+            @Value("${catalog.similar.exact-max-films:2000}") int exactMaxFilms,
+            @Value("${catalog.similar.max-bucket-size:100}") int maxBucketSize,
+            @Value("${catalog.similar.max-incremental-changes:200}") int maxIncrementalChanges) {
+        this.topK = topK;
+        this.exactMaxFilms = exactMaxFilms;
+        this.maxBucketSize = maxBucketSize;
+        this.maxIncrementalChanges = maxIncrementalChanges;
+        Gauge.builder("catalog.similar.documents", this, e -> e.index == null ? 0 : e.index.size())
+                .description("Films with a precomputed similar-films list")
+                .register(meterRegistry);
+    }
+
+    /** Films kept per precomputed list: the largest limit worth asking for */
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * Ids of the films most similar to a film, best first.
+     *
+     * @return the ids (empty list for an unknown film), or empty if the index has not been built yet
+     */
+    public Optional<List<String>> similar(String id, int limit) {
+        SimilarityIndex current = index;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(current.similar(id, limit));
+    }
+
+    /**
+     * Exact ranking of the given candidates, for when the catalog cache is disabled.
+     */
+    public List<Film> similar(Collection<Film> films, Film film, int limit) {
+        return SimilarityIndex.mostSimilar(films, film, Math.min(limit, topK));
+    }
+
+    @Override
+    public void onSnapshotRebuilt(CatalogSnapshot snapshot) {
+        long start = System.nanoTime();
+        index = SimilarityIndex.build(snapshot.getFilms(), topK, exactMaxFilms, maxBucketSize);
+        logger.info("Similarity index rebuilt: {} films in {} ms",
+                index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void onFilmsChanged(CatalogSnapshot snapshot, List<Film> changed) {
+        SimilarityIndex current = index;
+        if (current == null || changed.size() > maxIncrementalChanges) {
+            onSnapshotRebuilt(snapshot);
+        } else {
+            current.upsert(changed);
+        }
+    }
+}
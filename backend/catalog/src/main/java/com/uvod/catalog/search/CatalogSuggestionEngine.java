@@ -0,0 +1,64 @@
+package com.uvod.catalog.search;
+
+import com.uvod.catalog.cache.CatalogChangeListener;
+import com.uvod.catalog.cache.CatalogSnapshot;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Holds the typeahead SuggestionIndex and rebuilds it whenever the
+ * catalog snapshot changes. Reads are lock-free: a rebuild swaps in
+ * a new immutable index.
+ */
+@Component
+public class CatalogSuggestionEngine implements CatalogChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSuggestionEngine.class);
+
+    private final int maxResults;
+
+    private volatile SuggestionIndex index = SuggestionIndex.empty();
+
+    /** Whether index reflects a snapshot: never, with the cache disabled */
+    private volatile boolean built;
+
+    public CatalogSuggestionEngine(MeterRegistry meterRegistry,
+            @Value("${catalog.suggest.max-results:20}") int maxResults) {
+        this.maxResults = maxResults;
+        Gauge.builder("catalog.suggest.keys", this, e -> e.index.size())
+                .description("Keys in the typeahead prefix index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return completions from the in-memory index, or empty if it has
+     *         not been built yet
+     */
+    public Optional<List<SuggestionIndex.Suggestion>> suggest(String prefix, int limit) {
+        if (!built) {
+            return Optional.empty();
+        }
+        return Optional.of(index.suggest(prefix, limit));
+    }
+
+    /** Upper bound of the limit, also for answers not coming from the index */
+    public int maxResults() {
+        return maxResults;
+    }
+
+    @Override
+    public void onSnapshotRebuilt(CatalogSnapshot snapshot) {
+        long start = System.nanoTime();
+        index = SuggestionIndex.build(snapshot.getFilms(), maxResults);
+        built = true;
+        logger.info("Suggestion index rebuilt: {} keys in {} ms",
+                index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
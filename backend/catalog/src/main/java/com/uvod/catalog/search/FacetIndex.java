@@ -0,0 +1,474 @@
+package com.uvod.catalog.search;
+
+import com.uvod.catalog.model.Film;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable bitmap index for faceted browsing of the catalog.
+ *
+ * Every film gets an ordinal; each genre, tag and cast member has the
+ * postings of the films it appears in, and years and durations are kept
+ * both as columns and as bucketed postings. Postings are sorted ordinals,
+ * or a bitmap for values frequent enough that the bitmap is smaller
+ * (genres, popular tags): a cast of thousands of names that appear in a
+ * handful of films each costs its occurrences, not a bitmap per name.
+ * A query is a handful of ANDs/ORs into a candidate bitmap, then a single
+ * pass over the matching ordinals that counts every facet at once. Sort
+ * orders are precomputed permutations, so paging never sorts.
+ *
+ * Filter semantics: genres are alternatives (any of), tags and cast are
+ * requirements (all of), ranges are inclusive. Genre counts ignore the genre
+ * filter, so the client can show what selecting another genre would add.
+ */
+public final class FacetIndex {
+
+    public static final String GENRE = "genre";
+    public static final String TAG = "tag";
+    public static final String CAST = "cast";
+    public static final String DECADE = "decade";
+    public static final String DURATION = "duration";
+
+    /** Width of the duration buckets, both in the index and in the facet */
+    private static final int DURATION_BUCKET_MINUTES = 30;
+
+    /** Width of the duration buckets used to answer range filters */
+    private static final int DURATION_RANGE_BUCKET_MINUTES = 10;
+
+    /** Sort orders */
+    public enum Sort {
+        YEAR, DURATION, TITLE
+    }
+
+    /**
+     * A browse query. Null or empty filters match everything.
+     */
+    public record Query(List<String> genres, List<String> tags, List<String> cast,
+            Integer yearFrom, Integer yearTo, Integer durationFrom, Integer durationTo,
+            Sort sort, boolean descending, int offset, int limit) {
+    }
+
+    /** A facet value and the number of films having it */
+    public record FacetValue(String value, int count) {
+    }
+
+    /**
+     * One page of matching films, the total number of matches, and facet
+     * counts by facet name (GENRE, TAG, CAST, DECADE, DURATION).
+     */
+    public record Result(int total, List<Film> films, Map<String, List<FacetValue>> facets) {
+    }
+
+    private final Film[] films;
+    private final Dimension genres;
+    private final Dimension tags;
+    private final Dimension cast;
+    private final RangeColumn years;
+    private final RangeColumn durations;
+    private final int[] byYear;
+    private final int[] byDuration;
+    private final int[] byTitle;
+    private final int maxFacetValues;
+
+    private FacetIndex(Film[] films, int maxFacetValues) {
+        this.films = films;
+        this.maxFacetValues = maxFacetValues;
+        this.genres = new Dimension(films.length);
+        this.tags = new Dimension(films.length);
+        this.cast = new Dimension(films.length);
+        int[] yearColumn = new int[films.length];
+        int[] durationColumn = new int[films.length];
+        for (int i = 0; i < films.length; i++) {
+            Film film = films[i];
+            genres.add(i, film.getGenre() == null ? List.of() : List.of(film.getGenre()));
+            tags.add(i, film.getTags());
+            cast.add(i, film.getCast());
+            yearColumn[i] = film.getReleaseYear();
+            durationColumn[i] = film.getDurationInMinutes();
+        }
+        genres.freeze();
+        tags.freeze();
+        cast.freeze();
+        this.years = new RangeColumn(yearColumn, 1);
+        this.durations = new RangeColumn(durationColumn, DURATION_RANGE_BUCKET_MINUTES);
+
+        String[] titles = new String[films.length];
+        for (int i = 0; i < films.length; i++) {
+            titles[i] = films[i].getTitle() == null ? "" : TextAnalyzer.fold(films[i].getTitle());
+        }
+        this.byTitle = IntStream.range(0, films.length).boxed()
+                .sorted(Comparator.<Integer, String>comparing(i -> titles[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        this.byYear = sortedBy(yearColumn, byTitle);
+        this.byDuration = sortedBy(durationColumn, byTitle);
+    }
+
+    /**
+     * Builds the index from the catalog.
+     *
+     * @param films          full catalog
+     * @param maxFacetValues max values returned for the tag and cast facets (most frequent first)
+     */
+    public static FacetIndex build(Collection<Film> films, int maxFacetValues) {
+        return new FacetIndex(films.toArray(new Film[0]), maxFacetValues);
+    }
+
+    public int size() {
+        return films.length;
+    }
+
+    /**
+     * Runs a browse query.
+     */
+    public Result browse(Query query) {
+        BitSet candidates = new BitSet(films.length);
+        candidates.set(0, films.length);
+        requireAll(candidates, tags, query.tags());
+        requireAll(candidates, cast, query.cast());
+        if (query.yearFrom() != null || query.yearTo() != null) {
+            candidates.and(years.select(query.yearFrom(), query.yearTo()));
+        }
+        if (query.durationFrom() != null || query.durationTo() != null) {
+            candidates.and(durations.select(query.durationFrom(), query.durationTo()));
+        }
+        BitSet genreFilter = anyOf(genres, query.genres());
+
+        // Single pass: genre counts over the candidates, every other facet over the matches
+        int[] genreCounts = new int[genres.size()];
+        int[] tagCounts = new int[tags.size()];
+        int[] castCounts = new int[cast.size()];
+        Map<Integer, Integer> decadeCounts = new HashMap<>();
+        Map<Integer, Integer> durationCounts = new HashMap<>();
+        BitSet matches = new BitSet(films.length);
+        int total = 0;
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            for (int genre : genres.valuesOf(i)) {
+                genreCounts[genre]++;
+            }
+            if (genreFilter != null && !genreFilter.get(i)) {
+                continue;
+            }
+            matches.set(i);
+            total++;
+            for (int tag : tags.valuesOf(i)) {
+                tagCounts[tag]++;
+            }
+            for (int member : cast.valuesOf(i)) {
+                castCounts[member]++;
+            }
+            decadeCounts.merge(years.value(i) / 10 * 10, 1, Integer::sum);
+            durationCounts.merge(durations.value(i) / DURATION_BUCKET_MINUTES * DURATION_BUCKET_MINUTES,
+                    1, Integer::sum);
+        }
+
+        Map<String, List<FacetValue>> facets = new LinkedHashMap<>();
+        facets.put(GENRE, genres.facet(genreCounts, Integer.MAX_VALUE));
+        facets.put(TAG, tags.facet(tagCounts, maxFacetValues));
+        facets.put(CAST, cast.facet(castCounts, maxFacetValues));
+        facets.put(DECADE, buckets(decadeCounts, start -> start + "s"));
+        facets.put(DURATION, buckets(durationCounts,
+                start -> start + "-" + (start + DURATION_BUCKET_MINUTES - 1)));
+
+        return new Result(total, page(matches, query), facets);
+    }
+
+    /**
+     * Walks the precomputed order and keeps the matches in [offset, offset + limit).
+     */
+    private List<Film> page(BitSet matches, Query query) {
+        int[] order = switch (query.sort()) {
+            case DURATION -> byDuration;
+            case TITLE -> byTitle;
+            default -> byYear;
+        };
+        List<Film> page = new ArrayList<>(Math.max(0, query.limit()));
+        int skipped = 0;
+        for (int k = 0; k < order.length && page.size() < query.limit(); k++) {
+            int i = order[query.descending() ? order.length - 1 - k : k];
+            if (!matches.get(i)) {
+                continue;
+            }
+            if (skipped < query.offset()) {
+                skipped++;
+            } else {
+                page.add(films[i]);
+            }
+        }
+        return page;
+    }
+
+    private static void requireAll(BitSet candidates, Dimension dimension, List<String> values) {
+        if (values == null) {
+            return;
+        }
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                dimension.postings(value).retainIn(candidates);
+            }
+        }
+    }
+
+    /**
+     * Union of the values' postings, or null if there is no filter.
+     */
+    private static BitSet anyOf(Dimension dimension, List<String> values) {
+        if (values == null || values.stream().allMatch(v -> v == null || v.isBlank())) {
+            return null;
+        }
+        BitSet union = new BitSet();
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                dimension.postings(value).addTo(union);
+            }
+        }
+        return union;
+    }
+
+    private static List<FacetValue> buckets(Map<Integer, Integer> counts,
+            IntFunction<String> label) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(e -> new FacetValue(label.apply(e.getKey()), e.getValue()))
+                .toList();
+    }
+
+    /**
+     * Ordinals sorted by a column, ties in title order. Sorts primitive
+     * (value, title rank) keys: no boxing, no comparator calls.
+     */
+    private static int[] sortedBy(int[] column, int[] byTitle) {
+        long[] keys = new long[byTitle.length];
+        for (int rank = 0; rank < byTitle.length; rank++) {
+            keys[rank] = ((long) column[byTitle[rank]] << 32) | rank;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[keys.length];
+        for (int k = 0; k < keys.length; k++) {
+            order[k] = byTitle[(int) keys[k]];
+        }
+        return order;
+    }
+
+    /**
+     * A multi-valued attribute: value dictionary, the postings of each value
+     * and, per film, the ids of its values (used to count facets).
+     */
+    private static final class Dimension {
+
+        private static final int[] NONE = new int[0];
+        private static final Postings EMPTY = new Postings();
+
+        private final Map<String, Integer> ids = new HashMap<>();
+        /** Same ids by raw value: folding every occurrence would dominate the build */
+        private final Map<String, Integer> rawIds = new HashMap<>();
+        private final List<String> labels = new ArrayList<>();
+        private final List<Postings> postings = new ArrayList<>();
+        private final int[][] valuesByFilm;
+
+        Dimension(int films) {
+            this.valuesByFilm = new int[films][];
+        }
+
+        /** Films are added in ordinal order, so every postings list is already sorted */
+        void add(int film, List<String> values) {
+            if (values == null || values.isEmpty()) {
+                valuesByFilm[film] = NONE;
+                return;
+            }
+            int[] valueIds = new int[values.size()];
+            int count = 0;
+            for (String value : values) {
+                if (value == null || value.isBlank()) {
+                    continue;
+                }
+                int id = rawIds.computeIfAbsent(value, raw -> ids.computeIfAbsent(TextAnalyzer.fold(raw).trim(), key -> {
+                    labels.add(raw);
+                    postings.add(new Postings());
+                    return labels.size() - 1;
+                }));
+                // Duplicate values in one film are counted once
+                if (postings.get(id).add(film)) {
+                    valueIds[count++] = id;
+                }
+            }
+            valuesByFilm[film] = count == valueIds.length ? valueIds : Arrays.copyOf(valueIds, count);
+        }
+
+        /** Called once every film is added */
+        void freeze() {
+            for (Postings values : postings) {
+                values.freeze(valuesByFilm.length);
+            }
+        }
+
+        int size() {
+            return labels.size();
+        }
+
+        int[] valuesOf(int film) {
+            return valuesByFilm[film];
+        }
+
+        /** Films having the value (case and accent insensitive) */
+        Postings postings(String value) {
+            Integer id = ids.get(TextAnalyzer.fold(value).trim());
+            return id == null ? EMPTY : postings.get(id);
+        }
+
+        /** Non-zero counts, most frequent first */
+        List<FacetValue> facet(int[] counts, int limit) {
+            return IntStream.range(0, counts.length)
+                    .filter(id -> counts[id] > 0)
+                    .boxed()
+                    .sorted(Comparator.<Integer>comparingInt(id -> counts[id]).reversed()
+                            .thenComparing(labels::get))
+                    .limit(limit)
+                    .map(id -> new FacetValue(labels.get(id), counts[id]))
+                    .toList();
+        }
+    }
+
+    /**
+     * An integer attribute: the raw column plus the postings of each bucket
+     * of {@code width} values. Buckets fully inside a range are ORed; only
+     * the two edge buckets are checked value by value.
+     */
+    private static final class RangeColumn {
+
+        private final int[] values;
+        private final int width;
+        private final int min;
+        private final Postings[] buckets;
+
+        RangeColumn(int[] values, int width) {
+            this.values = values;
+            this.width = width;
+            this.min = Arrays.stream(values).min().orElse(0);
+            int max = Arrays.stream(values).max().orElse(0);
+            this.buckets = new Postings[(max - min) / width + 1];
+            for (int b = 0; b < buckets.length; b++) {
+                buckets[b] = new Postings();
+            }
+            for (int i = 0; i < values.length; i++) {
+                buckets[(values[i] - min) / width].add(i);
+            }
+            for (Postings bucket : buckets) {
+                bucket.freeze(values.length);
+            }
+        }
+
+        int value(int film) {
+            return values[film];
+        }
+
+        /** Films whose value is in [from, to]; a null bound is open */
+        BitSet select(Integer from, Integer to) {
+            int lo = from == null ? Integer.MIN_VALUE : from;
+            int hi = to == null ? Integer.MAX_VALUE : to;
+            BitSet result = new BitSet(values.length);
+            for (int b = 0; b < buckets.length; b++) {
+                long start = min + (long) b * width;
+                long end = start + width - 1;
+                if (end < lo || start > hi) {
+                    continue;
+                }
+                if (start >= lo && end <= hi) {
+                    buckets[b].addTo(result);
+                    continue;
+                }
+                buckets[b].forEach(i -> {
+                    if (values[i] >= lo && values[i] <= hi) {
+                        result.set(i);
+                    }
+                });
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The films of one value: sorted ordinals while building, then either
+     * kept that way or, when dense enough, turned into a bitmap. A bitmap
+     * costs one bit per film of the catalog, an ordinal 32 bits, so the
+     * switch is at 1/32 of the catalog.
+     */
+    private static final class Postings {
+
+        private static final int INITIAL_CAPACITY = 4;
+
+        private int[] ordinals = new int[INITIAL_CAPACITY];
+        private int size;
+        private BitSet bitmap;
+
+        /** Appends a film with an ordinal above the previous ones; false if it is already there */
+        boolean add(int film) {
+            if (size > 0 && ordinals[size - 1] == film) {
+                return false;
+            }
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = film;
+            return true;
+        }
+
+        void freeze(int films) {
+            if ((long) size * Integer.SIZE > films) {
+                bitmap = new BitSet(films);
+                for (int k = 0; k < size; k++) {
+                    bitmap.set(ordinals[k]);
+                }
+                ordinals = null;
+            } else {
+                ordinals = Arrays.copyOf(ordinals, size);
+            }
+        }
+
+        /** candidates &= this */
+        void retainIn(BitSet candidates) {
+            if (bitmap != null) {
+                candidates.and(bitmap);
+                return;
+            }
+            int next = 0;
+            for (int k = 0; k < size; k++) {
+                candidates.clear(next, ordinals[k]);
+                next = ordinals[k] + 1;
+            }
+            candidates.clear(next, Math.max(next, candidates.length()));
+        }
+
+        /** target |= this */
+        void addTo(BitSet target) {
+            if (bitmap != null) {
+                target.or(bitmap);
+                return;
+            }
+            for (int k = 0; k < size; k++) {
+                target.set(ordinals[k]);
+            }
+        }
+
+        void forEach(IntConsumer action) {
+            if (bitmap != null) {
+                bitmap.stream().forEach(action);
+                return;
+            }
+            for (int k = 0; k < size; k++) {
+                action.accept(ordinals[k]);
+            }
+        }
+    }
+}
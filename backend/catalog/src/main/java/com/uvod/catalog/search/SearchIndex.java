@@ -0,0 +1,393 @@
+package com.uvod.catalog.search;
+
+import com.uvod.catalog.model.Film;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory inverted index over films, ranked with BM25F.
+ *
+ * Title, cast, tags and description are indexed as separate fields with
+ * their own boosts and length normalization. Titles keep their stopwords,
+ * so a query made only of stopwords ("It", "The Who") still matches by
+ * title. The index supports incremental upserts and removals, so a
+ * changed or deleted film costs O(its own terms), not a full rebuild:
+ * each posting knows its position in its list and is removed by moving
+ * the last posting into its place.
+ *
+ * Thread-safe: searches share a read lock, updates take the write lock.
+ */
+public class SearchIndex {
+
+    /** Indexed fields and their boosts */
+    public enum Field {
+        TITLE(3.0f, true, Film::getTitle),
+        CAST(2.0f, false, film -> join(film.getCast())),
+        TAGS(1.5f, false, film -> join(film.getTags())),
+        DESCRIPTION(1.0f, false, Film::getDescription);
+
+        private final float boost;
+        private final boolean keepsStopwords;
+        private final Function<Film, String> extractor;
+
+        Field(float boost, boolean keepsStopwords, Function<Film, String> extractor) {
+            this.boost = boost;
+            this.keepsStopwords = keepsStopwords;
+            this.extractor = extractor;
+        }
+
+        private List<String> analyze(Film film) {
+            String text = extractor.apply(film);
+            return keepsStopwords ? TextAnalyzer.analyzeKeepingStopwords(text) : TextAnalyzer.analyze(text);
+        }
+    }
+
+    private static final Field[] FIELDS = Field.values();
+
+    // BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /** Score multiplier for terms matched only as a prefix of the last query word */
+    private static final double PREFIX_WEIGHT = 0.5;
+    private static final int MIN_PREFIX_LENGTH = 3;
+    private static final int MAX_PREFIX_EXPANSIONS = 20;
+
+    /** term → postings (one per film containing the term) */
+    private final NavigableMap<String, List<Posting>> postings = new TreeMap<>();
+
+    /** film id → indexed document */
+    private final Map<String, IndexedFilm> documents = new HashMap<>();
+
+    /** Dense slot table: postings refer to films by slot while scoring */
+    private final List<IndexedFilm> slots = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+    /** Sum of field lengths over all documents, for the average length */
+    private final long[] totalFieldLength = new long[FIELDS.length];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * A search hit: the film and its relevance score.
+     */
+    public record Hit(Film film, double score) {
+    }
+
+    private record IndexedFilm(Film film, int slot, int[] fieldLengths, Map<String, Posting> terms) {
+    }
+
+    /** Term frequency of one term in one film, per field, at a position of the term's list */
+    private static final class Posting {
+        private final IndexedFilm doc;
+        private final int[] tf;
+        private int position;
+
+        Posting(IndexedFilm doc, int[] tf) {
+            this.doc = doc;
+            this.tf = tf;
+        }
+
+        IndexedFilm doc() {
+            return doc;
+        }
+
+        int[] tf() {
+            return tf;
+        }
+    }
+
+    /**
+     * Replaces the whole content of the index.
+     */
+    public void rebuild(Collection<Film> films) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            slots.clear();
+            freeSlots.clear();
+            Arrays.fill(totalFieldLength, 0);
+            for (Film film : films) {
+                add(film);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts or replaces films (matched by id).
+     */
+    public void upsert(Collection<Film> films) {
+        lock.writeLock().lock();
+        try {
+            for (Film film : films) {
+                remove(film.getId());
+                add(film);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes films (deleted from the catalog). Unknown ids are ignored.
+     */
+    public void remove(Collection<String> filmIds) {
+        lock.writeLock().lock();
+        try {
+            for (String id : filmIds) {
+                remove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked full-text search. Words are OR-ed; documents matching more
+     * (and rarer) words rank higher. The last word also matches as a prefix,
+     * so partially typed queries still return results. A query made only
+     * of stopwords falls back to its raw words, which match titles.
+     *
+     * @param query free text
+     * @param limit max number of hits
+     * @return hits sorted by descending score
+     */
+    public List<Hit> search(String query, int limit) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(TextAnalyzer.analyze(query)));
+        if (queryTerms.isEmpty()) {
+            queryTerms = new ArrayList<>(new LinkedHashSet<>(TextAnalyzer.analyzeKeepingStopwords(query)));
+        }
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String lastWord = lastWord(query);
+
+        lock.readLock().lock();
+        try {
+            int n = documents.size();
+            if (n == 0) {
+                return List.of();
+            }
+            double[] avgFieldLength = new double[FIELDS.length];
+            for (int f = 0; f < FIELDS.length; f++) {
+                avgFieldLength[f] = Math.max(1.0, (double) totalFieldLength[f] / n);
+            }
+
+            Scores scores = new Scores();
+            for (String term : queryTerms) {
+                accumulate(postings.get(term), 1.0, n, avgFieldLength, scores);
+            }
+            if (lastWord != null && lastWord.length() >= MIN_PREFIX_LENGTH) {
+                int expansions = 0;
+                for (Map.Entry<String, List<Posting>> entry : postings
+                        .subMap(lastWord, true, lastWord + Character.MAX_VALUE, false).entrySet()) {
+                    if (queryTerms.contains(entry.getKey())) {
+                        continue;
+                    }
+                    accumulate(entry.getValue(), PREFIX_WEIGHT, n, avgFieldLength, scores);
+                    if (++expansions >= MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                }
+            }
+            return topK(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void accumulate(List<Posting> posting, double weight, int n,
+            double[] avgFieldLength, Scores scores) {
+        if (posting == null || posting.isEmpty()) {
+            return;
+        }
+        int df = posting.size();
+        double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+
+        for (Posting p : posting) {
+            int[] lengths = p.doc().fieldLengths();
+
+            // BM25F: boost- and length-normalized term frequency summed over fields
+            double weightedTf = 0;
+            for (int f = 0; f < FIELDS.length; f++) {
+                if (p.tf()[f] > 0) {
+                    double norm = 1 - B + B * lengths[f] / avgFieldLength[f];
+                    weightedTf += FIELDS[f].boost * p.tf()[f] / norm;
+                }
+            }
+            scores.add(p.doc().slot(), weight * idf * weightedTf * (K1 + 1) / (weightedTf + K1));
+        }
+    }
+
+    private List<Hit> topK(Scores scores, int limit) {
+        Comparator<Hit> byScore = Comparator.comparingDouble(Hit::score);
+        PriorityQueue<Hit> heap = new PriorityQueue<>(limit + 1, byScore);
+        for (int i = 0; i < scores.slots.length; i++) {
+            int slot = scores.slots[i];
+            if (slot == Scores.EMPTY) {
+                continue;
+            }
+            double score = scores.values[i];
+            if (heap.size() == limit && score <= heap.peek().score()) {
+                continue;
+            }
+            heap.offer(new Hit(slots.get(slot).film(), score));
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<Hit> hits = new ArrayList<>(heap);
+        hits.sort(byScore.reversed());
+        return hits;
+    }
+
+    private void add(Film film) {
+        int slot = freeSlots.isEmpty() ? slots.size() : freeSlots.pop();
+        int[] lengths = new int[FIELDS.length];
+        Map<String, int[]> tfByTerm = new HashMap<>();
+        for (int f = 0; f < FIELDS.length; f++) {
+            List<String> fieldTerms = FIELDS[f].analyze(film);
+            lengths[f] = fieldTerms.size();
+            totalFieldLength[f] += fieldTerms.size();
+            for (String term : fieldTerms) {
+                tfByTerm.computeIfAbsent(term, t -> new int[FIELDS.length])[f]++;
+            }
+        }
+
+        Map<String, Posting> terms = new HashMap<>(tfByTerm.size() * 2);
+        IndexedFilm doc = new IndexedFilm(film, slot, lengths, terms);
+        tfByTerm.forEach((term, tf) -> {
+            List<Posting> posting = postings.computeIfAbsent(term, t -> new ArrayList<>());
+            Posting p = new Posting(doc, tf);
+            p.position = posting.size();
+            posting.add(p);
+            terms.put(term, p);
+        });
+        documents.put(film.getId(), doc);
+        if (slot == slots.size()) {
+            slots.add(doc);
+        } else {
+            slots.set(slot, doc);
+        }
+    }
+
+    private void remove(String filmId) {
+        IndexedFilm previous = documents.remove(filmId);
+        if (previous == null) {
+            return;
+        }
+        for (int f = 0; f < FIELDS.length; f++) {
+            totalFieldLength[f] -= previous.fieldLengths()[f];
+        }
+        previous.terms().forEach((term, p) -> {
+            List<Posting> posting = postings.get(term);
+            Posting last = posting.remove(posting.size() - 1);
+            if (last != p) {
+                posting.set(p.position, last);
+                last.position = p.position;
+            }
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        });
+        slots.set(previous.slot(), null);
+        freeSlots.push(previous.slot());
+    }
+
+    /**
+     * Per-query score accumulator: an open-addressing slot → score map,
+     * sized by the matching films rather than the catalog, so a query
+     * for a rare word allocates next to nothing.
+     */
+    private static final class Scores {
+        private static final int EMPTY = -1;
+        private static final int INITIAL_CAPACITY = 64;
+
+        private int[] slots = newSlots(INITIAL_CAPACITY);
+        private double[] values = new double[INITIAL_CAPACITY];
+        private int size;
+
+        void add(int slot, double score) {
+            int i = indexOf(slots, slot);
+            if (slots[i] == EMPTY) {
+                if (2 * (size + 1) > slots.length) {
+                    grow();
+                    i = indexOf(slots, slot);
+                }
+                slots[i] = slot;
+                size++;
+            }
+            values[i] += score;
+        }
+
+        private void grow() {
+            int[] oldSlots = slots;
+            double[] oldValues = values;
+            slots = newSlots(oldSlots.length * 2);
+            values = new double[oldSlots.length * 2];
+            for (int j = 0; j < oldSlots.length; j++) {
+                if (oldSlots[j] != EMPTY) {
+                    int i = indexOf(slots, oldSlots[j]);
+                    slots[i] = oldSlots[j];
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+
+        /** Linear probing; the capacity is a power of two */
+        private static int indexOf(int[] slots, int slot) {
+            int mask = slots.length - 1;
+            int hash = slot * 0x9E3779B9;
+            int i = (hash ^ hash >>> 16) & mask;
+            while (slots[i] != EMPTY && slots[i] != slot) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        private static int[] newSlots(int capacity) {
+            int[] slots = new int[capacity];
+            Arrays.fill(slots, EMPTY);
+            return slots;
+        }
+    }
+
+    /**
+     * Folded (unstemmed) last word of the query, used for prefix expansion.
+     */
+    private static String lastWord(String query) {
+        String[] words = TextAnalyzer.fold(query).trim().split("[^\\p{L}\\p{N}]+");
+        return words.length == 0 ? null : words[words.length - 1];
+    }
+
+    private static String join(List<String> values) {
+        return values == null ? null : String.join(" ", values);
+    }
+}
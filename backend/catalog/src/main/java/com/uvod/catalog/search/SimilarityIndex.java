@@ -0,0 +1,501 @@
+package com.uvod.catalog.search;
+
+import com.uvod.catalog.model.Film;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed "more like this" lists: for every film, the top-K films
+ * sharing the most genre, tags and cast, by Jaccard similarity of those
+ * feature sets.
+ *
+ * Small catalogs (up to exactMaxFilms) are compared exactly, through an
+ * inverted list of features. Larger ones use MinHash with LSH banding:
+ * each film gets a signature of BANDS x ROWS min-hashes, and only films
+ * agreeing on all the rows of at least one band are compared. With 2 rows
+ * per band a pair at similarity 0.3 is found with 95% probability, at 0.5
+ * almost surely. The ranking itself always uses the exact Jaccard score.
+ *
+ * The lists are computed once per snapshot and updated in place when films
+ * are added or edited; reads never lock, they get the published list of ids.
+ * Updates find their candidates the same way as the build (films sharing a
+ * feature, or an LSH bucket, in the mode chosen at build time), and the
+ * films that listed a changed film through a reverse map of the lists.
+ */
+public final class SimilarityIndex {
+
+    private static final int BANDS = 32;
+    private static final int ROWS = 2;
+    private static final long[] SEEDS = new SplittableRandom(42).longs(BANDS * ROWS).toArray();
+
+    /** Low bits of the packed (band key, ordinal) values sorted by the LSH build: up to 16M films */
+    private static final int ORDINAL_BITS = 24;
+    private static final long ORDINAL_MASK = (1L << ORDINAL_BITS) - 1;
+
+    private record Neighbor(String id, double score) {
+    }
+
+    /** Features and current top-K of an indexed film */
+    private static final class Entry {
+        final String id;
+        final int[] features;
+        final long[] bandKeys;
+        final List<Neighbor> top = new ArrayList<>();
+
+        Entry(String id, int[] features, long[] bandKeys) {
+            this.id = id;
+            this.features = features;
+            this.bandKeys = bandKeys;
+        }
+    }
+
+    private final int topK;
+    private final int exactMaxFilms;
+    private final int maxBucketSize;
+
+    /** Mutable state, guarded by this */
+    private final Map<String, Integer> featureIds = new HashMap<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /** film id → ids of the films whose published list contains it */
+    private final Map<String, List<String>> listedBy = new HashMap<>();
+
+    /** Candidate lookup of the exact mode: feature → films having it */
+    private final Map<Integer, Set<Entry>> featurePostings = new HashMap<>();
+
+    /**
+     * Candidate lookup of the LSH mode: per band, the (band key, ordinal)
+     * values sorted by the build, and the band keys of the films upserted
+     * since. Build ordinals may point at a replaced entry, so hits are
+     * resolved through entries.
+     */
+    private boolean exact;
+    private Entry[] ordinals = new Entry[0];
+    private long[][] bandIndex = new long[BANDS][0];
+    private final Map<Long, List<Entry>> upsertedBandKeys = new HashMap<>();
+
+    /** film id → ids of its most similar films, best first */
+    private final Map<String, List<String>> published = new ConcurrentHashMap<>();
+
+    private SimilarityIndex(int topK, int exactMaxFilms, int maxBucketSize) {
+        this.topK = topK;
+        this.exactMaxFilms = exactMaxFilms;
+        this.maxBucketSize = maxBucketSize;
+    }
+
+    /**
+     * Builds the lists for a whole catalog.
+     *
+     * @param topK          films kept per list
+     * @param exactMaxFilms up to this many films, every pair sharing a feature is compared
+     * @param maxBucketSize beyond this, a film is compared only with the next maxBucketSize
+     *                      films of an LSH bucket (huge buckets are generic features, e.g. a genre)
+     */
+    public static SimilarityIndex build(Collection<Film> films, int topK, int exactMaxFilms, int maxBucketSize) {
+        SimilarityIndex index = new SimilarityIndex(topK, exactMaxFilms, maxBucketSize);
+        for (Film film : films) {
+            Entry entry = index.entry(film);
+            index.entries.put(entry.id, entry);
+        }
+        Entry[] ordinals = index.entries.values().toArray(new Entry[0]);
+        index.ordinals = ordinals;
+        index.exact = ordinals.length <= exactMaxFilms;
+
+        if (index.exact) {
+            index.compareExact(ordinals);
+            for (Entry entry : ordinals) {
+                index.addPostings(entry);
+            }
+        } else {
+            index.compareBuckets(ordinals);
+        }
+        for (Entry entry : ordinals) {
+            index.publish(entry);
+        }
+        return index;
+    }
+
+    /**
+     * Ids of the films most similar to a film, best first.
+     *
+     * @return at most {@code limit} ids, empty if the film is not indexed
+     */
+    public List<String> similar(String id, int limit) {
+        List<String> ids = published.getOrDefault(id, List.of());
+        return ids.size() <= limit ? ids : ids.subList(0, limit);
+    }
+
+    /** Number of indexed films */
+    public int size() {
+        return published.size();
+    }
+
+    /**
+     * Adds or updates films. The changed films get new lists; their
+     * candidates gain a changed film if it now ranks in their top-K, and
+     * films that listed a changed film are recomputed, since it may have
+     * dropped out. Cost per changed film is its candidates plus those of
+     * the films listing it, not the catalog size.
+     */
+    public synchronized void upsert(Collection<Film> changed) {
+        for (Film film : changed) {
+            Entry updated = entry(film);
+            Entry previous = entries.get(updated.id);
+            if (previous != null && Arrays.equals(previous.features, updated.features)) {
+                // Title, description, ... edits: the lists are unchanged
+                continue;
+            }
+            entries.put(updated.id, updated);
+            if (exact) {
+                if (previous != null) {
+                    removePostings(previous);
+                }
+                addPostings(updated);
+            } else {
+                if (previous != null) {
+                    for (long key : previous.bandKeys) {
+                        List<Entry> bucket = upsertedBandKeys.get(key & ~ORDINAL_MASK);
+                        if (bucket != null) {
+                            bucket.remove(previous);
+                        }
+                    }
+                }
+                for (long key : updated.bandKeys) {
+                    upsertedBandKeys.computeIfAbsent(key & ~ORDINAL_MASK, k -> new ArrayList<>(1)).add(updated);
+                }
+            }
+
+            List<String> listing = new ArrayList<>(listedBy.getOrDefault(updated.id, List.of()));
+            Set<String> recompute = new HashSet<>(listing);
+
+            for (Entry other : candidates(updated)) {
+                double score = jaccard(updated.features, other.features);
+                if (score > 0) {
+                    offer(updated, other.id, score);
+                    if (!recompute.contains(other.id) && offer(other, updated.id, score)) {
+                        publish(other);
+                    }
+                }
+            }
+            publish(updated);
+
+            for (String id : listing) {
+                Entry entry = entries.get(id);
+                entry.top.clear();
+                for (Entry other : candidates(entry)) {
+                    double score = jaccard(entry.features, other.features);
+                    if (score > 0) {
+                        offer(entry, other.id, score);
+                    }
+                }
+                publish(entry);
+            }
+        }
+    }
+
+    /**
+     * Exact top-K over the given films, without an index: a linear scan,
+     * for when the catalog cache is disabled.
+     */
+    public static List<Film> mostSimilar(Collection<Film> films, Film film, int limit) {
+        SimilarityIndex scratch = new SimilarityIndex(limit, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        Entry target = scratch.entry(film);
+        Map<String, Film> byId = new HashMap<>();
+        for (Film other : films) {
+            if (other.getId() == null || other.getId().equals(target.id)) {
+                continue;
+            }
+            double score = jaccard(target.features, scratch.entry(other).features);
+            if (score > 0 && offer(target, other.getId(), score, limit)) {
+                byId.put(other.getId(), other);
+            }
+        }
+        return target.top.stream().map(n -> byId.get(n.id())).toList();
+    }
+
+    /** Every film is compared with every film sharing at least one feature */
+    private void compareExact(Entry[] films) {
+        int[][] postings = new int[featureIds.size()][];
+        int[] lengths = new int[featureIds.size()];
+        for (Entry film : films) {
+            for (int feature : film.features) {
+                lengths[feature]++;
+            }
+        }
+        for (int f = 0; f < postings.length; f++) {
+            postings[f] = new int[lengths[f]];
+            lengths[f] = 0;
+        }
+        for (int i = 0; i < films.length; i++) {
+            for (int feature : films[i].features) {
+                postings[feature][lengths[feature]++] = i;
+            }
+        }
+
+        int[] shared = new int[films.length];
+        int[] touched = new int[films.length];
+        for (int i = 0; i < films.length; i++) {
+            int count = 0;
+            for (int feature : films[i].features) {
+                for (int j : postings[feature]) {
+                    if (j != i && shared[j]++ == 0) {
+                        touched[count++] = j;
+                    }
+                }
+            }
+            for (int t = 0; t < count; t++) {
+                int j = touched[t];
+                int union = films[i].features.length + films[j].features.length - shared[j];
+                offer(films[i], films[j].id, (double) shared[j] / union);
+                shared[j] = 0;
+            }
+        }
+    }
+
+    /**
+     * For each band, sorts the films by band key: a run of equal keys is an
+     * LSH bucket, and its films are compared pairwise. Pairs found in several
+     * bands are scored again but listed once.
+     */
+    private void compareBuckets(Entry[] films) {
+        long[] packed = new long[films.length];
+        for (int band = 0; band < BANDS; band++) {
+            int n = 0;
+            for (int i = 0; i < films.length; i++) {
+                if (films[i].bandKeys.length > 0) {
+                    packed[n++] = (films[i].bandKeys[band] & ~ORDINAL_MASK) | i;
+                }
+            }
+            Arrays.sort(packed, 0, n);
+            bandIndex[band] = Arrays.copyOf(packed, n);
+
+            int start = 0;
+            while (start < n) {
+                int end = start + 1;
+                while (end < n && (packed[end] & ~ORDINAL_MASK) == (packed[start] & ~ORDINAL_MASK)) {
+                    end++;
+                }
+                for (int a = start; a < end; a++) {
+                    Entry first = films[(int) (packed[a] & ORDINAL_MASK)];
+                    for (int b = a + 1; b < Math.min(end, a + maxBucketSize); b++) {
+                        Entry second = films[(int) (packed[b] & ORDINAL_MASK)];
+                        double score = jaccard(first.features, second.features);
+                        if (score > 0) {
+                            offer(first, second.id, score);
+                            offer(second, first.id, score);
+                        }
+                    }
+                }
+                start = end;
+            }
+        }
+    }
+
+    /**
+     * The current films sharing a feature with the entry (exact mode), or
+     * an LSH bucket, of which at most maxBucketSize films per band as in
+     * the build.
+     */
+    private Collection<Entry> candidates(Entry entry) {
+        Map<String, Entry> found = new HashMap<>();
+        if (exact) {
+            for (int feature : entry.features) {
+                for (Entry other : featurePostings.getOrDefault(feature, Set.of())) {
+                    found.put(other.id, other);
+                }
+            }
+        } else if (entry.bandKeys.length > 0) {
+            for (int band = 0; band < BANDS; band++) {
+                long key = entry.bandKeys[band] & ~ORDINAL_MASK;
+                long[] sorted = bandIndex[band];
+                int taken = 0;
+                for (int i = firstWithKey(sorted, key);
+                        i < sorted.length && (sorted[i] & ~ORDINAL_MASK) == key && taken < maxBucketSize; i++) {
+                    Entry other = entries.get(ordinals[(int) (sorted[i] & ORDINAL_MASK)].id);
+                    if (found.putIfAbsent(other.id, other) == null) {
+                        taken++;
+                    }
+                }
+                for (Entry other : upsertedBandKeys.getOrDefault(key, List.of())) {
+                    if (entries.get(other.id) == other) {
+                        found.put(other.id, other);
+                    }
+                }
+            }
+        }
+        found.remove(entry.id);
+        return found.values();
+    }
+
+    /** Index of the first packed value with these high bits, or where it would be */
+    private static int firstWithKey(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void addPostings(Entry entry) {
+        for (int feature : entry.features) {
+            featurePostings.computeIfAbsent(feature, f -> new LinkedHashSet<>()).add(entry);
+        }
+    }
+
+    private void removePostings(Entry entry) {
+        for (int feature : entry.features) {
+            Set<Entry> films = featurePostings.get(feature);
+            if (films != null) {
+                films.remove(entry);
+            }
+        }
+    }
+
+    private boolean offer(Entry entry, String id, double score) {
+        return offer(entry, id, score, topK);
+    }
+
+    /**
+     * Inserts a neighbor in a ranked list, keeping the best {@code limit}.
+     *
+     * @return whether the list changed
+     */
+    private static boolean offer(Entry entry, String id, double score, int limit) {
+        List<Neighbor> top = entry.top;
+        int existing = indexOf(top, id);
+        if (existing >= 0) {
+            if (top.get(existing).score() == score) {
+                return false;
+            }
+            top.remove(existing);
+        }
+        if (top.size() >= limit && !ranksBefore(score, id, top.get(top.size() - 1))) {
+            return existing >= 0;
+        }
+        int position = 0;
+        while (position < top.size() && !ranksBefore(score, id, top.get(position))) {
+            position++;
+        }
+        top.add(position, new Neighbor(id, score));
+        if (top.size() > limit) {
+            top.remove(top.size() - 1);
+        }
+        return true;
+    }
+
+    /** Higher score first, then by id so that ties are stable */
+    private static boolean ranksBefore(double score, String id, Neighbor other) {
+        return score > other.score() || (score == other.score() && id.compareTo(other.id()) < 0);
+    }
+
+    /** Publishes the entry's list, and keeps listedBy in step with it */
+    private void publish(Entry entry) {
+        List<String> ids = entry.top.stream().map(Neighbor::id).toList();
+        List<String> previous = published.put(entry.id, ids);
+        if (previous != null) {
+            for (String id : previous) {
+                if (!ids.contains(id)) {
+                    listedBy.get(id).remove(entry.id);
+                }
+            }
+        }
+        for (String id : ids) {
+            if (previous == null || !previous.contains(id)) {
+                listedBy.computeIfAbsent(id, k -> new ArrayList<>(4)).add(entry.id);
+            }
+        }
+    }
+
+    private static int indexOf(List<Neighbor> top, String id) {
+        for (int i = 0; i < top.size(); i++) {
+            if (top.get(i).id().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Entry entry(Film film) {
+        Set<Integer> features = new HashSet<>();
+        addFeature(features, "g:", film.getGenre());
+        if (film.getTags() != null) {
+            film.getTags().forEach(tag -> addFeature(features, "t:", tag));
+        }
+        if (film.getCast() != null) {
+            film.getCast().forEach(name -> addFeature(features, "c:", name));
+        }
+        int[] sorted = features.stream().mapToInt(Integer::intValue).sorted().toArray();
+        return new Entry(film.getId(), sorted, sorted.length == 0 ? new long[0] : bandKeys(sorted));
+    }
+
+    private void addFeature(Set<Integer> features, String type, String value) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        String key = type + TextAnalyzer.fold(value).trim();
+        features.add(featureIds.computeIfAbsent(key, k -> featureIds.size()));
+    }
+
+    /** MinHash signature, then one hash per band of its ROWS min-hashes */
+    private static long[] bandKeys(int[] features) {
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = band;
+            for (int row = 0; row < ROWS; row++) {
+                long seed = SEEDS[band * ROWS + row];
+                long min = Long.MAX_VALUE;
+                for (int feature : features) {
+                    min = Math.min(min, mix64(feature + seed));
+                }
+                key = mix64(key * 31 + min);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    /** Jaccard similarity of two sorted sets */
+    private static double jaccard(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return 0;
+        }
+        int i = 0;
+        int j = 0;
+        int shared = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) shared / (a.length + b.length - shared);
+    }
+
+    /** SplitMix64 finalizer */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,235 @@
+package com.uvod.catalog.search;
+
+import com.uvod.catalog.model.Film;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Immutable prefix index for typeahead suggestions over film titles,
+ * cast names and tags.
+ *
+ * Keys are stored in a sorted array, so a prefix maps to a contiguous range
+ * found with two binary searches. Every word start of a suggestion is a key
+ * ("Quantum Horizon" is reachable from "qua" and from "hor"). Short prefixes
+ * match huge ranges, so the range is never walked: a segment tree over the
+ * weights yields the best suggestion of any sub-range, and the top-K is
+ * taken best-first, in O(K log n) whatever the prefix length.
+ */
+public final class SuggestionIndex {
+
+    /** Kind of suggestion */
+    public enum Type {
+        TITLE, CAST, TAG
+    }
+
+    /**
+     * A completion. For titles, slug points to the film detail page.
+     */
+    public record Suggestion(String text, Type type, String slug, double weight) {
+    }
+
+    private static final Comparator<Suggestion> BY_WEIGHT = Comparator
+            .comparingDouble(Suggestion::weight).reversed()
+            .thenComparing(Suggestion::text);
+
+    private final String[] keys;
+    private final Suggestion[] values;
+    private final int maxResults;
+
+    /** Segment tree: best[node] is the position of the best suggestion under node, leaves at n + i */
+    private final int[] best;
+
+    /** A key range, with the position of its best suggestion */
+    private record Range(int from, int to, int best) {
+    }
+
+    private SuggestionIndex(String[] keys, Suggestion[] values, int maxResults) {
+        this.keys = keys;
+        this.values = values;
+        this.maxResults = maxResults;
+        this.best = buildTree();
+    }
+
+    public static SuggestionIndex empty() {
+        return new SuggestionIndex(new String[0], new Suggestion[0], 0);
+    }
+
+    /**
+     * Builds the index from the catalog.
+     *
+     * Weights: titles favour recent releases; cast names and tags are
+     * weighted by how many films they appear in, plus the recency of the
+     * latest one.
+     *
+     * @param films      full catalog
+     * @param maxResults largest limit callers may ask for
+     */
+    public static SuggestionIndex build(Collection<Film> films, int maxResults) {
+        int minYear = films.stream().mapToInt(Film::getReleaseYear).min().orElse(0);
+        int maxYear = films.stream().mapToInt(Film::getReleaseYear).max().orElse(0);
+        double yearSpan = Math.max(1, maxYear - minYear + 1);
+
+        Map<String, Suggestion> byIdentity = new LinkedHashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        Map<String, Double> latest = new HashMap<>();
+        for (Film film : films) {
+            double recency = (film.getReleaseYear() - minYear) / yearSpan;
+            if (film.getTitle() != null) {
+                byIdentity.put(Type.TITLE + film.getId(),
+                        new Suggestion(film.getTitle(), Type.TITLE, film.getSlug(), 1 + recency));
+            }
+            addGrouped(byIdentity, counts, latest, film.getCast(), Type.CAST, recency);
+            addGrouped(byIdentity, counts, latest, film.getTags(), Type.TAG, recency);
+        }
+
+        List<Map.Entry<String, Suggestion>> entries = new ArrayList<>();
+        for (Suggestion suggestion : byIdentity.values()) {
+            for (String key : keysOf(suggestion.text())) {
+                entries.add(Map.entry(key, suggestion));
+            }
+        }
+        entries.sort(Map.Entry.comparingByKey());
+
+        String[] keys = new String[entries.size()];
+        Suggestion[] values = new Suggestion[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            keys[i] = entries.get(i).getKey();
+            values[i] = entries.get(i).getValue();
+        }
+        return new SuggestionIndex(keys, values, maxResults);
+    }
+
+    /**
+     * Returns the best completions for a prefix.
+     *
+     * @param prefix what the user typed so far
+     * @param limit  max suggestions (capped to the build-time maximum)
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        if (prefix == null) {
+            return List.of();
+        }
+        String key = TextAnalyzer.fold(prefix).trim().replaceAll("\\s+", " ");
+        int n = Math.min(limit, maxResults);
+        if (key.isEmpty() || n <= 0) {
+            return List.of();
+        }
+
+        return topK(key, n);
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    private List<Suggestion> topK(String prefix, int k) {
+        int from = lowerBound(prefix);
+        int to = lowerBound(prefix + Character.MAX_VALUE);
+        if (from == to || k <= 0) {
+            return List.of();
+        }
+
+        // Best-first: take the best of a range, then split the range around it.
+        // A suggestion can be reached by several of its word starts: dedupe by identity
+        Set<Suggestion> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        PriorityQueue<Range> ranges = new PriorityQueue<>(
+                Comparator.comparing((Range range) -> values[range.best()], BY_WEIGHT));
+        ranges.add(range(from, to));
+        List<Suggestion> top = new ArrayList<>(k);
+        while (top.size() < k && !ranges.isEmpty()) {
+            Range range = ranges.poll();
+            if (seen.add(values[range.best()])) {
+                top.add(values[range.best()]);
+            }
+            if (range.from() < range.best()) {
+                ranges.add(range(range.from(), range.best()));
+            }
+            if (range.best() + 1 < range.to()) {
+                ranges.add(range(range.best() + 1, range.to()));
+            }
+        }
+        return List.copyOf(top);
+    }
+
+    private Range range(int from, int to) {
+        int n = values.length;
+        int result = -1;
+        for (int l = from + n, r = to + n; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                result = better(result, best[l++]);
+            }
+            if ((r & 1) == 1) {
+                result = better(result, best[--r]);
+            }
+        }
+        return new Range(from, to, result);
+    }
+
+    private int[] buildTree() {
+        int n = values.length;
+        int[] tree = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            tree[n + i] = i;
+        }
+        for (int node = n - 1; node > 0; node--) {
+            tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+        }
+        return tree;
+    }
+
+    /** The position holding the better suggestion; -1 stands for none */
+    private int better(int a, int b) {
+        if (a < 0) {
+            return b;
+        }
+        return BY_WEIGHT.compare(values[a], values[b]) <= 0 ? a : b;
+    }
+
+    private int lowerBound(String key) {
+        int index = Arrays.binarySearch(keys, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static void addGrouped(Map<String, Suggestion> byIdentity, Map<String, Integer> counts,
+            Map<String, Double> latest, List<String> values, Type type, double recency) {
+        if (values == null) {
+            return;
+        }
+        for (String value : values) {
+            if (value == null || value.isBlank()) {
+                continue;
+            }
+            String identity = type + TextAnalyzer.fold(value);
+            int count = counts.merge(identity, 1, Integer::sum);
+            double bestRecency = latest.merge(identity, recency, Math::max);
+            String text = byIdentity.containsKey(identity) ? byIdentity.get(identity).text() : value;
+            byIdentity.put(identity, new Suggestion(text, type, null, count + bestRecency));
+        }
+    }
+
+    /**
+     * Folded text plus every suffix starting at a word boundary.
+     */
+    private static List<String> keysOf(String text) {
+        String folded = TextAnalyzer.fold(text).trim().replaceAll("\\s+", " ");
+        List<String> result = new ArrayList<>();
+        result.add(folded);
+        for (int i = 1; i < folded.length(); i++) {
+            if (folded.charAt(i - 1) == ' ' || folded.charAt(i - 1) == '-') {
+                result.add(folded.substring(i));
+            }
+        }
+        return result;
+    }
+}
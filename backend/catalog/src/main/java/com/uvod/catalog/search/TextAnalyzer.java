@@ -0,0 +1,134 @@
+package com.uvod.catalog.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns free text into index terms.
+ *
+ * Pipeline: lowercase → accent folding ("realtà" → "realta") → split on
+ * anything that is not a letter or digit → stopword removal (Italian and
+ * English) → light stemming for both languages.
+ *
+ * The same analyzer is used at index and query time, so "universo",
+ * "universi" and "universe" all end up as the term "univers".
+ */
+public final class TextAnalyzer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+            // Italian
+            "il", "lo", "la", "i", "gli", "le", "un", "uno", "una", "di", "da", "in", "con", "su", "per",
+            "tra", "fra", "a", "e", "o", "ma", "che", "chi", "non", "del", "dello", "della", "dei",
+            "degli", "delle", "al", "allo", "alla", "ai", "agli", "alle", "dal", "dalla", "dai",
+            "nel", "nello", "nella", "nei", "negli", "nelle", "sul", "sulla", "sui", "si", "suo",
+            "sua", "suoi", "sue", "come", "dove", "quando", "piu", "anche", "ha", "ad", "ed",
+            // English
+            "the", "an", "of", "and", "or", "to", "is", "are", "on", "at", "by", "for", "with",
+            "from", "as", "it", "its", "that", "this", "be", "was", "were", "his", "her", "their");
+
+    private static final int MIN_STEM_LENGTH = 4;
+
+    private TextAnalyzer() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Analyzes a text into a list of terms (duplicates kept: term frequency matters).
+     *
+     * @param text input text (can be null)
+     */
+    public static List<String> analyze(String text) {
+        return analyze(text, false);
+    }
+
+    /**
+     * Like {@link #analyze(String)}, but stopwords are kept: for short
+     * fields such as titles, where "It" or "The Who" is the whole name.
+     *
+     * @param text input text (can be null)
+     */
+    public static List<String> analyzeKeepingStopwords(String text) {
+        return analyze(text, true);
+    }
+
+    private static List<String> analyze(String text, boolean keepStopwords) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        for (String token : SEPARATORS.split(fold(text))) {
+            if (token.isEmpty() || (!keepStopwords && STOPWORDS.contains(token))) {
+                continue;
+            }
+            terms.add(stem(token));
+        }
+        return terms;
+    }
+
+    /**
+     * Lowercases and strips diacritics, without tokenizing.
+     */
+    public static String fold(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        if (isAscii(lower)) {
+            return lower;
+        }
+        String decomposed = Normalizer.normalize(lower, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("");
+    }
+
+    /**
+     * Light, language-agnostic stemmer: English plural/verb suffixes first,
+     * then Italian gender/number endings. Aggressive enough to merge
+     * inflections, conservative enough to keep short words intact.
+     */
+    static String stem(String term) {
+        if (term.length() <= MIN_STEM_LENGTH || !Character.isLetter(term.charAt(term.length() - 1))) {
+            return term;
+        }
+        String t = term;
+
+        // English
+        if (t.endsWith("ies") && t.length() > 5) {
+            t = t.substring(0, t.length() - 3) + "y";
+        } else if (t.endsWith("sses")) {
+            t = t.substring(0, t.length() - 2);
+        } else if (t.endsWith("ing") && t.length() > 6) {
+            t = t.substring(0, t.length() - 3);
+        } else if (t.endsWith("ed") && t.length() > 5) {
+            t = t.substring(0, t.length() - 2);
+        } else if (t.endsWith("s") && !t.endsWith("ss")) {
+            t = t.substring(0, t.length() - 1);
+        }
+
+        // Italian: "-che/-chi" → "-c", "-ghe/-ghi" → "-g", then drop the final vowel
+        if (t.length() > MIN_STEM_LENGTH) {
+            if (t.endsWith("che") || t.endsWith("chi") || t.endsWith("ghe") || t.endsWith("ghi")) {
+                t = t.substring(0, t.length() - 2);
+            } else if (isVowel(t.charAt(t.length() - 1))) {
+                t = t.substring(0, t.length() - 1);
+            }
+        }
+        return t;
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 127) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+}
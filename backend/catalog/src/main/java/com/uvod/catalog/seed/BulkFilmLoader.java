@@ -0,0 +1,120 @@
+package com.uvod.catalog.seed;
+
+import com.azure.cosmos.CosmosAsyncClient;
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.models.CosmosBulkExecutionOptions;
+import com.azure.cosmos.models.CosmosBulkItemResponse;
+import com.azure.cosmos.models.CosmosBulkOperationResponse;
+import com.azure.cosmos.models.CosmosBulkOperations;
+import com.azure.cosmos.models.CosmosItemOperation;
+import com.azure.cosmos.models.PartitionKey;
+import com.uvod.catalog.config.CatalogCosmosProperties;
+import com.uvod.catalog.model.Film;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Loads large numbers of films through the Cosmos bulk executor.
+ *
+ * Films are produced lazily and sent in batches; at most {@code parallelism}
+ * batches are in flight, so memory and pressure on the account stay bounded
+ * (the bulk executor itself groups operations by partition and retries 429s).
+ */
+@Component
+public class BulkFilmLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkFilmLoader.class);
+
+    /** Progress is logged every this many films */
+    private static final long PROGRESS_INTERVAL = 50_000;
+
+    private final CosmosAsyncClient cosmosAsyncClient;
+    private final CatalogCosmosProperties cosmos;
+
+    /**
+     * Outcome of a bulk load.
+     */
+    public record LoadReport(long inserted, long failed, double requestCharge, Duration elapsed) {
+
+        public double filmsPerSecond() {
+            return inserted / seconds();
+        }
+
+        public double requestUnitsPerSecond() {
+            return requestCharge / seconds();
+        }
+
+        private double seconds() {
+            return Math.max(elapsed.toMillis(), 1) / 1000.0;
+        }
+    }
+
+    public BulkFilmLoader(CosmosAsyncClient cosmosAsyncClient, CatalogCosmosProperties cosmos) {
+        this.cosmosAsyncClient = cosmosAsyncClient;
+        this.cosmos = cosmos;
+    }
+
+    /**
+     * Creates films [0, count) produced by the given function. Blocks until done.
+     *
+     * @param count       number of films
+     * @param films       index → film, called lazily
+     * @param batchSize   operations per bulk call
+     * @param parallelism max bulk calls in flight
+     */
+    public LoadReport load(int count, IntFunction<Film> films, int batchSize, int parallelism) {
+        CosmosAsyncContainer container = cosmosAsyncClient.getDatabase(cosmos.database()).getContainer(cosmos.filmsContainer());
+        CosmosBulkExecutionOptions options = new CosmosBulkExecutionOptions();
+
+        AtomicLong inserted = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        DoubleAdder requestCharge = new DoubleAdder();
+        long start = System.nanoTime();
+
+        Flux.range(0, count)
+                .map(i -> toOperation(films.apply(i)))
+                .buffer(batchSize)
+                .flatMap(batch -> container.<Void>executeBulkOperations(Flux.fromIterable(batch), options),
+                        parallelism)
+                .doOnNext(result -> {
+                    CosmosBulkItemResponse response = result.getResponse();
+                    if (response != null) {
+                        requestCharge.add(response.getRequestCharge());
+                    }
+                    if (response != null && response.isSuccessStatusCode()) {
+                        long done = inserted.incrementAndGet();
+                        if (done % PROGRESS_INTERVAL == 0) {
+                            logger.info("Bulk load: {}/{} films", done, count);
+                        }
+                    } else {
+                        failed.incrementAndGet();
+                        logFailure(result);
+                    }
+                })
+                .blockLast();
+
+        return new LoadReport(inserted.get(), failed.get(), requestCharge.sum(),
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static CosmosItemOperation toOperation(Film film) {
+        return CosmosBulkOperations.getCreateItemOperation(film, new PartitionKey(film.getGenre()));
+    }
+
+    private static void logFailure(CosmosBulkOperationResponse<Void> result) {
+        if (result.getException() != null) {
+            logger.warn("Bulk create of {} failed: {}", result.getOperation().getId(),
+                    result.getException().getMessage());
+        } else if (result.getResponse() != null) {
+            logger.warn("Bulk create of {} failed with status {}", result.getOperation().getId(),
+                    result.getResponse().getStatusCode());
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.uvod.catalog.seed;
+
+import com.uvod.catalog.model.Film;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Generates realistic-looking films for scale testing.
+ *
+ * Genres, cast members and tags follow a Zipf distribution (a few genres
+ * and prolific actors dominate, with a long tail), release years are skewed
+ * towards recent ones. Film i depends only on (seed, i), so any range of
+ * the catalog can be generated lazily, in any order, and reproduced.
+ */
+public final class SyntheticCatalogGenerator {
+
+    private static final String[] GENRES = {
+            "Drama", "Thriller", "Sci-Fi", "Comedy", "Action", "Horror", "Animation",
+            "Documentary", "Crime", "Fantasy", "Romance", "Adventure", "Mystery", "War",
+            "Western", "Musical" };
+
+    private static final String[] TITLE_WORDS = {
+            "Notte", "Città", "Segreto", "Viaggio", "Memoria", "Fuoco", "Mare", "Ombra", "Destino",
+            "Guerra", "Amore", "Silenzio", "Confine", "Tempesta", "Luce", "Specchio", "Deserto",
+            "Ritorno", "Promessa", "Cenere", "Vento", "Sangue", "Orizzonte", "Labirinto", "Eco",
+            "Signal", "Dream", "Storm", "River", "Shadow", "Winter", "Empire", "Ghost", "Frontier",
+            "Horizon", "Chrome", "Neon", "Abyss", "Quantum", "Last", "Silent", "Broken", "Hidden",
+            "Lost", "Golden", "Iron", "Crimson", "Frozen", "Wild", "Dark", "Endless", "Northern" };
+
+    private static final String[] FIRST_NAMES = {
+            "Alex", "Mia", "Jordan", "Elena", "Kenji", "Sara", "Leo", "Hank", "Claudia", "Enzo",
+            "Sofia", "Oliver", "Giulia", "Marco", "Chiara", "Luca", "Anna", "David", "Yuki", "Omar",
+            "Lena", "Pablo", "Nora", "Tomas", "Aisha", "Ravi", "Ingrid", "Matteo", "Chloe", "Ivan" };
+
+    private static final String[] LAST_NAMES = {
+            "Rivera", "Chen", "Blake", "Rossi", "Tanaka", "Novak", "Marshall", "Patel", "Neri", "Ricci",
+            "Lindqvist", "Grant", "Ferraris", "Okonkwo", "Bianchi", "Moreau", "Kowalski", "Silva",
+            "Haddad", "Nakamura", "Romano", "Costa", "Fischer", "Dubois", "Greco", "Larsen", "Mendes",
+            "Conti", "Sato", "Varga" };
+
+    private static final String[] TAGS = {
+            "futuro", "spazio", "intelligenza artificiale", "sopravvivenza", "primo contatto",
+            "distopia", "viaggi nel tempo", "cospirazione", "vendetta", "indagine", "serial killer",
+            "rapina", "spionaggio", "famiglia", "amicizia", "coming of age", "storia vera", "biografia",
+            "guerra", "resistenza", "mafia", "politica", "sport", "musica", "natura", "mare",
+            "montagna", "deserto", "città", "periferia", "anni 80", "anni 90", "medioevo", "mitologia",
+            "magia", "draghi", "zombie", "fantasmi", "casa infestata", "road movie", "commedia romantica",
+            "satira", "noir", "neo-noir", "cyberpunk", "steampunk", "post-apocalittico", "supereroi",
+            "animali", "cucina", "arte", "fotografia", "cinema", "teatro", "scuola", "ospedale",
+            "tribunale", "carcere", "isola", "viaggio" };
+
+    private static final String[] DESCRIPTION_OPENINGS = {
+            "In un futuro prossimo,", "Nella Sardegna degli anni '70,", "In una metropoli senza nome,",
+            "Durante un inverno senza fine,", "Dopo la scomparsa del fratello,", "Alla vigilia di una guerra,",
+            "In un piccolo paese di montagna,", "A bordo di una nave alla deriva," };
+
+    private static final String[] DESCRIPTION_SUBJECTS = {
+            "un giovane detective", "una scienziata", "un ex pilota", "una famiglia in crisi",
+            "un gruppo di amici", "una giornalista", "un ladro gentiluomo", "una comandante",
+            "un musicista fallito", "un'adolescente ribelle" };
+
+    private static final String[] DESCRIPTION_ACTIONS = {
+            "scopre un segreto che potrebbe cambiare tutto.", "deve affrontare il proprio passato.",
+            "si ritrova coinvolto in una cospirazione internazionale.", "cerca la verità su una morte misteriosa.",
+            "tenta un'ultima, impossibile impresa.", "intraprende un viaggio senza ritorno.",
+            "lotta per proteggere chi ama.", "mette in discussione ogni certezza." };
+
+    /** Streaming service thumbnails, through the gateway */
+    private static final String THUMBNAIL_BASE_URL = "/api/streaming/thumbnails/";
+
+    private static final String[] THUMBNAIL_COLORS = { "6c3fc5", "4a2fa0", "3a86c8" };
+
+    private static final int MIN_YEAR = 1950;
+    private static final int MAX_YEAR = 2025;
+
+    private final long seed;
+    private final String[] castPool;
+    private final double[] genreCdf;
+    private final double[] castCdf;
+    private final double[] tagCdf;
+
+    /**
+     * @param seed seed of the whole catalog: same seed, same films
+     */
+    public SyntheticCatalogGenerator(long seed) {
+        this.seed = seed;
+        this.castPool = new String[FIRST_NAMES.length * LAST_NAMES.length];
+        SplittableRandom shuffle = new SplittableRandom(seed);
+        for (int i = 0; i < castPool.length; i++) {
+            castPool[i] = FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[i / FIRST_NAMES.length];
+        }
+        // Shuffle, so popularity is not tied to alphabetical order
+        for (int i = castPool.length - 1; i > 0; i--) {
+            int j = shuffle.nextInt(i + 1);
+            String tmp = castPool[i];
+            castPool[i] = castPool[j];
+            castPool[j] = tmp;
+        }
+        this.genreCdf = zipfCdf(GENRES.length, 1.1);
+        this.castCdf = zipfCdf(castPool.length, 0.9);
+        this.tagCdf = zipfCdf(TAGS.length, 0.8);
+    }
+
+    /**
+     * Returns the i-th film of the synthetic catalog.
+     */
+    public Film film(long index) {
+        SplittableRandom random = new SplittableRandom(seed ^ (index * 0x9E3779B97F4A7C15L));
+
+        int words = 1 + random.nextInt(3);
+        StringBuilder title = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                title.append(' ');
+            }
+            title.append(TITLE_WORDS[random.nextInt(TITLE_WORDS.length)]);
+        }
+        // Skewed towards recent releases
+        int year = MAX_YEAR - (int) ((MAX_YEAR - MIN_YEAR) * Math.pow(random.nextDouble(), 2.5));
+        String genre = GENRES[sample(genreCdf, random)];
+        // Video and thumbnail blobs share the name
+        String media = slugify(title.toString()) + "-" + year;
+
+        return Film.builder()
+                .id(new UUID(random.nextLong(), random.nextLong()).toString())
+                // Titles repeat, slugs must not: the index makes them unique
+                .slug(slugify(title + " " + year) + "-" + Long.toString(index, 36))
+                .title(title.toString())
+                .description(DESCRIPTION_OPENINGS[random.nextInt(DESCRIPTION_OPENINGS.length)] + " "
+                        + DESCRIPTION_SUBJECTS[random.nextInt(DESCRIPTION_SUBJECTS.length)] + " "
+                        + DESCRIPTION_ACTIONS[random.nextInt(DESCRIPTION_ACTIONS.length)])
+                .releaseYear(year)
+                .genre(genre)
+                .durationInMinutes(80 + random.nextInt(100))
+                .thumbnailUrl(thumbnailUrl(media, title.toString(),
+                        THUMBNAIL_COLORS[random.nextInt(THUMBNAIL_COLORS.length)]))
+                .blobName(media + ".mp4")
+                .cast(pick(castPool, castCdf, 2 + random.nextInt(4), random))
+                .tags(pick(TAGS, tagCdf, 1 + random.nextInt(4), random))
+                .build();
+    }
+
+    private static List<String> pick(String[] pool, double[] cdf, int count, SplittableRandom random) {
+        Set<String> picked = new LinkedHashSet<>();
+        // Bounded attempts: popular values may be drawn more than once
+        for (int attempt = 0; attempt < count * 3 && picked.size() < count; attempt++) {
+            picked.add(pool[sample(cdf, random)]);
+        }
+        return List.copyOf(picked);
+    }
+
+    private static int sample(double[] cdf, SplittableRandom random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+
+    /**
+     * Cumulative distribution of a Zipf law with the given exponent over n ranks.
+     */
+    private static double[] zipfCdf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += 1 / Math.pow(rank, exponent);
+            cdf[rank - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    /**
+     * Thumbnail served by the streaming service: the source image
+     * {name}.jpg from blob storage, or a placeholder with the title on the
+     * given color while there is none. The frontend adds the size.
+     *
+     * @param name  blob name without extension
+     * @param color background of the placeholder, six hex digits from the
+     *              streaming service's placeholder-colors palette
+     */
+    public static String thumbnailUrl(String name, String title, String color) {
+        return THUMBNAIL_BASE_URL + name
+                + "?title=" + URLEncoder.encode(title, StandardCharsets.UTF_8).replace("+", "%20")
+                + "&color=" + color;
+    }
+
+    /**
+     * Same format as the demo seeder's slugs (accents are folded rather than
+     * dropped). No regexes: this runs twice per film, up to a million times.
+     */
+    private static String slugify(String text) {
+        String folded = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        StringBuilder slug = new StringBuilder(folded.length());
+        boolean pendingDash = false;
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-') {
+                if (pendingDash && slug.length() > 0) {
+                    slug.append('-');
+                }
+                pendingDash = false;
+                slug.append(c);
+            } else if (Character.isWhitespace(c)) {
+                pendingDash = true;
+            }
+        }
+        return slug.toString();
+    }
+}
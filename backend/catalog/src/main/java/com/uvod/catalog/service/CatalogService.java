@@ -1,37 +1,220 @@
 package com.uvod.catalog.service;
 
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.spring.data.cosmos.core.query.CosmosPageRequest;
+import com.uvod.catalog.cache.CatalogCache;
+import com.uvod.catalog.cache.CatalogSnapshot;
+import com.uvod.catalog.cache.FilmKeyIndex;
+import com.uvod.catalog.dto.BrowseRequest;
+import com.uvod.catalog.dto.BrowseResponse;
+import com.uvod.catalog.dto.FacetValueResponse;
+import com.uvod.catalog.dto.FilmBatchResponse;
+import com.uvod.catalog.dto.FilmCardResponse;
+import com.uvod.catalog.dto.FilmPageResponse;
 import com.uvod.catalog.dto.FilmResponse;
+import com.uvod.catalog.dto.GenreRowResponse;
+import com.uvod.catalog.dto.HomeResponse;
+import com.uvod.catalog.dto.SuggestionResponse;
 import com.uvod.catalog.exception.FilmNotFoundException;
+import com.uvod.catalog.exception.InvalidBatchRequestException;
+import com.uvod.catalog.exception.InvalidBrowseRequestException;
+import com.uvod.catalog.exception.InvalidContinuationTokenException;
 import com.uvod.catalog.mapper.FilmMapper;
 import com.uvod.catalog.model.Film;
+import com.uvod.catalog.repository.FilmBatchReader;
 import com.uvod.catalog.repository.FilmRepo;
+import com.uvod.catalog.search.CatalogBrowseEngine;
+import com.uvod.catalog.search.CatalogSearchEngine;
+import com.uvod.catalog.search.CatalogSimilarityEngine;
+import com.uvod.catalog.search.CatalogSuggestionEngine;
+import com.uvod.catalog.search.FacetIndex;
+import com.uvod.catalog.search.SuggestionIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Service for film catalog management.
  * Read-only operations.
+ *
+ * Reads are served from the in-memory CatalogCache when enabled;
+ * Cosmos is queried only as a fallback.
  */
 @Service
 public class CatalogService {
 
+    /** Cosmos candidates ranked per "more like this" request without the index */
+    private static final int MAX_SIMILAR_CANDIDATES = 1_000;
+
+    /** Home page order: newest releases first, then by title */
+    private static final Comparator<Film> NEWEST_FIRST = Comparator
+            .comparingInt(Film::getReleaseYear).reversed()
+            .thenComparing(Film::getTitle, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+
     private final FilmRepo filmRepo;
     private final FilmMapper filmMapper;
+    private final CatalogCache catalogCache;
+    private final CatalogSearchEngine searchEngine;
+    private final CatalogSuggestionEngine suggestionEngine;
+    private final CatalogBrowseEngine browseEngine;
+    private final CatalogSimilarityEngine similarityEngine;
+    private final FilmKeyIndex filmKeyIndex;
+    private final FilmBatchReader filmBatchReader;
+    private final int maxPageSize;
+    private final int maxSearchResults;
+    private final int maxBatchIds;
+    private final int homeFilmsPerGenre;
 
-    public CatalogService(FilmRepo filmRepo, FilmMapper filmMapper) {
+    public CatalogService(FilmRepo filmRepo, FilmMapper filmMapper, CatalogCache catalogCache,
+            CatalogSearchEngine searchEngine,
+            CatalogSuggestionEngine suggestionEngine,
+            CatalogBrowseEngine browseEngine,
+            CatalogSimilarityEngine similarityEngine,
+            FilmKeyIndex filmKeyIndex,
+            FilmBatchReader filmBatchReader,
+            @Value("${catalog.page.max-size:100}") int maxPageSize,
+            @Value("${catalog.search.max-results:50}") int maxSearchResults,
+            @Value("${catalog.batch.max-ids:100}") int maxBatchIds,
+            @Value("${catalog.home.films-per-genre:20}") int homeFilmsPerGenre) {
         this.filmRepo = filmRepo;
         this.filmMapper = filmMapper;
+        this.catalogCache = catalogCache;
+        this.searchEngine = searchEngine;
+        this.suggestionEngine = suggestionEngine;
+        this.browseEngine = browseEngine;
+        this.similarityEngine = similarityEngine;
+        this.filmKeyIndex = filmKeyIndex;
+        this.filmBatchReader = filmBatchReader;
+        this.maxPageSize = maxPageSize;
+        this.maxSearchResults = maxSearchResults;
+        this.maxBatchIds = maxBatchIds;
+        this.homeFilmsPerGenre = homeFilmsPerGenre;
     }
 
     /**
      * Returns all films in the catalog.
      */
     public List<FilmResponse> getAllFilms() {
-        List<Film> films = filmRepo.findAllFilms();
+        List<Film> films = catalogCache.snapshot()
+                .map(CatalogSnapshot::getFilms)
+                .orElseGet(filmRepo::findAllFilms);
         return filmMapper.toResponseList(films);
     }
 
+    /**
+     * Home page payload: a hero film plus one row per genre with its
+     * newest films. Built from the snapshot; the controller serves it from
+     * the EncodedResponseCache, so it is computed once per catalog version.
+     * Without the snapshot, Cosmos counts the films per genre and each row
+     * is a single-partition query for its newest films.
+     */
+    public HomeResponse getHome() {
+        List<GenreRowResponse> rows = catalogCache.snapshot()
+                .map(snapshot -> snapshot.getFilmsByGenre().entrySet().stream()
+                        .map(e -> homeRow(e.getKey(), e.getValue().size(), e.getValue()))
+                        .toList())
+                .orElseGet(() -> filmBatchReader.countByGenre().entrySet().stream()
+                        .map(e -> homeRow(e.getKey(), e.getValue(),
+                                filmRepo.findNewestByGenre(e.getKey(), homeFilmsPerGenre)))
+                        .toList())
+                .stream()
+                .sorted(Comparator.comparingInt(GenreRowResponse::getTotalFilms).reversed()
+                        .thenComparing(GenreRowResponse::getGenre))
+                .toList();
+
+        // Newest film of the catalog: the first film of one of the rows
+        FilmResponse hero = rows.stream()
+                .map(GenreRowResponse::getFilms)
+                .filter(films -> !films.isEmpty())
+                .map(films -> films.get(0))
+                .min(Comparator.comparingInt(FilmResponse::getReleaseYear).reversed()
+                        .thenComparing(FilmResponse::getTitle, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)))
+                .orElse(null);
+
+        return HomeResponse.builder()
+                .hero(hero)
+                .rows(rows)
+                .build();
+    }
+
+    /**
+     * Returns one page of the full catalog, straight from Cosmos.
+     * Memory and latency are bounded by the page size, not the catalog size.
+     *
+     * @param pageSize          number of films per page (clamped to 1..max)
+     * @param continuationToken opaque token from the previous page, or null for the first
+     * @throws InvalidContinuationTokenException if the token cannot be decoded
+     */
+    public FilmPageResponse<FilmResponse> getFilmsPage(int pageSize, String continuationToken) {
+        return page(pageSize, continuationToken, filmRepo::findAllFilms, filmMapper::toResponseList);
+    }
+
+    /**
+     * Returns one page of a genre (single-partition query).
+     *
+     * @param genre             film genre (e.g. "Sci-Fi")
+     * @param pageSize          number of films per page (clamped to 1..max)
+     * @param continuationToken opaque token from the previous page, or null for the first
+     * @throws InvalidContinuationTokenException if the token cannot be decoded
+     */
+    public FilmPageResponse<FilmResponse> getFilmsByGenrePage(String genre, int pageSize, String continuationToken) {
+        return page(pageSize, continuationToken, pageable -> filmRepo.findByGenre(genre, pageable),
+                filmMapper::toResponseList);
+    }
+
+    /**
+     * Returns all films as lightweight cards.
+     * Served from the cache, or via a projected Cosmos query as fallback.
+     */
+    public List<FilmCardResponse> getAllFilmCards() {
+        List<Film> films = catalogCache.snapshot()
+                .map(CatalogSnapshot::getFilms)
+                .orElseGet(filmRepo::findAllCards);
+        return filmMapper.toCardList(films);
+    }
+
+    /**
+     * Returns the films of a genre as lightweight cards.
+     *
+     * @param genre film genre (e.g. "Sci-Fi")
+     */
+    public List<FilmCardResponse> getFilmCardsByGenre(String genre) {
+        List<Film> films = catalogCache.snapshot()
+                .map(snapshot -> snapshot.findByGenre(genre))
+                .orElseGet(() -> filmRepo.findCardsByGenre(genre));
+        return filmMapper.toCardList(films);
+    }
+
+    /**
+     * Card variant of {@link #getFilmsPage(int, String)}: the projection
+     * is pushed down to Cosmos.
+     */
+    public FilmPageResponse<FilmCardResponse> getFilmCardsPage(int pageSize, String continuationToken) {
+        return page(pageSize, continuationToken, filmRepo::findAllCards, filmMapper::toCardList);
+    }
+
+    /**
+     * Card variant of {@link #getFilmsByGenrePage(String, int, String)}.
+     */
+    public FilmPageResponse<FilmCardResponse> getFilmCardsByGenrePage(String genre, int pageSize,
+            String continuationToken) {
+        return page(pageSize, continuationToken, pageable -> filmRepo.findCardsByGenre(genre, pageable),
+                filmMapper::toCardList);
+    }
+
     /**
      * Returns a single film by ID.
      *
@@ -39,11 +222,81 @@ public class CatalogService {
      * @throws FilmNotFoundException if the film does not exist
      */
     public FilmResponse getFilmById(String id) {
-        Film film = filmRepo.findById(id)
+        Film film = catalogCache.findById(id)
+                .or(() -> filmRepo.findById(id))
                 .orElseThrow(() -> new FilmNotFoundException(id));
         return filmMapper.toResponse(film);
     }
 
+    /**
+     * Returns several films by ID in one call.
+     *
+     * Each id is resolved from the cheapest source that knows it: the
+     * in-memory cache, then one readMany for ids whose partition key is
+     * known, then one cross-partition query for the rest.
+     *
+     * @param ids film ids (duplicates and blanks are ignored)
+     * @return films in request order, plus the ids that were not found
+     * @throws InvalidBatchRequestException if there are no ids or too many
+     */
+    public FilmBatchResponse getFilmsByIds(List<String> ids) {
+        List<String> requested = ids.stream()
+                .filter(id -> id != null && !id.isBlank())
+                .map(String::trim)
+                .distinct()
+                .toList();
+        if (requested.isEmpty()) {
+            throw new InvalidBatchRequestException("At least one film id is required");
+        }
+        if (requested.size() > maxBatchIds) {
+            throw new InvalidBatchRequestException("At most " + maxBatchIds + " film ids per request");
+        }
+
+        Map<String, Film> found = new HashMap<>();
+        List<FilmKeyIndex.FilmKey> known = new ArrayList<>();
+        for (String id : requested) {
+            Optional<Film> cached = catalogCache.findById(id);
+            if (cached.isPresent()) {
+                found.put(id, cached.get());
+            } else {
+                filmKeyIndex.findById(id).ifPresent(known::add);
+            }
+        }
+
+        for (Film film : filmBatchReader.readMany(known)) {
+            found.put(film.getId(), film);
+        }
+        // Stale keys (film deleted or moved to another genre) go to the query path
+        for (FilmKeyIndex.FilmKey key : known) {
+            if (!found.containsKey(key.id())) {
+                filmKeyIndex.evictId(key.id());
+            }
+        }
+
+        List<String> unknown = requested.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!unknown.isEmpty()) {
+            for (Film film : filmRepo.findByIds(unknown)) {
+                found.put(film.getId(), film);
+                filmKeyIndex.put(film);
+            }
+        }
+
+        List<FilmResponse> films = new ArrayList<>();
+        List<String> missingIds = new ArrayList<>();
+        for (String id : requested) {
+            Film film = found.get(id);
+            if (film != null) {
+                films.add(filmMapper.toResponse(film));
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return FilmBatchResponse.builder()
+                .films(films)
+                .missingIds(missingIds)
+                .build();
+    }
+
     /**
      * Returns a single film by slug.
      *
@@ -51,7 +304,9 @@ public class CatalogService {
      * @return FilmResponse
      */
     public FilmResponse getFilmBySlug(String slug) {
-        Film film = filmRepo.findBySlug(slug);
+        Film film = catalogCache.findBySlug(slug)
+                .or(() -> pointReadBySlug(slug))
+                .orElseGet(() -> queryBySlug(slug));
         if (film == null)
             throw new FilmNotFoundException(slug);
         return filmMapper.toResponse(film);
@@ -64,18 +319,222 @@ public class CatalogService {
      * @param genre film genre (e.g. "Sci-Fi")
      */
     public List<FilmResponse> getFilmsByGenre(String genre) {
-        List<Film> films = filmRepo.findByGenre(genre);
+        List<Film> films = catalogCache.snapshot()
+                .map(snapshot -> snapshot.findByGenre(genre))
+                .orElseGet(() -> filmRepo.findByGenre(genre));
         return filmMapper.toResponseList(films);
     }
 
     /**
-     * Searches films by title (contains the query).
-     * Cross-partition query — acceptable for a small catalog.
+     * Full-text search over title, cast, tags and description,
+     * ranked by relevance and answered from the in-memory index.
+     * Falls back to a Cosmos title scan while the index is not available.
      *
-     * @param query string to search in the title
+     * @param query free text to search
      */
     public List<FilmResponse> searchFilms(String query) {
-        List<Film> films = filmRepo.searchByTitle(query);
+        // Read-through: loading the snapshot also builds the search index
+        catalogCache.current();
+        List<Film> films = searchEngine.search(query, maxSearchResults)
+                .orElseGet(() -> filmRepo.searchByTitle(query));
         return filmMapper.toResponseList(films);
     }
+
+    /**
+     * Typeahead completions for a prefix (titles, cast names, tags),
+     * answered from memory without calling Cosmos per keystroke.
+     * While the index is not available (cache disabled), Cosmos answers
+     * with at most limit titles starting with the prefix, unranked.
+     *
+     * @param prefix what the user typed so far
+     * @param limit  max number of suggestions, capped by catalog.suggest.max-results
+     */
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        // Read-through: loading the snapshot also builds the suggestion index
+        catalogCache.current();
+        List<SuggestionIndex.Suggestion> suggestions = suggestionEngine.suggest(prefix, limit)
+                .orElseGet(() -> suggestTitles(prefix, limit));
+        return suggestions.stream()
+                .map(s -> SuggestionResponse.builder()
+                        .text(s.text())
+                        .type(s.type().name().toLowerCase(Locale.ROOT))
+                        .slug(s.slug())
+                        .build())
+                .toList();
+    }
+
+    private List<SuggestionIndex.Suggestion> suggestTitles(String prefix, int limit) {
+        int n = Math.min(limit, suggestionEngine.maxResults());
+        if (prefix == null || prefix.isBlank() || n <= 0) {
+            return List.of();
+        }
+        return filmRepo.findTitlesStartingWith(prefix.strip(), n).stream()
+                .map(film -> new SuggestionIndex.Suggestion(film.getTitle(), SuggestionIndex.Type.TITLE,
+                        film.getSlug(), 0))
+                .toList();
+    }
+
+    /**
+     * Faceted browse: films matching all the filters, sorted and paged,
+     * plus facet counts, answered from the in-memory bitmap index.
+     * While the index is not available (cache disabled), Cosmos answers
+     * with the filters in the query, and only genre counts as facets.
+     *
+     * @param request filters, sort and page
+     * @throws InvalidBrowseRequestException on unknown sort/order, inverted ranges or negative offset
+     */
+    public BrowseResponse browse(BrowseRequest request) {
+        FacetIndex.Query query = toQuery(request);
+        // Read-through: loading the snapshot also builds the browse index
+        catalogCache.current();
+        FacetIndex.Result result = browseEngine.browse(query)
+                .orElseGet(() -> filmBatchReader.browse(query));
+
+        Map<String, List<FacetValueResponse>> facets = new LinkedHashMap<>();
+        result.facets().forEach((name, values) -> facets.put(name, values.stream()
+                .map(v -> FacetValueResponse.builder().value(v.value()).count(v.count()).build())
+                .toList()));
+        return BrowseResponse.builder()
+                .total(result.total())
+                .films(filmMapper.toCardList(result.films()))
+                .facets(facets)
+                .build();
+    }
+
+    /**
+     * "More like this": the films sharing the most genre, tags and cast
+     * with a film, read from the precomputed similarity lists. While the
+     * index is not available (cache disabled), the candidates come from
+     * Cosmos: the films sharing a tag or cast member, plus the newest of
+     * the same genre, and are ranked exactly.
+     *
+     * @param id    UUID of the film
+     * @param limit max number of films (clamped to 1..top-K)
+     * @throws FilmNotFoundException if the film does not exist
+     */
+    public List<FilmResponse> getSimilarFilms(String id, int limit) {
+        int size = Math.max(1, Math.min(limit, similarityEngine.getTopK()));
+        // Read-through: loading the snapshot also builds the similarity index
+        Optional<CatalogSnapshot> snapshot = catalogCache.current();
+        Optional<List<String>> ids = similarityEngine.similar(id, size);
+        if (snapshot.isPresent() && ids.isPresent()) {
+            snapshot.get().findById(id).orElseThrow(() -> new FilmNotFoundException(id));
+            return filmMapper.toResponseList(ids.get().stream()
+                    .map(snapshot.get()::findById)
+                    .flatMap(Optional::stream)
+                    .toList());
+        }
+        Film film = filmRepo.findById(id).orElseThrow(() -> new FilmNotFoundException(id));
+        return filmMapper.toResponseList(similarityEngine.similar(similarCandidates(film, size), film, size));
+    }
+
+    /**
+     * Films worth ranking against a film: sharing a tag or cast member
+     * scores above sharing only the genre, which fills in when few do.
+     */
+    private Collection<Film> similarCandidates(Film film, int size) {
+        Map<String, Film> candidates = new LinkedHashMap<>();
+        List<String> tags = film.getTags() == null ? List.of() : film.getTags();
+        List<String> cast = film.getCast() == null ? List.of() : film.getCast();
+        if (!tags.isEmpty() || !cast.isEmpty()) {
+            filmRepo.findSharingTagsOrCast(film.getId(), tags, cast, MAX_SIMILAR_CANDIDATES)
+                    .forEach(candidate -> candidates.put(candidate.getId(), candidate));
+        }
+        if (candidates.size() < size && film.getGenre() != null) {
+            filmRepo.findNewestByGenre(film.getGenre(), size + 1)
+                    .forEach(candidate -> candidates.putIfAbsent(candidate.getId(), candidate));
+        }
+        return candidates.values();
+    }
+
+    /**
+     * Single-partition point read (1 RU) through the slug index.
+     * A stale mapping (film deleted, or slug changed) is evicted.
+     */
+    private Optional<Film> pointReadBySlug(String slug) {
+        Optional<FilmKeyIndex.FilmKey> key = filmKeyIndex.findBySlug(slug);
+        if (key.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<Film> film = filmRepo.findById(key.get().id(), new PartitionKey(key.get().genre()))
+                .filter(f -> slug.equals(f.getSlug()));
+        if (film.isEmpty()) {
+            filmKeyIndex.evictSlug(slug);
+        }
+        return film;
+    }
+
+    /**
+     * Cross-partition query for slugs the index does not know yet.
+     * The result teaches the index, so the next lookup is a point read.
+     */
+    private Film queryBySlug(String slug) {
+        Film film = filmRepo.findBySlug(slug);
+        if (film != null) {
+            filmKeyIndex.put(film);
+        }
+        return film;
+    }
+
+    private FacetIndex.Query toQuery(BrowseRequest request) {
+        FacetIndex.Sort sort = switch (String.valueOf(request.getSort()).toLowerCase(Locale.ROOT)) {
+            case "year" -> FacetIndex.Sort.YEAR;
+            case "duration" -> FacetIndex.Sort.DURATION;
+            case "title" -> FacetIndex.Sort.TITLE;
+            default -> throw new InvalidBrowseRequestException(
+                    "Unknown sort '" + request.getSort() + "' (expected year, duration or title)");
+        };
+        boolean descending = switch (String.valueOf(request.getOrder()).toLowerCase(Locale.ROOT)) {
+            case "asc" -> false;
+            case "desc" -> true;
+            default -> throw new InvalidBrowseRequestException(
+                    "Unknown order '" + request.getOrder() + "' (expected asc or desc)");
+        };
+        requireRange("year", request.getYearFrom(), request.getYearTo());
+        requireRange("duration", request.getDurationFrom(), request.getDurationTo());
+        if (request.getOffset() < 0) {
+            throw new InvalidBrowseRequestException("offset must not be negative");
+        }
+        return new FacetIndex.Query(request.getGenre(), request.getTag(), request.getCast(),
+                request.getYearFrom(), request.getYearTo(),
+                request.getDurationFrom(), request.getDurationTo(),
+                sort, descending, request.getOffset(), Math.max(1, Math.min(request.getLimit(), maxPageSize)));
+    }
+
+    private GenreRowResponse homeRow(String genre, int totalFilms, List<Film> films) {
+        return GenreRowResponse.builder()
+                .genre(genre)
+                .totalFilms(totalFilms)
+                .films(filmMapper.toResponseList(films.stream()
+                        .sorted(NEWEST_FIRST)
+                        .limit(homeFilmsPerGenre)
+                        .toList()))
+                .build();
+    }
+
+    private static void requireRange(String name, Integer from, Integer to) {
+        if (from != null && to != null && from > to) {
+            throw new InvalidBrowseRequestException(
+                    name + "From (" + from + ") is greater than " + name + "To (" + to + ")");
+        }
+    }
+
+    /**
+     * Runs a paged query from the client's continuation token; a token
+     * Cosmos rejects is reported as invalid, like an undecodable one.
+     */
+    private <T> FilmPageResponse<T> page(int pageSize, String continuationToken,
+            Function<Pageable, Slice<Film>> query, Function<List<Film>, List<T>> mapper) {
+        int size = Math.max(1, Math.min(pageSize, maxPageSize));
+        Slice<Film> slice = ContinuationTokens.query(continuationToken,
+                continuation -> query.apply(CosmosPageRequest.of(0, size, continuation, Sort.unsorted())));
+        String next = null;
+        if (slice.hasNext() && slice.nextPageable() instanceof CosmosPageRequest nextRequest) {
+            next = ContinuationTokens.encode(nextRequest.getRequestContinuation());
+        }
+        return FilmPageResponse.<T>builder()
+                .items(mapper.apply(slice.getContent()))
+                .continuationToken(next)
+                .build();
+    }
 }
@@ -0,0 +1,66 @@
+package com.uvod.catalog.service;
+
+import com.uvod.catalog.cache.CatalogCache;
+import com.uvod.catalog.cache.CatalogSnapshot;
+import com.uvod.catalog.dto.FilmCardResponse;
+import com.uvod.catalog.dto.FilmResponse;
+import com.uvod.catalog.mapper.FilmMapper;
+import com.uvod.catalog.model.Film;
+import com.uvod.catalog.reactive.ReactiveFilmRepo;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Streaming variant of the catalog listings.
+ *
+ * Films are emitted one by one and mapped on the fly, so no full response
+ * list is ever built. Spring MVC writes each element as soon as it is
+ * emitted and only requests the next one after the write completes: the
+ * client socket drives the pace, down to the Cosmos page fetches.
+ */
+@Service
+public class CatalogStreamService {
+
+    private final ReactiveFilmRepo reactiveFilmRepo;
+    private final FilmMapper filmMapper;
+    private final CatalogCache catalogCache;
+
+    public CatalogStreamService(ReactiveFilmRepo reactiveFilmRepo, FilmMapper filmMapper,
+            CatalogCache catalogCache) {
+        this.reactiveFilmRepo = reactiveFilmRepo;
+        this.filmMapper = filmMapper;
+        this.catalogCache = catalogCache;
+    }
+
+    public Flux<FilmResponse> streamAllFilms() {
+        return stream(snapshot -> snapshot.getFilms(), reactiveFilmRepo.streamAllFilms())
+                .map(filmMapper::toResponse);
+    }
+
+    public Flux<FilmResponse> streamFilmsByGenre(String genre) {
+        return stream(snapshot -> snapshot.findByGenre(genre), reactiveFilmRepo.streamByGenre(genre))
+                .map(filmMapper::toResponse);
+    }
+
+    public Flux<FilmCardResponse> streamAllFilmCards() {
+        return stream(snapshot -> snapshot.getFilms(), reactiveFilmRepo.streamAllCards())
+                .map(filmMapper::toCard);
+    }
+
+    public Flux<FilmCardResponse> streamFilmCardsByGenre(String genre) {
+        return stream(snapshot -> snapshot.findByGenre(genre), reactiveFilmRepo.streamCardsByGenre(genre))
+                .map(filmMapper::toCard);
+    }
+
+    /**
+     * Streams from the in-memory snapshot when available, otherwise from
+     * Cosmos. The Cosmos query is lazy: it only runs if subscribed to.
+     */
+    private Flux<Film> stream(Function<CatalogSnapshot, Iterable<Film>> fromSnapshot, Flux<Film> fromCosmos) {
+        Optional<CatalogSnapshot> snapshot = catalogCache.snapshot();
+        return snapshot.isPresent() ? Flux.fromIterable(fromSnapshot.apply(snapshot.get())) : fromCosmos;
+    }
+}
@@ -0,0 +1,84 @@
+package com.uvod.catalog.service;
+
+import com.azure.cosmos.CosmosException;
+import com.uvod.catalog.exception.InvalidContinuationTokenException;
+import org.springframework.http.HttpStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Client-facing pagination cursors: the Cosmos continuation (a JSON
+ * string) wrapped in URL-safe Base64, so clients treat it as opaque.
+ *
+ * A token that decodes but is not a continuation Cosmos accepts is only
+ * caught by the query itself; {@link #query} maps that failure to the
+ * same 400 as an undecodable token.
+ */
+final class ContinuationTokens {
+
+    private ContinuationTokens() {
+    }
+
+    static String encode(String cosmosContinuation) {
+        if (cosmosContinuation == null) {
+            return null;
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(cosmosContinuation.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the Cosmos continuation, or null for the first page
+     * @throws InvalidContinuationTokenException if the token is not Base64 of UTF-8 text
+     */
+    static String decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            return StandardCharsets.UTF_8.newDecoder()
+                    .decode(ByteBuffer.wrap(Base64.getUrlDecoder().decode(token)))
+                    .toString();
+        } catch (IllegalArgumentException | CharacterCodingException e) {
+            throw new InvalidContinuationTokenException(token);
+        }
+    }
+
+    /**
+     * Runs a paged query resuming from the token. Cosmos rejects a
+     * continuation it cannot parse either with a 400 or, client side,
+     * with an IllegalArgumentException; both mean the token is invalid.
+     *
+     * @throws InvalidContinuationTokenException if the token is rejected
+     */
+    static <T> T query(String token, Function<String, T> query) {
+        String continuation = decode(token);
+        try {
+            return query.apply(continuation);
+        } catch (RuntimeException e) {
+            if (continuation != null && rejectsContinuation(e)) {
+                throw new InvalidContinuationTokenException(token);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Spring Data Cosmos wraps the SDK exception, hence the cause chain.
+     */
+    private static boolean rejectsContinuation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CosmosException cosmos) {
+                return cosmos.getStatusCode() == HttpStatus.BAD_REQUEST.value();
+            }
+            if (cause instanceof IllegalArgumentException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,55 @@
+package com.uvod.catalog.cache;
+
+import com.uvod.catalog.model.Film;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Deleted-film detection and removal in catalog snapshots.
+ */
+class CatalogSnapshotTests {
+
+    private final CatalogSnapshot snapshot = CatalogSnapshot.of(1, List.of(
+            film("1", "quantum-horizon", "Sci-Fi"),
+            film("2", "the-last-signal", "Sci-Fi"),
+            film("3", "cenere-e-luce", "Drama")));
+
+    @Test
+    void missingFromListsFilmsNoLongerInCosmos() {
+        assertThat(snapshot.missingFrom(Set.of("1", "3", "4"))).containsExactly("2");
+        assertThat(snapshot.missingFrom(Set.of("1", "2", "3"))).isEmpty();
+    }
+
+    @Test
+    void withoutFilmsDropsThemFromEveryView() {
+        CatalogSnapshot updated = snapshot.withoutFilms(List.of("2"));
+
+        assertThat(updated.getVersion()).isEqualTo(2);
+        assertThat(updated.size()).isEqualTo(2);
+        assertThat(updated.findById("2")).isEmpty();
+        assertThat(updated.findBySlug("the-last-signal")).isEmpty();
+        assertThat(updated.findByGenre("Sci-Fi")).extracting(Film::getId).containsExactly("1");
+        // The previous snapshot is unchanged
+        assertThat(snapshot.findById("2")).isPresent();
+    }
+
+    @Test
+    void withoutFilmsDropsEmptyGenres() {
+        CatalogSnapshot updated = snapshot.withoutFilms(List.of("3"));
+
+        assertThat(updated.getFilmsByGenre()).containsOnlyKeys("Sci-Fi");
+    }
+
+    private static Film film(String id, String slug, String genre) {
+        return Film.builder()
+                .id(id)
+                .slug(slug)
+                .title(slug)
+                .genre(genre)
+                .build();
+    }
+}
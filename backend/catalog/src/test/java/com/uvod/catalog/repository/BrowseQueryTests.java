@@ -0,0 +1,61 @@
+package com.uvod.catalog.repository;
+
+import com.azure.cosmos.models.SqlParameter;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.uvod.catalog.search.FacetIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Translation of browse queries to Cosmos SQL (fallback without the index).
+ */
+class BrowseQueryTests {
+
+    private final FacetIndex.Query query = new FacetIndex.Query(List.of("Sci-Fi", " ", "Thriller"),
+            List.of("futuro"), List.of("Alex Rivera"), 2000, null, null, 120,
+            FacetIndex.Sort.DURATION, true, 48, 24);
+
+    @Test
+    void pushesEveryFilterDown() {
+        SqlQuerySpec page = BrowseQuery.page(query);
+
+        assertThat(page.getQueryText()).isEqualTo(FilmRepo.CARD_PROJECTION + " WHERE"
+                + " (STRINGEQUALS(c.genre, @genre0, true) OR STRINGEQUALS(c.genre, @genre1, true))"
+                + " AND EXISTS(SELECT VALUE v FROM v IN c[\"tags\"] WHERE STRINGEQUALS(v, @tag2, true))"
+                + " AND EXISTS(SELECT VALUE v FROM v IN c[\"cast\"] WHERE STRINGEQUALS(v, @cast3, true))"
+                + " AND c.releaseYear >= @yearFrom4 AND c.durationInMinutes <= @durationTo5"
+                + " ORDER BY c.durationInMinutes DESC OFFSET @offset LIMIT @limit");
+        assertThat(parameters(page)).isEqualTo(Map.of(
+                "@genre0", "Sci-Fi", "@genre1", "Thriller", "@tag2", "futuro", "@cast3", "Alex Rivera",
+                "@yearFrom4", 2000, "@durationTo5", 120, "@offset", 48, "@limit", 24));
+    }
+
+    @Test
+    void genreCountsIgnoreTheGenreFilter() {
+        SqlQuerySpec counts = BrowseQuery.genreCounts(query);
+
+        assertThat(counts.getQueryText()).startsWith("SELECT c.genre, COUNT(1) AS films FROM c WHERE EXISTS(");
+        assertThat(counts.getQueryText()).contains(" GROUP BY c.genre");
+        assertThat(parameters(counts).keySet()).doesNotContain("@genre0", "@genre1");
+    }
+
+    @Test
+    void noFiltersMeansNoWhereClause() {
+        FacetIndex.Query all = new FacetIndex.Query(null, List.of(), null, null, null, null, null,
+                FacetIndex.Sort.TITLE, false, 0, 10);
+
+        assertThat(BrowseQuery.count(all).getQueryText()).isEqualTo("SELECT VALUE COUNT(1) FROM c");
+        assertThat(BrowseQuery.page(all).getQueryText())
+                .isEqualTo(FilmRepo.CARD_PROJECTION + " ORDER BY c.title ASC OFFSET @offset LIMIT @limit");
+    }
+
+    private static Map<String, Object> parameters(SqlQuerySpec spec) {
+        return spec.getParameters().stream()
+                .collect(Collectors.toMap(SqlParameter::getName, p -> p.getValue(Object.class)));
+    }
+}
@@ -0,0 +1,118 @@
+package com.uvod.catalog.search;
+
+import com.uvod.catalog.model.Film;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Filtering, facet counts and sorting of the faceted browse index (latency:
+ * see CatalogSearchBenchmark in the benchmarks module).
+ */
+class FacetIndexTests {
+
+    private final FacetIndex index = FacetIndex.build(List.of(
+            film("1", "Quantum Horizon", "Sci-Fi", 2024, 130, List.of("Alex Rivera", "Mia Chen"), List.of("futuro", "spazio")),
+            film("2", "The Last Signal", "Sci-Fi", 2021, 95, List.of("Elena Rossi"), List.of("futuro")),
+            film("3", "Ombre a Milano", "Thriller", 2019, 110, List.of("Alex Rivera"), List.of("noir", "futuro")),
+            film("4", "Città Aperta", "Drama", 1998, 150, List.of("Elena Rossi"), List.of("guerra"))), 10);
+
+    @Test
+    void noFiltersMatchesEverythingSortedByYear() {
+        FacetIndex.Result result = index.browse(query(null, null, null, null, null, FacetIndex.Sort.YEAR, true));
+
+        assertThat(result.total()).isEqualTo(4);
+        assertThat(ids(result)).containsExactly("1", "2", "3", "4");
+    }
+
+    @Test
+    void combinesFilters() {
+        FacetIndex.Result result = index.browse(
+                query(List.of("sci-fi", "Thriller"), List.of("futuro"), List.of("alex rivera"), 2020, null,
+                        FacetIndex.Sort.TITLE, false));
+
+        assertThat(ids(result)).containsExactly("1");
+        assertThat(index.browse(query(null, List.of("futuro", "noir"), null, null, null,
+                FacetIndex.Sort.YEAR, true)).total()).isEqualTo(1);
+        assertThat(index.browse(query(null, List.of("unknown"), null, null, null,
+                FacetIndex.Sort.YEAR, true)).total()).isZero();
+    }
+
+    @Test
+    void genreCountsIgnoreTheGenreFilter() {
+        FacetIndex.Result result = index.browse(query(List.of("Sci-Fi"), null, null, null, null,
+                FacetIndex.Sort.YEAR, true));
+
+        assertThat(result.total()).isEqualTo(2);
+        assertThat(result.facets().get(FacetIndex.GENRE)).extracting(FacetIndex.FacetValue::value)
+                .containsExactly("Sci-Fi", "Drama", "Thriller");
+        assertThat(result.facets().get(FacetIndex.TAG))
+                .containsExactly(new FacetIndex.FacetValue("futuro", 2), new FacetIndex.FacetValue("spazio", 1));
+        assertThat(result.facets().get(FacetIndex.DECADE)).containsExactly(new FacetIndex.FacetValue("2020s", 2));
+        assertThat(result.facets().get(FacetIndex.DURATION)).containsExactly(
+                new FacetIndex.FacetValue("90-119", 1), new FacetIndex.FacetValue("120-149", 1));
+    }
+
+    @Test
+    void durationRangeChecksEdgeBuckets() {
+        FacetIndex.Query query = new FacetIndex.Query(null, null, null, null, null, 96, 130,
+                FacetIndex.Sort.DURATION, false, 0, 10);
+
+        assertThat(ids(index.browse(query))).containsExactly("3", "1");
+    }
+
+    @Test
+    void pagesThroughTheSortedMatches() {
+        FacetIndex.Query page = new FacetIndex.Query(null, null, null, null, null, null, null,
+                FacetIndex.Sort.TITLE, false, 1, 2);
+
+        assertThat(ids(index.browse(page))).containsExactly("3", "1");
+    }
+
+    @Test
+    void sparseAndDenseValuesFilterAlike() {
+        // Genres and the shared tag are frequent (bitmaps); each actor and year is rare (sorted ordinals)
+        String[] genres = { "Drama", "Thriller", "Sci-Fi" };
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            films.add(film("f" + i, "Film " + i, i == 299 ? "Western" : genres[i % genres.length],
+                    1950 + i % 75, 80 + i % 100, List.of("Actor " + i, "Actor " + (i + 1)), List.of("cinema")));
+        }
+        FacetIndex large = FacetIndex.build(films, 10);
+
+        assertThat(ids(large.browse(query(null, List.of("cinema"), List.of("actor 8"), null, null,
+                FacetIndex.Sort.TITLE, false)))).containsExactly("f7", "f8");
+        assertThat(ids(large.browse(query(List.of("Sci-Fi"), null, List.of("Actor 8", "Actor 9"), null, null,
+                FacetIndex.Sort.TITLE, false)))).containsExactly("f8");
+        assertThat(ids(large.browse(query(List.of("Western", "Thriller"), null, List.of("Actor 299"), null, null,
+                FacetIndex.Sort.TITLE, false)))).containsExactly("f298", "f299");
+        assertThat(large.browse(query(null, null, null, 2020, 2021, FacetIndex.Sort.YEAR, true)).total())
+                .isEqualTo(300 / 75 * 2);
+    }
+
+    private static FacetIndex.Query query(List<String> genres, List<String> tags, List<String> cast,
+            Integer yearFrom, Integer yearTo, FacetIndex.Sort sort, boolean descending) {
+        return new FacetIndex.Query(genres, tags, cast, yearFrom, yearTo, null, null, sort, descending, 0, 24);
+    }
+
+    private static List<String> ids(FacetIndex.Result result) {
+        return result.films().stream().map(Film::getId).toList();
+    }
+
+    private static Film film(String id, String title, String genre, int year, int duration,
+            List<String> cast, List<String> tags) {
+        return Film.builder()
+                .id(id)
+                .slug("film-" + id)
+                .title(title)
+                .genre(genre)
+                .releaseYear(year)
+                .durationInMinutes(duration)
+                .cast(cast)
+                .tags(tags)
+                .build();
+    }
+}
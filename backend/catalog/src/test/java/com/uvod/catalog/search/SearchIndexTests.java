@@ -0,0 +1,141 @@
+package com.uvod.catalog.search;
+
+import com.uvod.catalog.model.Film;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Relevance checks for the in-memory search index (latency: see
+ * CatalogSearchBenchmark in the benchmarks module).
+ */
+class SearchIndexTests {
+
+    private SearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SearchIndex();
+        index.rebuild(List.of(
+                film("1", "Quantum Horizon",
+                        "Un fisico scopre che i confini tra universi paralleli stanno collassando.",
+                        List.of("Alex Rivera", "Mia Chen"), List.of("futuro", "universi paralleli")),
+                film("2", "The Last Signal",
+                        "Un segnale misterioso viene captato dalla sonda Voyager 3.",
+                        List.of("Elena Rossi"), List.of("primo contatto", "sonda spaziale")),
+                film("3", "Cenere e Luce",
+                        "Dopo un incendio in Sardegna una comunità lotta per ricostruire la realtà di un tempo.",
+                        List.of("Maria Ferraris"), List.of("sardegna", "comunità")),
+                film("4", "Horizon Line",
+                        "Un pilota di linea affronta una tempesta.",
+                        List.of("Leo Marshall"), List.of("aviazione"))));
+    }
+
+    @Test
+    void titleMatchRanksAboveDescriptionMatch() {
+        index.upsert(List.of(film("5", "Il Viaggio",
+                "Un documentario sul quantum computing.", List.of(), List.of())));
+
+        List<SearchIndex.Hit> hits = index.search("quantum", 10);
+
+        assertThat(hits).extracting(h -> h.film().getId()).startsWith("1").contains("5");
+    }
+
+    @Test
+    void foldsAccentsAndStemsInflections() {
+        assertThat(ids(index.search("comunita", 10))).containsExactly("3");
+        assertThat(ids(index.search("realta", 10))).containsExactly("3");
+        // "universo" / "universe" share the stem of "universi"
+        assertThat(ids(index.search("universo", 10))).containsExactly("1");
+        assertThat(ids(index.search("universe", 10))).containsExactly("1");
+    }
+
+    @Test
+    void matchesCastAndTags() {
+        assertThat(ids(index.search("elena rossi", 10))).containsExactly("2");
+        assertThat(ids(index.search("sonda", 10))).containsExactly("2");
+    }
+
+    @Test
+    void lastWordMatchesAsPrefix() {
+        assertThat(ids(index.search("horiz", 10))).containsExactlyInAnyOrder("1", "4");
+    }
+
+    @Test
+    void upsertReplacesPreviousVersion() {
+        index.upsert(List.of(film("2", "The First Signal", "Nuova trama.", List.of(), List.of())));
+
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(ids(index.search("voyager", 10))).isEmpty();
+        assertThat(ids(index.search("first", 10))).containsExactly("2");
+    }
+
+    @Test
+    void removedFilmIsNoLongerSearchable() {
+        index.remove(List.of("4", "unknown"));
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(ids(index.search("horizon", 10))).containsExactly("1");
+        assertThat(ids(index.search("tempesta", 10))).isEmpty();
+    }
+
+    @Test
+    void removalsKeepTheOtherPostingsOfTheirTerms() {
+        index.upsert(List.of(film("5", "Horizon Zero", "Un robot si risveglia.", List.of(), List.of())));
+
+        // "horizon" postings: 1, 4, 5; removing the first moves the last into its place
+        index.remove(List.of("1"));
+        assertThat(ids(index.search("horizon", 10))).containsExactlyInAnyOrder("4", "5");
+
+        index.remove(List.of("5"));
+        index.upsert(List.of(film("1", "Quantum Horizon", "Nuova trama.", List.of(), List.of())));
+        assertThat(ids(index.search("horizon", 10))).containsExactlyInAnyOrder("1", "4");
+        assertThat(ids(index.search("robot", 10))).isEmpty();
+    }
+
+    @Test
+    void stopwordOnlyQueryMatchesTitle() {
+        index.upsert(List.of(film("6", "It", "Un clown terrorizza una cittadina del Maine.", List.of(), List.of())));
+
+        assertThat(ids(index.search("it", 10))).containsExactly("6");
+        // Mixed queries still ignore their stopwords
+        assertThat(ids(index.search("the signal", 10))).containsExactly("2");
+    }
+
+    @Test
+    void ranksQueriesMatchingManyFilms() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            films.add(film("n" + i, "Notte " + i, "notte ".repeat(1 + i % 7), List.of(), List.of()));
+        }
+        index.rebuild(films);
+
+        List<SearchIndex.Hit> hits = index.search("notte", 50);
+
+        assertThat(hits).hasSize(50);
+        for (int i = 1; i < hits.size(); i++) {
+            assertThat(hits.get(i).score()).isLessThanOrEqualTo(hits.get(i - 1).score());
+        }
+        // Best matches repeat the word most often in a short description
+        assertThat(hits.get(0).film().getDescription()).isEqualTo("notte ".repeat(7));
+    }
+
+    private static List<String> ids(List<SearchIndex.Hit> hits) {
+        return hits.stream().map(h -> h.film().getId()).toList();
+    }
+
+    private static Film film(String id, String title, String description, List<String> cast, List<String> tags) {
+        return Film.builder()
+                .id(id)
+                .title(title)
+                .description(description)
+                .genre("Drama")
+                .cast(cast)
+                .tags(tags)
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.uvod.catalog.search;
+
+import com.uvod.catalog.model.Film;
+import com.uvod.catalog.seed.SyntheticCatalogGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ranking, incremental updates and LSH recall of the similar-films index.
+ */
+class SimilarityIndexTests {
+
+    private static final List<Film> FILMS = List.of(
+            film("1", "Sci-Fi", List.of("Alex Rivera", "Mia Chen"), List.of("futuro", "spazio")),
+            film("2", "Sci-Fi", List.of("Mia Chen"), List.of("futuro", "spazio")),
+            film("3", "Thriller", List.of("Alex Rivera"), List.of("noir", "futuro")),
+            film("4", "Drama", List.of("Elena Rossi"), List.of("guerra")));
+
+    @Test
+    void ranksByJaccardOfGenreTagsAndCast() {
+        SimilarityIndex index = SimilarityIndex.build(FILMS, 10, 100, 100);
+
+        // 1 = {sci-fi, futuro, spazio, rivera, chen}: shares 4 with 2, 2 with 3
+        assertThat(index.similar("1", 10)).containsExactly("2", "3");
+        assertThat(index.similar("1", 1)).containsExactly("2");
+        assertThat(index.similar("4", 10)).isEmpty();
+        assertThat(index.similar("unknown", 10)).isEmpty();
+    }
+
+    @Test
+    void upsertUpdatesTheChangedFilmAndItsNeighbors() {
+        SimilarityIndex index = SimilarityIndex.build(FILMS, 10, 100, 100);
+
+        index.upsert(List.of(film("5", "Drama", List.of("Elena Rossi"), List.of("guerra", "famiglia"))));
+        assertThat(index.similar("5", 10)).containsExactly("4");
+        assertThat(index.similar("4", 10)).containsExactly("5");
+
+        // 2 no longer shares anything with 1
+        index.upsert(List.of(film("2", "Comedy", List.of("Leo Grant"), List.of("satira"))));
+        assertThat(index.similar("1", 10)).containsExactly("3");
+        assertThat(index.similar("2", 10)).isEmpty();
+    }
+
+    @Test
+    void upsertFindsItsNeighborsThroughTheLshBuckets() {
+        SimilarityIndex index = SimilarityIndex.build(FILMS, 10, 0, 100);
+
+        index.upsert(List.of(film("5", "Sci-Fi", List.of("Alex Rivera", "Mia Chen"), List.of("futuro", "spazio"))));
+        assertThat(index.similar("5", 1)).containsExactly("1");
+        assertThat(index.similar("1", 1)).containsExactly("5");
+
+        // 1 listed 5 and is recomputed once 5 moves away; 6 finds built and upserted films
+        index.upsert(List.of(film("5", "Drama", List.of("Elena Rossi"), List.of("guerra"))));
+        index.upsert(List.of(film("6", "Drama", List.of("Elena Rossi"), List.of("guerra"))));
+        assertThat(index.similar("1", 10)).doesNotContain("5");
+        assertThat(index.similar("6", 10)).contains("4", "5");
+    }
+
+    @Test
+    void keepsOnlyTheTopK() {
+        List<Film> films = new ArrayList<>(FILMS);
+        films.add(film("5", "Sci-Fi", List.of("Alex Rivera", "Mia Chen"), List.of("futuro", "spazio")));
+        SimilarityIndex index = SimilarityIndex.build(films, 2, 100, 100);
+
+        assertThat(index.similar("1", 10)).containsExactly("5", "2");
+        index.upsert(List.of(film("5", "Drama", List.of(), List.of())));
+        assertThat(index.similar("1", 10)).containsExactly("2", "3");
+    }
+
+    @Test
+    void lshFindsTheExactNeighbors() {
+        int catalogSize = 10_000;
+        SyntheticCatalogGenerator generator = new SyntheticCatalogGenerator(42);
+        List<Film> films = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            films.add(generator.film(i));
+        }
+        SimilarityIndex lsh = SimilarityIndex.build(films, 10, 0, 100);
+
+        int samples = 200;
+        int found = 0;
+        int expected = 0;
+        for (int i = 0; i < samples; i++) {
+            Film film = films.get(i * (catalogSize / samples));
+            List<String> approximate = lsh.similar(film.getId(), 10);
+            for (Film exact : SimilarityIndex.mostSimilar(films, film, 10)) {
+                expected++;
+                if (approximate.contains(exact.getId())) {
+                    found++;
+                }
+            }
+        }
+        double recall = (double) found / expected;
+
+        // Ties at the cut make a perfect recall impossible; most neighbors must be found
+        assertThat(recall).isGreaterThan(0.75);
+    }
+
+    private static Film film(String id, String genre, List<String> cast, List<String> tags) {
+        return Film.builder()
+                .id(id)
+                .slug("film-" + id)
+                .title("Film " + id)
+                .genre(genre)
+                .cast(cast)
+                .tags(tags)
+                .build();
+    }
+}
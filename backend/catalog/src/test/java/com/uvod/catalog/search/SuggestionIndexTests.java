@@ -0,0 +1,86 @@
+package com.uvod.catalog.search;
+
+import com.uvod.catalog.model.Film;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ranking checks for the typeahead prefix index (latency: see
+ * CatalogSearchBenchmark in the benchmarks module).
+ */
+class SuggestionIndexTests {
+
+    private final SuggestionIndex index = SuggestionIndex.build(List.of(
+            film("1", "quantum-horizon", "Quantum Horizon", 2024, List.of("Alex Rivera"), List.of("futuro")),
+            film("2", "the-last-signal", "The Last Signal", 2021, List.of("Elena Rossi"), List.of("futuro")),
+            film("3", "horizon-line", "Horizon Line", 2019, List.of("Alex Rivera"), List.of("aviazione")),
+            film("4", "citta-aperta", "Città Aperta", 2018, List.of(), List.of())), 10);
+
+    @Test
+    void matchesAnyWordStartAndFoldsAccents() {
+        assertThat(texts(index.suggest("hor", 10))).containsExactly("Quantum Horizon", "Horizon Line");
+        assertThat(texts(index.suggest("citta", 10))).containsExactly("Città Aperta");
+    }
+
+    @Test
+    void coversCastAndTagsWeightedByFrequency() {
+        List<SuggestionIndex.Suggestion> suggestions = index.suggest("a", 10);
+
+        assertThat(suggestions.get(0).text()).isEqualTo("Alex Rivera");
+        assertThat(suggestions.get(0).type()).isEqualTo(SuggestionIndex.Type.CAST);
+        assertThat(texts(index.suggest("fut", 10))).containsExactly("futuro");
+    }
+
+    @Test
+    void titleSuggestionsCarryTheSlug() {
+        assertThat(index.suggest("last", 10)).singleElement()
+                .extracting(SuggestionIndex.Suggestion::slug).isEqualTo("the-last-signal");
+    }
+
+    @Test
+    void respectsLimit() {
+        assertThat(index.suggest("h", 1)).hasSize(1);
+        assertThat(index.suggest("h", 100)).hasSizeLessThanOrEqualTo(10);
+        assertThat(index.suggest("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void longPrefixOverManyKeysReturnsTheBestWeights() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            // Releases shuffled across the key range, so the best are not adjacent
+            films.add(film("h" + i, "h-" + i, "Horizon " + i, 1950 + (i * 37) % 75, List.of(), List.of()));
+        }
+        SuggestionIndex large = SuggestionIndex.build(films, 20);
+
+        List<SuggestionIndex.Suggestion> top = large.suggest("horiz", 5);
+
+        // Title weight grows with the release year; ties go by text
+        assertThat(texts(top)).containsExactly(films.stream()
+                .sorted(Comparator.comparingInt(Film::getReleaseYear).reversed().thenComparing(Film::getTitle))
+                .limit(5)
+                .map(Film::getTitle)
+                .toArray());
+    }
+
+    private static List<String> texts(List<SuggestionIndex.Suggestion> suggestions) {
+        return suggestions.stream().map(SuggestionIndex.Suggestion::text).toList();
+    }
+
+    private static Film film(String id, String slug, String title, int year, List<String> cast, List<String> tags) {
+        return Film.builder()
+                .id(id)
+                .slug(slug)
+                .title(title)
+                .releaseYear(year)
+                .genre("Drama")
+                .cast(cast)
+                .tags(tags)
+                .build();
+    }
+}
@@ -0,0 +1,64 @@
+package com.uvod.catalog.service;
+
+import com.uvod.catalog.exception.InvalidContinuationTokenException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Mapping of malformed pagination cursors to InvalidContinuationTokenException.
+ */
+class ContinuationTokensTests {
+
+    private static final String CONTINUATION = "{\"token\":\"-RID:~abc==#RT:1#TRC:20\",\"range\":{\"min\":\"\",\"max\":\"FF\"}}";
+
+    @Test
+    void roundTripsCosmosContinuation() {
+        assertThat(ContinuationTokens.decode(ContinuationTokens.encode(CONTINUATION))).isEqualTo(CONTINUATION);
+        assertThat(ContinuationTokens.decode(null)).isNull();
+        assertThat(ContinuationTokens.decode(" ")).isNull();
+    }
+
+    @Test
+    void rejectsTokenThatIsNotBase64OfText() {
+        assertThatThrownBy(() -> ContinuationTokens.decode("not base64!"))
+                .isInstanceOf(InvalidContinuationTokenException.class);
+        // Valid Base64 of the bytes DE AD BE EF, which are not UTF-8
+        assertThatThrownBy(() -> ContinuationTokens.decode("3q2-7w"))
+                .isInstanceOf(InvalidContinuationTokenException.class);
+    }
+
+    @Test
+    void mapsContinuationRejectedByCosmosToInvalidToken() {
+        String garbage = ContinuationTokens.encode("definitely not a continuation");
+
+        assertThatThrownBy(() -> ContinuationTokens.query(garbage, continuation -> {
+            throw new IllegalStateException("query failed",
+                    new IllegalArgumentException("Invalid JSON in continuation token: " + continuation));
+        }))
+                .isInstanceOf(InvalidContinuationTokenException.class)
+                .hasMessageContaining(garbage);
+    }
+
+    @Test
+    void keepsUnrelatedFailuresAndFirstPageFailures() {
+        String token = ContinuationTokens.encode(CONTINUATION);
+
+        assertThatThrownBy(() -> ContinuationTokens.query(token, continuation -> {
+            throw new IllegalStateException("service unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> ContinuationTokens.query(null, continuation -> {
+            throw new IllegalArgumentException("bad query");
+        })).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void passesDecodedContinuationToQuery() {
+        String token = ContinuationTokens.encode(CONTINUATION);
+
+        String passed = ContinuationTokens.query(token, continuation -> continuation);
+
+        assertThat(passed).isEqualTo(CONTINUATION);
+    }
+}
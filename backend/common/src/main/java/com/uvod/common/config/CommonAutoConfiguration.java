@@ -2,14 +2,18 @@ package com.uvod.common.config;
 
 import com.uvod.common.exception.GlobalExceptionHandler;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 
 /**
  * Auto-configuration for the common module.
  * Automatically registers shared components when
  * a microservice imports this library as a dependency.
+ * Servlet services only: the gateway uses the library for its
+ * HTTP helpers, not for MVC error handling.
  */
 @AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CommonAutoConfiguration {
 
     /**
@@ -0,0 +1,42 @@
+package com.uvod.common.config;
+
+import com.uvod.common.cosmos.CosmosCallContext;
+import com.uvod.common.cosmos.CosmosInstrumentationPostProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+
+/**
+ * Cosmos instrumentation for the services that use Spring Data Cosmos
+ * (see CosmosInstrumentationPostProcessor). Metrics are exposed through
+ * the actuator metrics endpoint.
+ *
+ * To attribute request units to repository methods, the service must also
+ * register a CosmosResponseRecorder on its CosmosConfig and enable
+ * spring.reactor.context-propagation=auto.
+ */
+@AutoConfiguration
+@ConditionalOnClass(name = {
+        "com.azure.spring.data.cosmos.repository.support.CosmosRepositoryFactoryBean",
+        "io.micrometer.core.instrument.MeterRegistry",
+        "io.micrometer.context.ContextRegistry" })
+@ConditionalOnProperty(name = "cosmos.metrics.enabled", matchIfMissing = true)
+public class CosmosMetricsAutoConfiguration {
+
+    /**
+     * Static: post-processors are instantiated before the configuration class.
+     */
+    @Bean
+    public static CosmosInstrumentationPostProcessor cosmosInstrumentationPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${cosmos.metrics.slow-call-threshold-ms:500}") long slowCallThresholdMs) {
+        CosmosCallContext.registerForContextPropagation();
+        return new CosmosInstrumentationPostProcessor(meterRegistry, Duration.ofMillis(slowCallThresholdMs));
+    }
+}
@@ -0,0 +1,97 @@
+package com.uvod.common.cosmos;
+
+import com.azure.cosmos.CosmosDiagnostics;
+import io.micrometer.context.ContextRegistry;
+
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Per-call accumulator for one repository method invocation.
+ *
+ * Opened on the calling thread by CosmosRepositoryMetricsInterceptor. The
+ * Cosmos responses are processed on SDK threads, so the context is also
+ * registered with Micrometer context propagation: with
+ * spring.reactor.context-propagation=auto, Reactor carries it from the
+ * blocking caller to the threads running CosmosResponseRecorder.
+ */
+public final class CosmosCallContext {
+
+    /** Key under which the context is propagated through Reactor */
+    public static final String CONTEXT_KEY = "uvod.cosmos.call";
+
+    private static final ThreadLocal<CosmosCallContext> CURRENT = new ThreadLocal<>();
+
+    private final String repository;
+    private final String method;
+    private final CosmosCallContext parent;
+    private final DoubleAdder requestCharge = new DoubleAdder();
+    private volatile CosmosDiagnostics lastDiagnostics;
+
+    private CosmosCallContext(String repository, String method, CosmosCallContext parent) {
+        this.repository = repository;
+        this.method = method;
+        this.parent = parent;
+    }
+
+    /**
+     * Opens a context on the current thread; must be closed in a finally block.
+     */
+    static CosmosCallContext open(String repository, String method) {
+        CosmosCallContext context = new CosmosCallContext(repository, method, CURRENT.get());
+        CURRENT.set(context);
+        return context;
+    }
+
+    /**
+     * Context of the repository call in progress, or null outside of one
+     * (or if it was not propagated to this thread).
+     */
+    public static CosmosCallContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes the context visible to Reactor automatic context propagation.
+     */
+    public static void registerForContextPropagation() {
+        ContextRegistry.getInstance()
+                .registerThreadLocalAccessor(CONTEXT_KEY, CURRENT::get, CURRENT::set, CURRENT::remove);
+    }
+
+    void close() {
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+
+    /**
+     * Adds one Cosmos response (a call can need several: query pages, retries).
+     */
+    public void record(double charge, CosmosDiagnostics diagnostics) {
+        requestCharge.add(charge);
+        if (diagnostics != null) {
+            lastDiagnostics = diagnostics;
+        }
+        if (parent != null) {
+            parent.record(charge, null);
+        }
+    }
+
+    public String getRepository() {
+        return repository;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public double getRequestCharge() {
+        return requestCharge.sum();
+    }
+
+    public CosmosDiagnostics getLastDiagnostics() {
+        return lastDiagnostics;
+    }
+}
@@ -0,0 +1,75 @@
+package com.uvod.common.cosmos;
+
+import com.azure.cosmos.CosmosClientBuilder;
+import com.azure.cosmos.CosmosDiagnosticsThresholds;
+import com.azure.cosmos.models.CosmosClientTelemetryConfig;
+import com.azure.cosmos.models.CosmosMetricTagName;
+import com.azure.cosmos.models.CosmosMicrometerMetricsOptions;
+import com.azure.spring.data.cosmos.repository.CosmosRepository;
+import com.azure.spring.data.cosmos.repository.support.CosmosRepositoryFactoryBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.time.Duration;
+
+/**
+ * Instruments Cosmos beans as they are created:
+ * - every CosmosClientBuilder gets the SDK Micrometer metrics (cosmos.client.*:
+ *   RUs, latency, request-level status codes including retried 429s), tagged
+ *   by container, operation and physical partition (partition key range);
+ * - every synchronous Cosmos repository gets a CosmosRepositoryMetricsInterceptor.
+ *
+ * The registry is looked up lazily: post-processors are created before
+ * regular beans.
+ */
+public class CosmosInstrumentationPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Duration slowCallThreshold;
+
+    public CosmosInstrumentationPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+            Duration slowCallThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.slowCallThreshold = slowCallThreshold;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        // Customizers must be added before the factory bean creates the repository
+        if (bean instanceof CosmosRepositoryFactoryBean<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, repositoryInformation) -> {
+                        Class<?> repositoryInterface = repositoryInformation.getRepositoryInterface();
+                        MeterRegistry registry = meterRegistry.getIfAvailable();
+                        if (registry != null && CosmosRepository.class.isAssignableFrom(repositoryInterface)) {
+                            proxyFactory.addAdvice(new CosmosRepositoryMetricsInterceptor(
+                                    repositoryInterface, registry, slowCallThreshold));
+                        }
+                    }));
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof CosmosClientBuilder builder) {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry != null) {
+                builder.clientTelemetryConfig(new CosmosClientTelemetryConfig()
+                        .diagnosticsThresholds(new CosmosDiagnosticsThresholds()
+                                .setPointOperationLatencyThreshold(slowCallThreshold)
+                                .setNonPointOperationLatencyThreshold(slowCallThreshold))
+                        .metricsOptions(new CosmosMicrometerMetricsOptions()
+                                .meterRegistry(registry)
+                                .configureDefaultTagNames(
+                                        CosmosMetricTagName.CONTAINER,
+                                        CosmosMetricTagName.OPERATION,
+                                        CosmosMetricTagName.OPERATION_STATUS_CODE,
+                                        CosmosMetricTagName.REQUEST_STATUS_CODE,
+                                        CosmosMetricTagName.PARTITION_KEY_RANGE_ID)));
+            }
+        }
+        return bean;
+    }
+}
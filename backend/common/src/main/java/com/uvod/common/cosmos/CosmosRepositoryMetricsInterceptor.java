@@ -0,0 +1,131 @@
+package com.uvod.common.cosmos;
+
+import com.azure.cosmos.CosmosDiagnostics;
+import com.azure.cosmos.CosmosException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Around advice added to every Cosmos repository proxy.
+ *
+ * Records, per repository and method:
+ * - cosmos.repository.calls: latency histogram, tagged with the outcome
+ *   (success, throttled, error)
+ * - cosmos.repository.request.charge: RUs consumed by the call
+ * - cosmos.repository.throttles: calls that failed with 429 after the SDK retries
+ *
+ * Calls slower than the threshold are logged with their Cosmos diagnostics.
+ */
+public class CosmosRepositoryMetricsInterceptor implements MethodInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(CosmosRepositoryMetricsInterceptor.class);
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final String repository;
+    private final MeterRegistry meterRegistry;
+    private final Duration slowCallThreshold;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> charges = new ConcurrentHashMap<>();
+    private final Map<String, Counter> throttles = new ConcurrentHashMap<>();
+
+    public CosmosRepositoryMetricsInterceptor(Class<?> repositoryInterface, MeterRegistry meterRegistry,
+            Duration slowCallThreshold) {
+        this.repository = repositoryInterface.getSimpleName();
+        this.meterRegistry = meterRegistry;
+        this.slowCallThreshold = slowCallThreshold;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (invocation.getMethod().getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+        String method = invocation.getMethod().getName();
+        CosmosCallContext call = CosmosCallContext.open(repository, method);
+        String outcome = "success";
+        CosmosDiagnostics failureDiagnostics = null;
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            CosmosException cosmosException = findCosmosException(e);
+            if (cosmosException != null) {
+                failureDiagnostics = cosmosException.getDiagnostics();
+                call.record(cosmosException.getRequestCharge(), null);
+            }
+            outcome = cosmosException != null && cosmosException.getStatusCode() == TOO_MANY_REQUESTS
+                    ? "throttled"
+                    : "error";
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            call.close();
+            record(method, outcome, elapsed, call,
+                    failureDiagnostics != null ? failureDiagnostics : call.getLastDiagnostics());
+        }
+    }
+
+    private void record(String method, String outcome, long elapsedNanos, CosmosCallContext call,
+            CosmosDiagnostics diagnostics) {
+        timers.computeIfAbsent(method + ':' + outcome, key -> Timer.builder("cosmos.repository.calls")
+                .description("Latency of Cosmos repository calls")
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry))
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        charges.computeIfAbsent(method, key -> DistributionSummary.builder("cosmos.repository.request.charge")
+                .description("Request units consumed by Cosmos repository calls")
+                .baseUnit("RU")
+                .tag("repository", repository)
+                .tag("method", method)
+                .register(meterRegistry))
+                .record(call.getRequestCharge());
+
+        if ("throttled".equals(outcome)) {
+            throttles.computeIfAbsent(method, key -> Counter.builder("cosmos.repository.throttles")
+                    .description("Cosmos repository calls rejected with 429 after SDK retries")
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .register(meterRegistry))
+                    .increment();
+        }
+
+        if (elapsedNanos >= slowCallThreshold.toNanos()) {
+            logger.warn("Slow Cosmos call {}.{}: {} ms, {} RU, outcome {}, diagnostics: {}",
+                    repository, method, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    String.format("%.2f", call.getRequestCharge()), outcome,
+                    diagnostics != null ? diagnostics : "not available");
+        }
+    }
+
+    /**
+     * Spring Data wraps SDK errors (CosmosAccessException): look down the cause chain.
+     */
+    private static CosmosException findCosmosException(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof CosmosException cosmosException) {
+                return cosmosException;
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return null;
+    }
+}
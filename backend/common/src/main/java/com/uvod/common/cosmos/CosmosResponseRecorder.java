@@ -0,0 +1,27 @@
+package com.uvod.common.cosmos;
+
+import com.azure.spring.data.cosmos.core.ResponseDiagnostics;
+import com.azure.spring.data.cosmos.core.ResponseDiagnosticsProcessor;
+
+/**
+ * Spring Data Cosmos hook called with the diagnostics of every response:
+ * adds its request charge to the repository call in progress.
+ *
+ * Register it on the CosmosConfig of each service:
+ * {@code CosmosConfig.builder().responseDiagnosticsProcessor(new CosmosResponseRecorder())}.
+ */
+public class CosmosResponseRecorder implements ResponseDiagnosticsProcessor {
+
+    @Override
+    public void processResponseDiagnostics(ResponseDiagnostics responseDiagnostics) {
+        CosmosCallContext call = CosmosCallContext.current();
+        if (call == null || responseDiagnostics == null) {
+            // Not a repository call (or context not propagated): the SDK metrics still count it
+            return;
+        }
+        double charge = responseDiagnostics.getCosmosResponseStatistics() != null
+                ? responseDiagnostics.getCosmosResponseStatistics().getRequestCharge()
+                : 0;
+        call.record(charge, responseDiagnostics.getCosmosDiagnostics());
+    }
+}
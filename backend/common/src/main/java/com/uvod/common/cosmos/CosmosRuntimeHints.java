@@ -0,0 +1,38 @@
+package com.uvod.common.cosmos;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Native-image hints for the Cosmos SDK and Spring Data Cosmos, registered
+ * through META-INF/spring/aot.factories.
+ *
+ * The SDKs read their version (sent in the User-Agent) from a properties
+ * file on the classpath. Entities are read and written reflectively twice:
+ * Spring Data Cosmos looks up @Id, @PartitionKey and @Version on the
+ * declared fields, and the SDK serializer maps them with Jackson, so each
+ * service registers its entities with {@link #registerEntities}.
+ */
+public class CosmosRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.resources()
+                .registerPattern("azure-cosmos.properties")
+                .registerPattern("azure-spring-data-cosmos.properties");
+    }
+
+    /**
+     * Registers Cosmos entity classes and the types embedded in them:
+     * fields, constructors and methods (Lombok accessors, @JsonCreator).
+     */
+    public static void registerEntities(RuntimeHints hints, Class<?>... entities) {
+        for (Class<?> entity : entities) {
+            hints.reflection().registerType(entity,
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+    }
+}
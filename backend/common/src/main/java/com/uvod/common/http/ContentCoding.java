@@ -0,0 +1,124 @@
+package com.uvod.common.http;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Content codings the services can produce (RFC 9110 §8.4.1), with the
+ * Accept-Encoding negotiation shared by the gateway and the catalog.
+ */
+public enum ContentCoding {
+
+    BROTLI("br"),
+    ZSTD("zstd"),
+    GZIP("gzip");
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Value for the Content-Encoding header.
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Turns the validator of the identity representation into the
+     * validator of this coding: the compressed bytes differ, so they need
+     * their own ETag ("abc" → "abc-br", W/"abc" → W/"abc-br").
+     */
+    public String encodeEtag(String etag) {
+        if (etag.endsWith("\"")) {
+            return etag.substring(0, etag.length() - 1) + '-' + token + '"';
+        }
+        return etag + '-' + token;
+    }
+
+    /**
+     * Reverses {@link #encodeEtag} on every validator of an If-None-Match
+     * header, so the upstream service can compare against its own ETags.
+     *
+     * @param ifNoneMatch header value (can be null)
+     * @return the header with coding suffixes removed, or null
+     */
+    public static String decodeEtags(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        String decoded = ifNoneMatch;
+        for (ContentCoding coding : values()) {
+            decoded = decoded.replace("-" + coding.token + "\"", "\"");
+        }
+        return decoded;
+    }
+
+    /**
+     * Picks the coding for an Accept-Encoding header: highest q-value
+     * first, ties broken by the order of {@code preferred}. "*" matches
+     * any coding not listed explicitly; q=0 excludes a coding.
+     *
+     * @param acceptEncoding header value (can be null)
+     * @param preferred      codings the gateway may use, most preferred first
+     * @return the chosen coding, or null if the response must stay identity
+     */
+    public static ContentCoding negotiate(String acceptEncoding, List<ContentCoding> preferred) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        ContentCoding best = null;
+        double bestQuality = 0;
+        for (ContentCoding coding : preferred) {
+            double quality = quality(acceptEncoding, coding.token);
+            if (quality > bestQuality) {
+                best = coding;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    public static ContentCoding fromToken(String token) {
+        String normalized = token.trim().toLowerCase(Locale.ROOT);
+        for (ContentCoding coding : values()) {
+            if (coding.token.equals(normalized) || coding.name().equalsIgnoreCase(normalized)) {
+                return coding;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported content coding: " + token);
+    }
+
+    /**
+     * q-value given to a coding by the header: its own entry if present,
+     * otherwise the "*" entry, otherwise 0.
+     */
+    private static double quality(String acceptEncoding, String token) {
+        double wildcard = 0;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!name.equals(token) && !name.equals("*")) {
+                continue;
+            }
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals(token)) {
+                return quality;
+            }
+            wildcard = quality;
+        }
+        return wildcard;
+    }
+}
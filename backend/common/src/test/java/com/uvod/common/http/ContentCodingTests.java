@@ -0,0 +1,45 @@
+package com.uvod.common.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Accept-Encoding negotiation and per-coding validators.
+ */
+class ContentCodingTests {
+
+    private static final List<ContentCoding> ALL =
+            List.of(ContentCoding.BROTLI, ContentCoding.ZSTD, ContentCoding.GZIP);
+
+    @Test
+    void serverPreferenceBreaksTies() {
+        assertThat(ContentCoding.negotiate("gzip, deflate, br, zstd", ALL)).isEqualTo(ContentCoding.BROTLI);
+        assertThat(ContentCoding.negotiate("gzip, zstd", ALL)).isEqualTo(ContentCoding.ZSTD);
+        assertThat(ContentCoding.negotiate("gzip, deflate, br", List.of(ContentCoding.GZIP))).isEqualTo(ContentCoding.GZIP);
+    }
+
+    @Test
+    void qualityValuesWin() {
+        assertThat(ContentCoding.negotiate("br;q=0.5, gzip", ALL)).isEqualTo(ContentCoding.GZIP);
+        assertThat(ContentCoding.negotiate("br;q=0, *", ALL)).isEqualTo(ContentCoding.ZSTD);
+    }
+
+    @Test
+    void identityWhenNothingAcceptable() {
+        assertThat(ContentCoding.negotiate(null, ALL)).isNull();
+        assertThat(ContentCoding.negotiate("deflate", ALL)).isNull();
+        assertThat(ContentCoding.negotiate("identity, *;q=0", ALL)).isNull();
+        assertThat(ContentCoding.negotiate("gzip;q=0", List.of(ContentCoding.GZIP))).isNull();
+        assertThat(ContentCoding.negotiate("gzip;q=0.000, br", List.of(ContentCoding.GZIP))).isNull();
+    }
+
+    @Test
+    void validatorsRoundTrip() {
+        assertThat(ContentCoding.BROTLI.encodeEtag("\"abc\"")).isEqualTo("\"abc-br\"");
+        assertThat(ContentCoding.ZSTD.encodeEtag("W/\"abc\"")).isEqualTo("W/\"abc-zstd\"");
+        assertThat(ContentCoding.decodeEtags("\"abc-br\", W/\"def-gzip\"")).isEqualTo("\"abc\", W/\"def\"");
+    }
+}
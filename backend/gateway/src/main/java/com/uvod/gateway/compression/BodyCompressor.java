@@ -0,0 +1,108 @@
+package com.uvod.gateway.compression;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.util.Native;
+import com.uvod.common.http.ContentCoding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses response bodies with gzip, Brotli or Zstandard.
+ *
+ * Levels default to the slow, dense end: bodies are compressed once per
+ * upstream ETag and then served from the CompressedBodyCache, so a slower
+ * compression that saves bytes on every response is worth it (Brotli 11
+ * and Zstandard 19 are left out by default: seconds on a full catalog).
+ * Brotli and Zstandard use native libraries; a coding whose library
+ * cannot be loaded on this platform is reported as unavailable.
+ */
+@Component
+public class BodyCompressor {
+
+    private static final Logger logger = LoggerFactory.getLogger(BodyCompressor.class);
+
+    private final int gzipLevel;
+    private final int brotliQuality;
+    private final int zstdLevel;
+    private final Set<ContentCoding> available = EnumSet.of(ContentCoding.GZIP);
+
+    public BodyCompressor(@Value("${gateway.compression.gzip-level:9}") int gzipLevel,
+            @Value("${gateway.compression.brotli-quality:9}") int brotliQuality,
+            @Value("${gateway.compression.zstd-level:15}") int zstdLevel) {
+        this.gzipLevel = gzipLevel;
+        this.brotliQuality = brotliQuality;
+        this.zstdLevel = zstdLevel;
+
+        if (loadBrotli()) {
+            available.add(ContentCoding.BROTLI);
+        }
+        if (loadZstd()) {
+            available.add(ContentCoding.ZSTD);
+        }
+        logger.info("Response compression available: {}", available);
+    }
+
+    public boolean isAvailable(ContentCoding coding) {
+        return available.contains(coding);
+    }
+
+    public byte[] compress(byte[] data, ContentCoding coding) {
+        return switch (coding) {
+            case GZIP -> gzip(data);
+            case BROTLI -> brotli(data);
+            case ZSTD -> Zstd.compress(data, zstdLevel);
+        };
+    }
+
+    private byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gz = new GZIPOutputStream(out) {
+            {
+                def.setLevel(gzipLevel);
+            }
+        }) {
+            gz.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] brotli(byte[] data) {
+        try {
+            return Encoder.compress(data, new Encoder.Parameters().setQuality(brotliQuality));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean loadBrotli() {
+        try {
+            return Brotli4jLoader.isAvailable();
+        } catch (LinkageError e) {
+            logger.warn("Brotli not available: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean loadZstd() {
+        try {
+            Native.load();
+            return true;
+        } catch (LinkageError e) {
+            logger.warn("Zstandard not available: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.uvod.gateway.compression;
+
+import com.uvod.common.http.ContentCoding;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compressed response bodies, keyed by upstream ETag and coding.
+ *
+ * The upstream ETag is a hash of the identity bytes, so an entry stays
+ * valid as long as the upstream keeps returning that ETag and nothing has
+ * to be invalidated: a new catalog version means new ETags, and the old
+ * entries age out. The cache is LRU, bounded by the total compressed size.
+ */
+@Component
+public class CompressedBodyCache {
+
+    private record Key(String etag, ContentCoding coding) {
+    }
+
+    private final BodyCompressor compressor;
+    private final long maxBytes;
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    /** Access-ordered: iteration starts from the least recently used entry */
+    private final LinkedHashMap<Key, byte[]> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Map<ContentCoding, Timer> compressionTimes = new EnumMap<>(ContentCoding.class);
+    private final Map<ContentCoding, DistributionSummary> ratios = new EnumMap<>(ContentCoding.class);
+
+    public CompressedBodyCache(BodyCompressor compressor,
+            MeterRegistry meterRegistry,
+            @Value("${gateway.compression.cache.max-bytes:67108864}") long maxBytes) {
+        this.compressor = compressor;
+        this.maxBytes = maxBytes;
+        this.hits = Counter.builder("gateway.compression.cache.gets").tag("result", "hit")
+                .description("Responses served from an already-compressed body").register(meterRegistry);
+        this.misses = Counter.builder("gateway.compression.cache.gets").tag("result", "miss")
+                .description("Responses that had to be compressed").register(meterRegistry);
+        for (ContentCoding coding : ContentCoding.values()) {
+            compressionTimes.put(coding, Timer.builder("gateway.compression.cpu")
+                    .tag("coding", coding.getToken())
+                    .description("CPU time spent compressing response bodies")
+                    .register(meterRegistry));
+            ratios.put(coding, DistributionSummary.builder("gateway.compression.ratio")
+                    .tag("coding", coding.getToken())
+                    .description("Compressed size / identity size of the responses served")
+                    .scale(100)
+                    .baseUnit("percent")
+                    .register(meterRegistry));
+        }
+        Gauge.builder("gateway.compression.cache.size", this, CompressedBodyCache::totalBytes)
+                .baseUnit("bytes")
+                .description("Compressed bytes held in memory")
+                .register(meterRegistry);
+        Gauge.builder("gateway.compression.cache.entries", this, CompressedBodyCache::entryCount)
+                .description("Compressed bodies held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the compressed form of an upstream body, compressing it on
+     * a miss. Concurrent misses on the same key may both compress; the
+     * result is the same, only the first one is stored.
+     *
+     * @param etag   upstream validator of {@code body}
+     * @param coding coding negotiated with the client
+     * @param body   identity bytes
+     * @return the compressed bytes, or null if compression does not make the body smaller
+     */
+    public byte[] get(String etag, ContentCoding coding, byte[] body) {
+        Key key = new Key(etag, coding);
+        byte[] compressed = lookup(key);
+        if (compressed != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            compressed = compress(body, coding);
+            store(key, compressed);
+        }
+        if (compressed.length >= body.length) {
+            return null;
+        }
+        ratios.get(coding).record((double) compressed.length / body.length);
+        return compressed;
+    }
+
+    private byte[] compress(byte[] body, ContentCoding coding) {
+        boolean cpuTime = threads.isCurrentThreadCpuTimeSupported();
+        long start = cpuTime ? threads.getCurrentThreadCpuTime() : System.nanoTime();
+        byte[] compressed = compressor.compress(body, coding);
+        long elapsed = (cpuTime ? threads.getCurrentThreadCpuTime() : System.nanoTime()) - start;
+        compressionTimes.get(coding).record(Duration.ofNanos(elapsed));
+        return compressed;
+    }
+
+    private synchronized byte[] lookup(Key key) {
+        return entries.get(key);
+    }
+
+    private synchronized void store(Key key, byte[] compressed) {
+        if (compressed.length > maxBytes || entries.containsKey(key)) {
+            return;
+        }
+        entries.put(key, compressed);
+        totalBytes += compressed.length;
+        Iterator<byte[]> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().length;
+            eldest.remove();
+        }
+    }
+
+    private synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    private synchronized int entryCount() {
+        return entries.size();
+    }
+}
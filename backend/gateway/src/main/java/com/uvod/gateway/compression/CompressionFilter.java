@@ -0,0 +1,176 @@
+package com.uvod.gateway.compression;
+
+import com.uvod.common.http.ContentCoding;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Compresses cacheable GET responses at the gateway.
+ *
+ * On the configured paths the upstream is asked for the identity body
+ * (Accept-Encoding is not forwarded); if it comes back with an ETag, the
+ * gateway picks br, zstd or gzip from the client's Accept-Encoding and
+ * serves the compressed bytes from the CompressedBodyCache, so each body
+ * is compressed once per upstream version rather than once per request.
+ * Responses without an ETag, already encoded or streamed (NDJSON) pass
+ * through untouched.
+ */
+@Component
+public class CompressionFilter implements GlobalFilter, Ordered {
+
+    private final CompressedBodyCache cache;
+    private final List<ContentCoding> codings;
+    private final List<PathPattern> paths;
+    private final List<MediaType> mediaTypes;
+    private final int minResponseSize;
+
+    public CompressionFilter(CompressedBodyCache cache,
+            BodyCompressor compressor,
+            @Value("${gateway.compression.codings:br,zstd,gzip}") List<String> codings,
+            @Value("${gateway.compression.paths:/api/catalog/**}") List<String> paths,
+            @Value("${gateway.compression.mime-types:application/json,application/x-jackson-smile,application/cbor}")
+            List<MediaType> mediaTypes,
+            @Value("${gateway.compression.min-response-size:1024}") int minResponseSize) {
+        this.cache = cache;
+        this.codings = codings.stream()
+                .map(ContentCoding::fromToken)
+                .filter(compressor::isAvailable)
+                .toList();
+        this.paths = paths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.mediaTypes = mediaTypes;
+        this.minResponseSize = minResponseSize;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET || !matchesPath(request)) {
+            return chain.filter(exchange);
+        }
+        ContentCoding coding = ContentCoding.negotiate(
+                request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING), codings);
+        if (coding == null) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpRequest upstreamRequest = request.mutate()
+                .headers(headers -> {
+                    headers.remove(HttpHeaders.ACCEPT_ENCODING);
+                    String ifNoneMatch = ContentCoding.decodeEtags(headers.getFirst(HttpHeaders.IF_NONE_MATCH));
+                    if (ifNoneMatch != null) {
+                        headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+                    }
+                })
+                .build();
+        ServerHttpResponse response = new CompressingResponse(exchange.getResponse(), coding);
+        return chain.filter(exchange.mutate().request(upstreamRequest).response(response).build());
+    }
+
+    /**
+     * Runs before NettyWriteResponseFilter, so the upstream body is written
+     * through the decorated response.
+     */
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    private boolean matchesPath(ServerHttpRequest request) {
+        for (PathPattern pattern : paths) {
+            if (pattern.matches(request.getPath().pathWithinApplication())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isCompressible(HttpHeaders headers) {
+        MediaType contentType = headers.getContentType();
+        if (contentType == null || headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            return false;
+        }
+        long length = headers.getContentLength();
+        if (length >= 0 && length < minResponseSize) {
+            return false;
+        }
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.isCompatibleWith(contentType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class CompressingResponse extends ServerHttpResponseDecorator {
+
+        private final ContentCoding coding;
+
+        CompressingResponse(ServerHttpResponse delegate, ContentCoding coding) {
+            super(delegate);
+            this.coding = coding;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            String etag = headers.getETag();
+            HttpStatusCode status = getStatusCode();
+            if (etag == null || status == null) {
+                return super.writeWith(body);
+            }
+            if (status.isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                // The client's copy is the compressed one: answer with its validator
+                headers.setETag(coding.encodeEtag(etag));
+                return super.writeWith(body);
+            }
+            if (!status.isSameCodeAs(HttpStatus.OK) || !isCompressible(headers)) {
+                return super.writeWith(body);
+            }
+
+            return DataBufferUtils.join(body)
+                    .publishOn(Schedulers.boundedElastic())
+                    .flatMap(joined -> {
+                        byte[] identity = new byte[joined.readableByteCount()];
+                        joined.read(identity);
+                        DataBufferUtils.release(joined);
+
+                        byte[] compressed = identity.length < minResponseSize
+                                ? null
+                                : cache.get(etag, coding, identity);
+                        if (compressed == null) {
+                            return super.writeWith(Mono.just(bufferFactory().wrap(identity)));
+                        }
+                        headers.set(HttpHeaders.CONTENT_ENCODING, coding.getToken());
+                        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+                        headers.setContentLength(compressed.length);
+                        headers.setETag(coding.encodeEtag(etag));
+                        if (!headers.getVary().contains(HttpHeaders.ACCEPT_ENCODING)) {
+                            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                        }
+                        return super.writeWith(Mono.just(bufferFactory().wrap(compressed)));
+                    });
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.uvod.gateway.compression;
+
+import com.uvod.common.http.ContentCoding;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hits, size-bounded LRU eviction and incompressible bodies of the
+ * compressed body cache.
+ */
+class CompressedBodyCacheTests {
+
+    private static final byte[] BODY = "{\"title\":\"Quantum Horizon\",\"genre\":\"Sci-Fi\"}".repeat(100)
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final BodyCompressor compressor = new BodyCompressor(9, 9, 15);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void secondGetIsServedFromTheCache() {
+        CompressedBodyCache cache = new CompressedBodyCache(compressor, meterRegistry, 1 << 20);
+
+        byte[] first = cache.get("\"v1\"", ContentCoding.GZIP, BODY);
+        byte[] second = cache.get("\"v1\"", ContentCoding.GZIP, BODY);
+
+        assertThat(first.length).isLessThan(BODY.length);
+        assertThat(second).isSameAs(first);
+        assertThat(gets("hit")).isEqualTo(1.0);
+        assertThat(gets("miss")).isEqualTo(1.0);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedBodiesBeyondTheSizeBound() {
+        // Room for two compressed bodies, not three
+        int size = compressor.compress(BODY, ContentCoding.GZIP).length;
+        CompressedBodyCache cache = new CompressedBodyCache(compressor, meterRegistry, 2L * size);
+
+        cache.get("\"a\"", ContentCoding.GZIP, BODY);
+        cache.get("\"b\"", ContentCoding.GZIP, BODY);
+        cache.get("\"a\"", ContentCoding.GZIP, BODY);
+        cache.get("\"c\"", ContentCoding.GZIP, BODY);
+        assertThat(meterRegistry.get("gateway.compression.cache.size").gauge().value()).isEqualTo(2.0 * size);
+
+        // b was the least recently used
+        cache.get("\"a\"", ContentCoding.GZIP, BODY);
+        assertThat(gets("hit")).isEqualTo(2.0);
+        cache.get("\"b\"", ContentCoding.GZIP, BODY);
+        assertThat(gets("miss")).isEqualTo(4.0);
+    }
+
+    @Test
+    void bodyLargerThanTheBoundIsNotCached() {
+        CompressedBodyCache cache = new CompressedBodyCache(compressor, meterRegistry, 16);
+
+        assertThat(cache.get("\"v1\"", ContentCoding.GZIP, BODY)).isNotNull();
+        cache.get("\"v1\"", ContentCoding.GZIP, BODY);
+
+        assertThat(gets("miss")).isEqualTo(2.0);
+        assertThat(meterRegistry.get("gateway.compression.cache.entries").gauge().value()).isZero();
+    }
+
+    @Test
+    void bodyThatDoesNotGetSmallerIsServedIdentity() {
+        CompressedBodyCache cache = new CompressedBodyCache(compressor, meterRegistry, 1 << 20);
+        byte[] random = new byte[4096];
+        new Random(42).nextBytes(random);
+
+        assertThat(cache.get("\"r1\"", ContentCoding.GZIP, random)).isNull();
+        // The outcome is cached too: the body is not compressed again
+        assertThat(cache.get("\"r1\"", ContentCoding.GZIP, random)).isNull();
+        assertThat(gets("hit")).isEqualTo(1.0);
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("gateway.compression.cache.gets").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,151 @@
+package com.uvod.gateway.compression;
+
+import com.uvod.common.http.ContentCoding;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * What the gateway compresses, and the validators it exchanges with the
+ * client and the upstream, against a fake upstream.
+ */
+class CompressionFilterTests {
+
+    private static final byte[] BODY = "{\"title\":\"Quantum Horizon\",\"genre\":\"Sci-Fi\"}".repeat(100)
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final BodyCompressor compressor = new BodyCompressor(9, 9, 15);
+    private final CompressionFilter filter = new CompressionFilter(
+            new CompressedBodyCache(compressor, new SimpleMeterRegistry(), 1 << 20),
+            compressor,
+            List.of("gzip"),
+            List.of("/api/catalog/**"),
+            List.of(MediaType.APPLICATION_JSON),
+            1024);
+
+    /** Request headers as received by the upstream */
+    private HttpHeaders upstreamHeaders;
+
+    @Test
+    void compressesAndEncodesTheEtag() throws IOException {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/catalog/films")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"));
+
+        filter.filter(exchange, upstream(HttpStatus.OK, headers -> headers.setETag("\"v1\""), BODY)).block();
+
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        assertThat(upstreamHeaders.containsKey(HttpHeaders.ACCEPT_ENCODING)).isFalse();
+        assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(headers.getETag()).isEqualTo("\"v1-gzip\"");
+        assertThat(headers.getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(gunzip(body(exchange))).isEqualTo(BODY);
+    }
+
+    @Test
+    void notModifiedIsCheckedAgainstTheUpstreamEtag() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/catalog/films")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"v1-gzip\""));
+
+        filter.filter(exchange, upstream(HttpStatus.NOT_MODIFIED, headers -> headers.setETag("\"v1\""), null))
+                .block();
+
+        assertThat(upstreamHeaders.getFirst(HttpHeaders.IF_NONE_MATCH)).isEqualTo("\"v1\"");
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(exchange.getResponse().getHeaders().getETag()).isEqualTo("\"v1-gzip\"");
+    }
+
+    @Test
+    void responseWithoutEtagPassesThrough() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/catalog/films")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+
+        filter.filter(exchange, upstream(HttpStatus.OK, headers -> { }, BODY)).block();
+
+        assertThat(exchange.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(body(exchange)).isEqualTo(BODY);
+    }
+
+    @Test
+    void alreadyEncodedResponsePassesThrough() {
+        byte[] encoded = compressor.compress(BODY, ContentCoding.GZIP);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/catalog/films")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+
+        filter.filter(exchange, upstream(HttpStatus.OK, headers -> {
+            headers.setETag("\"v1\"");
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }, encoded)).block();
+
+        assertThat(exchange.getResponse().getHeaders().getETag()).isEqualTo("\"v1\"");
+        assertThat(body(exchange)).isEqualTo(encoded);
+    }
+
+    @Test
+    void otherPathsAreNotTouched() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/me")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+
+        filter.filter(exchange, upstream(HttpStatus.OK, headers -> headers.setETag("\"v1\""), BODY)).block();
+
+        assertThat(upstreamHeaders.getFirst(HttpHeaders.ACCEPT_ENCODING)).isEqualTo("gzip");
+        assertThat(exchange.getResponse().getHeaders().getETag()).isEqualTo("\"v1\"");
+        assertThat(body(exchange)).isEqualTo(BODY);
+    }
+
+    /**
+     * An upstream answering with JSON, as NettyWriteResponseFilter writes
+     * it: through the (possibly decorated) response of the exchange.
+     */
+    private GatewayFilterChain upstream(HttpStatus status, Consumer<HttpHeaders> headers, byte[] body) {
+        return exchange -> {
+            upstreamHeaders = exchange.getRequest().getHeaders();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(status);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            headers.accept(response.getHeaders());
+            if (body == null) {
+                return response.writeWith(Flux.empty());
+            }
+            response.getHeaders().setContentLength(body.length);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        };
+    }
+
+    private static byte[] body(MockServerWebExchange exchange) {
+        return DataBufferUtils.join(exchange.getResponse().getBody())
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0])
+                .block();
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
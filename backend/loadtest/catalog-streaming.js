@@ -0,0 +1,79 @@
+// k6 load test: full catalog listing, buffered JSON (MVC list) vs NDJSON stream.
+//
+// Run against the local stack (docker compose up), through the gateway:
+//   k6 run backend/loadtest/catalog-streaming.js
+// or directly against a catalog instance:
+//   k6 run -e BASE_URL=http://localhost:8080 backend/loadtest/catalog-streaming.js
+//
+// Both scenarios run the same number of virtual users, one after the other.
+// Compare http_req_duration / http_req_waiting (time to first byte) per
+// scenario, and watch the service while it runs:
+//   /actuator/metrics/jvm.memory.used?tag=area:heap
+//   /actuator/metrics/jvm.threads.live
+//   /actuator/metrics/http.server.requests
+// Seed a large catalog first (catalog.seed.mode=synthetic) and repeat with
+// catalog.cache.enabled=false to stream straight from Cosmos.
+import http from 'k6/http'
+import { check } from 'k6'
+import encoding from 'k6/encoding'
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080/api'
+const VUS = Number(__ENV.VUS || 50)
+const DURATION = __ENV.DURATION || '60s'
+const VIEW = __ENV.VIEW || 'full'
+
+// The gateway rejects requests without a Static Web Apps principal
+const PRINCIPAL = encoding.b64encode(
+  JSON.stringify({
+    identityProvider: 'github',
+    userId: 'k6-load-test',
+    userDetails: 'k6',
+    userRoles: ['anonymous', 'authenticated'],
+  }),
+)
+
+export const options = {
+  scenarios: {
+    json: {
+      executor: 'constant-vus',
+      vus: VUS,
+      duration: DURATION,
+      exec: 'json',
+      tags: { mode: 'json' },
+    },
+    ndjson: {
+      executor: 'constant-vus',
+      vus: VUS,
+      duration: DURATION,
+      startTime: DURATION,
+      exec: 'ndjson',
+      tags: { mode: 'ndjson' },
+    },
+  },
+  thresholds: {
+    'http_req_failed{mode:json}': ['rate<0.01'],
+    'http_req_failed{mode:ndjson}': ['rate<0.01'],
+    // Declared so k6 prints per-scenario figures in the summary
+    'http_req_duration{mode:json}': ['p(95)>=0'],
+    'http_req_duration{mode:ndjson}': ['p(95)>=0'],
+    'http_req_waiting{mode:json}': ['p(95)>=0'],
+    'http_req_waiting{mode:ndjson}': ['p(95)>=0'],
+  },
+}
+
+export function json() {
+  const res = http.get(`${BASE_URL}/catalog?view=${VIEW}`, {
+    headers: { Accept: 'application/json', 'x-ms-client-principal': PRINCIPAL },
+  })
+  check(res, { 'json 200': (r) => r.status === 200 })
+}
+
+export function ndjson() {
+  const res = http.get(`${BASE_URL}/catalog?view=${VIEW}`, {
+    headers: { Accept: 'application/x-ndjson', 'x-ms-client-principal': PRINCIPAL },
+  })
+  check(res, {
+    'ndjson 200': (r) => r.status === 200,
+    'ndjson content type': (r) => (r.headers['Content-Type'] || '').startsWith('application/x-ndjson'),
+  })
+}
@@ -0,0 +1,75 @@
+#!/usr/bin/env bash
+# Startup time and peak RSS of the artifacts built for one service.
+#
+# usage: startup-report.sh <target dir> <exec jar name> <module>
+#
+# Compares, for whatever the active profiles produced:
+#   jar       java -jar <module>-exec.jar
+#   aot+cds   java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true (target/cds, -Paot)
+#   native    target/<module> (-Pnative)
+#
+# Each run stops right after the application context is refreshed
+# (spring.context.exit=onRefresh), so no port is opened. Without
+# AZURE_COSMOS_URI in the environment beans are lazy, as in the CDS
+# training run: the numbers then cover framework startup, not the Cosmos
+# handshake. Linux only (peak RSS is VmHWM from /proc).
+set -euo pipefail
+
+TARGET=$1
+JAR=$2
+MODULE=$3
+RUNS=${STARTUP_REPORT_RUNS:-5}
+REPORT="$TARGET/startup-report.txt"
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+FLAGS=(-Dspring.context.exit=onRefresh)
+if [[ -z "${AZURE_COSMOS_URI:-}" ]]; then
+  FLAGS+=(-Dspring.main.lazy-initialization=true -DAZURE_COSMOS_URI=https://localhost:8081/ -DAZURE_COSMOS_DB=aot)
+  SCOPE="lazy beans, no Cosmos account"
+else
+  SCOPE="all beans, Cosmos at $AZURE_COSMOS_URI"
+fi
+
+# Runs a command until it exits; prints "<elapsed ms> <peak RSS KiB>"
+measure() {
+  local dir=$1; shift
+  local start end hwm=0 value
+  start=$(date +%s%N)
+  (cd "$dir" && exec "$@" >/dev/null 2>&1) &
+  local pid=$!
+  while kill -0 "$pid" 2>/dev/null; do
+    value=$(awk '/^VmHWM:/ { print $2 }' "/proc/$pid/status" 2>/dev/null || true)
+    [[ -n "$value" ]] && hwm=$value
+    sleep 0.02
+  done
+  wait "$pid" || true
+  end=$(date +%s%N)
+  echo "$(( (end - start) / 1000000 )) $hwm"
+}
+
+# Median startup and peak RSS over $RUNS runs; prints one report row
+report() {
+  local mode=$1 dir=$2; shift 2
+  local times=() rss=0 t r
+  measure "$dir" "$@" >/dev/null   # warm the page cache
+  for ((i = 0; i < RUNS; i++)); do
+    read -r t r < <(measure "$dir" "$@")
+    times+=("$t")
+    (( r > rss )) && rss=$r
+  done
+  local median
+  median=$(printf '%s\n' "${times[@]}" | sort -n | awk '{ a[NR] = $1 } END { print a[int((NR + 1) / 2)] }')
+  printf '%-10s %10s ms %10s MiB\n' "$mode" "$median" "$(( rss / 1024 ))"
+}
+
+{
+  echo "Startup of $MODULE ($SCOPE), median of $RUNS runs"
+  printf '%-10s %13s %14s\n' "artifact" "startup" "peak RSS"
+  report jar "$TARGET" "$JAVA" "${FLAGS[@]}" -jar "$JAR"
+  if [[ -f "$TARGET/cds/app.jsa" ]]; then
+    report aot+cds "$TARGET/cds" "$JAVA" -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true "${FLAGS[@]}" -jar "$JAR"
+  fi
+  if [[ -x "$TARGET/$MODULE" ]]; then
+    report native "$TARGET" "./$MODULE" "${FLAGS[@]}"
+  fi
+} | tee "$REPORT"
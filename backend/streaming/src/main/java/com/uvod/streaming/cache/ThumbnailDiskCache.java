@@ -0,0 +1,198 @@
+package com.uvod.streaming.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Rendered thumbnails on local disk, one file per content hash.
+ *
+ * The cache is LRU, bounded by the total size of the files. The order is
+ * kept in memory and mirrored in the files' modification times, so it
+ * survives a restart: the directory is scanned at startup. Entries are
+ * immutable, so nothing is ever invalidated; files are written to a temp
+ * name and moved into place, so readers never see a partial file.
+ */
+@Component
+public class ThumbnailDiskCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailDiskCache.class);
+
+    private static final String SUFFIX = ".jpg";
+
+    private final Path directory;
+    private final long maxBytes;
+
+    /** Access-ordered: iteration starts from the least recently used entry */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public ThumbnailDiskCache(MeterRegistry meterRegistry,
+            @Value("${streaming.thumbnails.cache.dir:${java.io.tmpdir}/uvod-thumbnails}") Path directory,
+            @Value("${streaming.thumbnails.cache.max-bytes:536870912}") long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        load();
+        this.hits = Counter.builder("streaming.thumbnails.cache.gets").tag("result", "hit")
+                .description("Thumbnails served from the disk cache").register(meterRegistry);
+        this.misses = Counter.builder("streaming.thumbnails.cache.gets").tag("result", "miss")
+                .description("Thumbnails that had to be rendered").register(meterRegistry);
+        Gauge.builder("streaming.thumbnails.cache.size", this, ThumbnailDiskCache::totalBytes)
+                .baseUnit("bytes")
+                .description("Bytes of rendered thumbnails on disk")
+                .register(meterRegistry);
+        Gauge.builder("streaming.thumbnails.cache.entries", this, ThumbnailDiskCache::entryCount)
+                .description("Rendered thumbnails on disk")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param key content hash of the thumbnail
+     * @return its bytes, or empty on a miss
+     */
+    public Optional<byte[]> get(String key) {
+        if (!touch(key)) {
+            misses.increment();
+            return Optional.empty();
+        }
+        Path file = file(key);
+        try {
+            byte[] body = Files.readAllBytes(file);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.increment();
+            return Optional.of(body);
+        } catch (NoSuchFileException e) {
+            // Evicted between the lookup and the read, or deleted by hand
+            forget(key);
+            misses.increment();
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stores a thumbnail. Concurrent puts of the same key write the same
+     * bytes, the last move wins.
+     */
+    public void put(String key, byte[] body) {
+        if (body.length > maxBytes) {
+            return;
+        }
+        try {
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            Files.write(temp, body);
+            Files.move(temp, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<String> evicted = register(key, body.length);
+        for (String old : evicted) {
+            try {
+                Files.deleteIfExists(file(old));
+            } catch (IOException e) {
+                logger.warn("Could not delete evicted thumbnail {}: {}", old, e.getMessage());
+            }
+        }
+    }
+
+    private synchronized boolean touch(String key) {
+        return entries.get(key) != null;
+    }
+
+    private synchronized void forget(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+    }
+
+    /**
+     * Adds an entry and returns the keys evicted to make room for it,
+     * whose files the caller deletes outside the lock.
+     */
+    private synchronized List<String> register(String key, long size) {
+        Long previous = entries.put(key, size);
+        totalBytes += size - (previous == null ? 0 : previous);
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            if (entry.getKey().equals(key)) {
+                continue;
+            }
+            totalBytes -= entry.getValue();
+            evicted.add(entry.getKey());
+            eldest.remove();
+        }
+        return evicted;
+    }
+
+    /** Rebuilds the LRU order from the files left by a previous run, oldest first */
+    private void load() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing.filter(Files::isRegularFile).toList();
+            }
+            record Found(Path path, long size, long modified) {
+            }
+            List<Found> found = new ArrayList<>();
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(SUFFIX)) {
+                    // Temp file of an interrupted write
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                found.add(new Found(file, Files.size(file), Files.getLastModifiedTime(file).toMillis()));
+            }
+            found.sort(Comparator.comparingLong(Found::modified));
+            for (Found file : found) {
+                String name = file.path().getFileName().toString();
+                for (String old : register(name.substring(0, name.length() - SUFFIX.length()), file.size())) {
+                    Files.deleteIfExists(file(old));
+                }
+            }
+            logger.info("Thumbnail cache: {} files, {} bytes in {}", entryCount(), totalBytes(), directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot use thumbnail cache directory " + directory, e);
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    private synchronized int entryCount() {
+        return entries.size();
+    }
+}
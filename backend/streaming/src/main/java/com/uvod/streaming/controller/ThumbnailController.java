@@ -0,0 +1,109 @@
+package com.uvod.streaming.controller;
+
+import com.uvod.streaming.dto.ThumbnailRequest;
+import com.uvod.streaming.service.ThumbnailService;
+import com.uvod.streaming.thumbnail.ThumbnailSize;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Controller for film thumbnails.
+ *
+ * Films link to a stable URL, /streaming/thumbnails/{name}?size=...,
+ * which redirects to the current version at
+ * /streaming/thumbnails/{name}/{size}-{hash}.jpg. The versioned URL never
+ * changes content, so it is served as immutable for a year; only the short
+ * redirect is revalidated. Redirects are relative, so they work unchanged
+ * behind the gateway's /api prefix.
+ */
+@RestController
+@RequestMapping("/streaming/thumbnails")
+public class ThumbnailController {
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePublic()
+            .immutable();
+
+    private final ThumbnailService thumbnailService;
+    private final CacheControl redirectCacheControl;
+
+    public ThumbnailController(ThumbnailService thumbnailService,
+            @Value("${streaming.thumbnails.source-ttl:5m}") Duration sourceTtl) {
+        this.thumbnailService = thumbnailService;
+        this.redirectCacheControl = CacheControl.maxAge(sourceTtl).cachePublic();
+    }
+
+    /**
+     * GET /streaming/thumbnails/{name}?size=card|hero[&title=...&color=...]
+     * Redirects to the content-hash URL of the current version.
+     */
+    @GetMapping("/{name}")
+    public ResponseEntity<Void> resolve(@PathVariable String name, ThumbnailRequest request) {
+        String hash = thumbnailService.resolve(name, request);
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .cacheControl(redirectCacheControl)
+                .location(URI.create(name + "/" + versionedFile(request, hash)))
+                .build();
+    }
+
+    /**
+     * GET /streaming/thumbnails/{name}/{size}-{hash}.jpg[?title=...&color=...]
+     * Serves one version of a thumbnail (JPEG), immutable.
+     */
+    @GetMapping("/{name}/{size:[a-z]+}-{hash:[0-9a-f]+}.jpg")
+    public ResponseEntity<byte[]> getThumbnail(
+            @PathVariable String name,
+            @PathVariable String size,
+            @PathVariable String hash,
+            ThumbnailRequest request,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        request.setSize(size);
+        String etag = "\"" + hash + "\"";
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(IMMUTABLE).eTag(etag).build();
+        }
+        return thumbnailService.get(name, request, hash)
+                .map(body -> ResponseEntity.ok()
+                        .cacheControl(IMMUTABLE)
+                        .eTag(etag)
+                        .contentType(MediaType.IMAGE_JPEG)
+                        .body(body))
+                .orElseGet(() -> stale(name, request, hash));
+    }
+
+    /**
+     * An old version that is no longer cached: send the client to the
+     * current one (same directory, hence the bare file name).
+     */
+    private ResponseEntity<byte[]> stale(String name, ThumbnailRequest request, String hash) {
+        String current = thumbnailService.resolve(name, request);
+        if (current.equals(hash)) {
+            // Source vanished while rendering: let the next request resolve again
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).cacheControl(CacheControl.noStore()).build();
+        }
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .cacheControl(CacheControl.noCache())
+                .location(URI.create(versionedFile(request, current)))
+                .build();
+    }
+
+    private static String versionedFile(ThumbnailRequest request, String hash) {
+        return UriComponentsBuilder
+                .fromPath(ThumbnailSize.fromToken(request.getSize()).getToken() + "-" + hash + ".jpg")
+                .queryParamIfPresent("title", Optional.ofNullable(request.getTitle()))
+                .queryParamIfPresent("color", Optional.ofNullable(request.getColor()))
+                .encode()
+                .build()
+                .toUriString();
+    }
+}
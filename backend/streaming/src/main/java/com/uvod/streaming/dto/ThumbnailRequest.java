@@ -0,0 +1,28 @@
+package com.uvod.streaming.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Query parameters of /streaming/thumbnails/{name}.
+ * Title and color are only used when there is no source image in
+ * blob storage and a placeholder is rendered instead.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ThumbnailRequest {
+
+    /** card | hero */
+    @Builder.Default
+    private String size = "card";
+
+    /** Text of the placeholder; defaults to the name */
+    private String title;
+
+    /** Background of the placeholder, six hex digits from streaming.thumbnails.placeholder-colors */
+    private String color;
+}
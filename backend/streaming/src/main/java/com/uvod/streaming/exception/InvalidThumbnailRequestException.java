@@ -0,0 +1,13 @@
+package com.uvod.streaming.exception;
+
+/**
+ * Exception thrown when thumbnail parameters are invalid
+ * (unknown size, malformed name or color, title too long).
+ * Converted to HTTP 400 Bad Request by StreamingExceptionHandler.
+ */
+public class InvalidThumbnailRequestException extends RuntimeException {
+
+    public InvalidThumbnailRequestException(String message) {
+        super(message);
+    }
+}
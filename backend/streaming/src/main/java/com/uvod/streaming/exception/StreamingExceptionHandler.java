@@ -0,0 +1,39 @@
+package com.uvod.streaming.exception;
+
+import com.uvod.common.dto.ErrorResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Handler for Streaming domain-specific exceptions.
+ *
+ * @Order(Ordered.HIGHEST_PRECEDENCE) ensures that this handler
+ *                                    is evaluated first
+ */
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class StreamingExceptionHandler {
+
+    /**
+     * Handles InvalidThumbnailRequestException → 400 Bad Request
+     */
+    @ExceptionHandler(InvalidThumbnailRequestException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidThumbnailRequest(
+            InvalidThumbnailRequestException ex,
+            HttpServletRequest request) {
+
+        ErrorResponse error = ErrorResponse.builder()
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+}
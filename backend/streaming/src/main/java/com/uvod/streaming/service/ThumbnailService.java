@@ -0,0 +1,233 @@
+package com.uvod.streaming.service;
+
+import com.uvod.streaming.cache.ThumbnailDiskCache;
+import com.uvod.streaming.dto.ThumbnailRequest;
+import com.uvod.streaming.exception.InvalidThumbnailRequestException;
+import com.uvod.streaming.thumbnail.ThumbnailRenderer;
+import com.uvod.streaming.thumbnail.ThumbnailSize;
+import com.uvod.streaming.thumbnail.ThumbnailSourceStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.regex.Pattern;
+
+/**
+ * Thumbnails behind content-hash URLs.
+ *
+ * A thumbnail is identified by the hash of everything its bytes depend on:
+ * renderer version and settings, size, and either the ETag of the source
+ * image in blob storage or the placeholder title and color. The same
+ * inputs always give the same URL on every instance, so the URL can be
+ * cached forever; a new source image gives a new hash.
+ *
+ * Rendered sources live in the ThumbnailDiskCache, keyed by that hash.
+ * Placeholders are cheap to redraw and can be requested by anyone with
+ * any title, so they never go to disk, where they would evict real
+ * thumbnails: the most recent ones are kept in a small in-memory LRU, and
+ * their colors are limited to streaming.thumbnails.placeholder-colors.
+ * Source ETags are remembered for streaming.thumbnails.source-ttl, so
+ * resolving a URL does not cost a blob storage call per page view.
+ */
+@Service
+public class ThumbnailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailService.class);
+
+    private static final Pattern NAME = Pattern.compile("[a-z0-9][a-z0-9-]{0,99}");
+    private static final int MAX_TITLE_LENGTH = 120;
+
+    /** Bound on remembered source versions; names come from URLs */
+    private static final int MAX_TRACKED_SOURCES = 10_000;
+
+    /** Placeholders kept in memory, about 30 KB each at hero size */
+    private static final int MAX_CACHED_PLACEHOLDERS = 256;
+
+    /** Validated inputs of a thumbnail */
+    private record Spec(String name, ThumbnailSize size, String title, String color) {
+    }
+
+    /** Source ETag (null = no source image) and when to look it up again */
+    private record SourceVersion(String etag, long expiresAt) {
+    }
+
+    private final ThumbnailRenderer renderer;
+    private final ThumbnailSourceStore sources;
+    private final ThumbnailDiskCache cache;
+    private final String defaultColor;
+    private final Set<String> colors;
+    private final long sourceTtlNanos;
+    private final Map<String, SourceVersion> versions = new ConcurrentHashMap<>();
+
+    /** Access-ordered, guarded by itself */
+    private final Map<String, byte[]> placeholders = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+            return size() > MAX_CACHED_PLACEHOLDERS;
+        }
+    };
+
+    private final Timer sourceRenders;
+    private final Timer placeholderRenders;
+
+    public ThumbnailService(ThumbnailRenderer renderer,
+            ThumbnailSourceStore sources,
+            ThumbnailDiskCache cache,
+            MeterRegistry meterRegistry,
+            @Value("${streaming.thumbnails.placeholder-color:6c3fc5}") String defaultColor,
+            @Value("${streaming.thumbnails.placeholder-colors:6c3fc5,4a2fa0,3a86c8,5a3fa8,7b2ff7,2d5f8a}")
+            List<String> colors,
+            @Value("${streaming.thumbnails.source-ttl:5m}") Duration sourceTtl) {
+        this.renderer = renderer;
+        this.sources = sources;
+        this.cache = cache;
+        this.defaultColor = defaultColor.toLowerCase(Locale.ROOT);
+        this.colors = colors.stream()
+                .map(color -> color.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.sourceTtlNanos = sourceTtl.toNanos();
+        this.sourceRenders = Timer.builder("streaming.thumbnails.render").tag("source", "blob")
+                .description("Time to render a thumbnail on a cache miss")
+                .register(meterRegistry);
+        this.placeholderRenders = Timer.builder("streaming.thumbnails.render").tag("source", "placeholder")
+                .description("Time to render a thumbnail on a cache miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the content hash of the current version of a thumbnail.
+     *
+     * @throws InvalidThumbnailRequestException on an unknown size or malformed parameters
+     */
+    public String resolve(String name, ThumbnailRequest request) {
+        Spec spec = spec(name, request);
+        return hash(spec, sourceVersion(name));
+    }
+
+    /**
+     * Returns the bytes of a thumbnail version, rendering and caching it
+     * on a miss (source images on disk, placeholders in memory).
+     *
+     * @param hash content hash from {@link #resolve}
+     * @return the JPEG, or empty if the hash is not the current version
+     *         and is no longer cached (the caller should resolve again)
+     * @throws InvalidThumbnailRequestException on an unknown size or malformed parameters
+     */
+    public Optional<byte[]> get(String name, ThumbnailRequest request, String hash) {
+        Spec spec = spec(name, request);
+        byte[] placeholder = cachedPlaceholder(hash);
+        if (placeholder != null) {
+            return Optional.of(placeholder);
+        }
+        Optional<byte[]> cached = cache.get(hash);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        String etag = sourceVersion(name);
+        if (!hash.equals(hash(spec, etag))) {
+            return Optional.empty();
+        }
+        if (etag == null) {
+            return Optional.of(placeholder(spec, hash));
+        }
+        Optional<byte[]> source = sources.read(name, etag);
+        if (source.isEmpty()) {
+            // The source changed since its ETag was remembered
+            versions.remove(name);
+            return Optional.empty();
+        }
+        byte[] body = sourceRenders.record(() -> {
+            try {
+                return renderer.resize(source.get(), spec.size());
+            } catch (IOException e) {
+                logger.warn("Unreadable thumbnail source {} ({}): rendering a placeholder", name, e.getMessage());
+                return null;
+            }
+        });
+        if (body == null) {
+            return Optional.of(placeholder(spec, hash));
+        }
+        cache.put(hash, body);
+        return Optional.of(body);
+    }
+
+    private byte[] placeholder(Spec spec, String hash) {
+        byte[] body = placeholderRenders.record(
+                () -> renderer.placeholder(spec.title(), Integer.parseInt(spec.color(), 16), spec.size()));
+        synchronized (placeholders) {
+            placeholders.put(hash, body);
+        }
+        return body;
+    }
+
+    private byte[] cachedPlaceholder(String hash) {
+        synchronized (placeholders) {
+            return placeholders.get(hash);
+        }
+    }
+
+    private String sourceVersion(String name) {
+        long now = System.nanoTime();
+        SourceVersion version = versions.get(name);
+        if (version == null || now - version.expiresAt() > 0) {
+            if (versions.size() >= MAX_TRACKED_SOURCES) {
+                versions.clear();
+            }
+            version = new SourceVersion(sources.version(name).orElse(null), now + sourceTtlNanos);
+            versions.put(name, version);
+        }
+        return version.etag();
+    }
+
+    private String hash(Spec spec, String etag) {
+        String inputs = String.join("|", renderer.fingerprint(), spec.size().getToken(), spec.name(),
+                etag != null ? "blob:" + etag : "placeholder:" + spec.color() + ":" + spec.title());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(inputs.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Spec spec(String name, ThumbnailRequest request) {
+        if (name == null || !NAME.matcher(name).matches()) {
+            throw new InvalidThumbnailRequestException(
+                    "Invalid thumbnail name '" + name + "' (lowercase letters, digits and dashes)");
+        }
+        ThumbnailSize size = ThumbnailSize.fromToken(request.getSize());
+
+        String title = request.getTitle() == null || request.getTitle().isBlank()
+                ? name.replace('-', ' ')
+                : request.getTitle().trim();
+        if (title.length() > MAX_TITLE_LENGTH) {
+            throw new InvalidThumbnailRequestException("title is longer than " + MAX_TITLE_LENGTH + " characters");
+        }
+
+        String color = request.getColor() == null || request.getColor().isBlank()
+                ? defaultColor
+                : request.getColor().trim().toLowerCase(Locale.ROOT);
+        if (!color.equals(defaultColor) && !colors.contains(color)) {
+            throw new InvalidThumbnailRequestException(
+                    "Invalid color '" + request.getColor() + "' (one of " + String.join(", ", colors) + ")");
+        }
+        return new Spec(name, size, title, color);
+    }
+}
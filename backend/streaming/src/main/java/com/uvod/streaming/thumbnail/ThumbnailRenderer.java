@@ -0,0 +1,165 @@
+package com.uvod.streaming.thumbnail;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders thumbnails at the sizes of {@link ThumbnailSize}: either a
+ * source image from blob storage, scaled and cropped to fill the frame,
+ * or a placeholder with the film title on a brand color.
+ *
+ * Output is a progressive JPEG without metadata. Scaling halves the image
+ * until it is within 2x of the target before the final bicubic pass, which
+ * keeps large sources from aliasing.
+ */
+@Component
+public class ThumbnailRenderer {
+
+    /**
+     * Bump when the output changes for the same inputs (new font, new
+     * layout): it is part of the content hash, so every URL changes with it.
+     */
+    public static final int VERSION = 1;
+
+    private static final int MAX_TITLE_LINES = 3;
+
+    private final float jpegQuality;
+
+    public ThumbnailRenderer(@Value("${streaming.thumbnails.jpeg-quality:0.8}") float jpegQuality) {
+        this.jpegQuality = jpegQuality;
+    }
+
+    /** Encoder settings that change the output, for the content hash */
+    public String fingerprint() {
+        return "v" + VERSION + ";q" + jpegQuality;
+    }
+
+    /**
+     * Scales a source image to cover the frame, cropping the excess
+     * around the center.
+     *
+     * @throws IOException if the source is not a readable image
+     */
+    public byte[] resize(byte[] source, ThumbnailSize size) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(source));
+        if (image == null) {
+            throw new IOException("Unsupported image format");
+        }
+        double scale = Math.max((double) size.getWidth() / image.getWidth(),
+                (double) size.getHeight() / image.getHeight());
+        int cropWidth = Math.min(image.getWidth(), (int) Math.round(size.getWidth() / scale));
+        int cropHeight = Math.min(image.getHeight(), (int) Math.round(size.getHeight() / scale));
+        BufferedImage current = image.getSubimage((image.getWidth() - cropWidth) / 2,
+                (image.getHeight() - cropHeight) / 2, cropWidth, cropHeight);
+
+        while (current.getWidth() >= size.getWidth() * 4 && current.getHeight() >= size.getHeight() * 4) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2,
+                    RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        }
+        return encode(draw(current, size.getWidth(), size.getHeight(), RenderingHints.VALUE_INTERPOLATION_BICUBIC));
+    }
+
+    /**
+     * Title on a flat background, wrapped on up to three centered lines.
+     *
+     * @param background RGB color, e.g. 0x6c3fc5
+     */
+    public byte[] placeholder(String title, int background, ThumbnailSize size) {
+        BufferedImage image = new BufferedImage(size.getWidth(), size.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(new Color(background));
+            g.fillRect(0, 0, size.getWidth(), size.getHeight());
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+            g.setColor(Color.WHITE);
+            g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, size.getHeight() / 9));
+
+            FontMetrics metrics = g.getFontMetrics();
+            List<String> lines = wrap(title, metrics, size.getWidth() * 85 / 100);
+            int lineHeight = metrics.getHeight();
+            int y = (size.getHeight() - lineHeight * lines.size()) / 2 + metrics.getAscent();
+            for (String line : lines) {
+                g.drawString(line, (size.getWidth() - metrics.stringWidth(line)) / 2, y);
+                y += lineHeight;
+            }
+        } finally {
+            g.dispose();
+        }
+        return encode(image);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, Object interpolation) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            // JPEG has no alpha: transparent sources are flattened on black
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, width, height);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static List<String> wrap(String text, FontMetrics metrics, int maxWidth) {
+        List<String> lines = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        for (String word : text.trim().split("\\s+")) {
+            if (!line.isEmpty() && metrics.stringWidth(line + " " + word) > maxWidth) {
+                lines.add(line.toString());
+                line.setLength(0);
+            }
+            if (!line.isEmpty()) {
+                line.append(' ');
+            }
+            line.append(word);
+        }
+        lines.add(line.toString());
+        if (lines.size() > MAX_TITLE_LINES) {
+            lines = new ArrayList<>(lines.subList(0, MAX_TITLE_LINES));
+            lines.set(MAX_TITLE_LINES - 1, lines.get(MAX_TITLE_LINES - 1) + "…");
+        }
+        return lines;
+    }
+
+    private byte[] encode(BufferedImage image) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,52 @@
+package com.uvod.streaming.thumbnail;
+
+import com.uvod.streaming.exception.InvalidThumbnailRequestException;
+
+import java.util.Locale;
+
+/**
+ * Sizes the frontend displays thumbnails at, rendered for 2x screens.
+ */
+public enum ThumbnailSize {
+
+    /** FilmCard: 220 CSS px wide, 3:2 */
+    CARD("card", 440, 294),
+
+    /** Home hero and film detail: 16:9 */
+    HERO("hero", 1280, 720);
+
+    private final String token;
+    private final int width;
+    private final int height;
+
+    ThumbnailSize(String token, int width, int height) {
+        this.token = token;
+        this.width = width;
+        this.height = height;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @throws InvalidThumbnailRequestException if the size is unknown
+     */
+    public static ThumbnailSize fromToken(String token) {
+        String normalized = token == null ? "" : token.trim().toLowerCase(Locale.ROOT);
+        for (ThumbnailSize size : values()) {
+            if (size.token.equals(normalized)) {
+                return size;
+            }
+        }
+        throw new InvalidThumbnailRequestException("Unknown thumbnail size '" + token + "' (expected card or hero)");
+    }
+}
@@ -0,0 +1,95 @@
+package com.uvod.streaming.thumbnail;
+
+import com.azure.core.util.Context;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.BlobContainerClientBuilder;
+import com.azure.storage.blob.models.BlobRequestConditions;
+import com.azure.storage.blob.models.BlobStorageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Source images in blob storage: {name}.jpg in the thumbnails container
+ * (any format ImageIO reads: JPEG, PNG, GIF, BMP).
+ *
+ * The client is built here rather than by the Azure auto-configuration so
+ * that a missing connection string is decided at runtime, not frozen by the
+ * AOT build: without one, every thumbnail is a placeholder.
+ */
+@Component
+public class ThumbnailSourceStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailSourceStore.class);
+
+    private static final Duration DOWNLOAD_TIMEOUT = Duration.ofSeconds(10);
+
+    /** Null when no storage account is configured */
+    private final BlobContainerClient container;
+
+    public ThumbnailSourceStore(
+            @Value("${streaming.thumbnails.storage.connection-string:}") String connectionString,
+            @Value("${streaming.thumbnails.storage.container:thumbnails}") String containerName) {
+        if (connectionString.isBlank()) {
+            logger.warn("No thumbnail storage configured: serving placeholders only");
+            this.container = null;
+        } else {
+            this.container = new BlobContainerClientBuilder()
+                    .connectionString(connectionString)
+                    .containerName(containerName)
+                    .buildClient();
+        }
+    }
+
+    /**
+     * Current version of a source image.
+     *
+     * @return its ETag, or empty if there is no source (or no storage)
+     */
+    public Optional<String> version(String name) {
+        if (container == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(container.getBlobClient(blobName(name)).getProperties().getETag());
+        } catch (BlobStorageException e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND.value()) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Downloads a source image, only if it is still at the given version.
+     *
+     * @return the bytes, or empty if the source changed or was deleted since
+     */
+    public Optional<byte[]> read(String name, String etag) {
+        if (container == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(container.getBlobClient(blobName(name))
+                    .downloadContentWithResponse(null, new BlobRequestConditions().setIfMatch(etag),
+                            DOWNLOAD_TIMEOUT, Context.NONE)
+                    .getValue()
+                    .toBytes());
+        } catch (BlobStorageException e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND.value()
+                    || e.getStatusCode() == HttpStatus.PRECONDITION_FAILED.value()) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    private static String blobName(String name) {
+        return name + ".jpg";
+    }
+}
@@ -0,0 +1,49 @@
+package com.uvod.streaming.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Size-bounded LRU eviction, and its order surviving a restart.
+ */
+class ThumbnailDiskCacheTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        ThumbnailDiskCache cache = new ThumbnailDiskCache(new SimpleMeterRegistry(), directory, 300);
+        cache.put("a", new byte[100]);
+        cache.put("b", new byte[100]);
+        cache.put("c", new byte[100]);
+        assertThat(cache.get("a")).isPresent();
+
+        cache.put("d", new byte[100]);
+
+        assertThat(cache.get("b")).isEmpty();
+        assertThat(directory.resolve("b.jpg")).doesNotExist();
+        assertThat(cache.get("a")).isPresent();
+        assertThat(cache.get("c")).isPresent();
+        assertThat(cache.get("d")).isPresent();
+    }
+
+    @Test
+    void reloadsFilesAndDropsTempFiles() throws IOException {
+        ThumbnailDiskCache cache = new ThumbnailDiskCache(new SimpleMeterRegistry(), directory, 300);
+        cache.put("a", new byte[] { 1, 2, 3 });
+        Files.write(directory.resolve("b123.tmp"), new byte[10]);
+
+        ThumbnailDiskCache reloaded = new ThumbnailDiskCache(new SimpleMeterRegistry(), directory, 300);
+
+        assertThat(reloaded.get("a")).hasValueSatisfying(body -> assertThat(body).containsExactly(1, 2, 3));
+        assertThat(directory.resolve("b123.tmp")).doesNotExist();
+    }
+}
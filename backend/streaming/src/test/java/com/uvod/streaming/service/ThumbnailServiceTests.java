@@ -0,0 +1,77 @@
+package com.uvod.streaming.service;
+
+import com.uvod.streaming.cache.ThumbnailDiskCache;
+import com.uvod.streaming.dto.ThumbnailRequest;
+import com.uvod.streaming.exception.InvalidThumbnailRequestException;
+import com.uvod.streaming.thumbnail.ThumbnailRenderer;
+import com.uvod.streaming.thumbnail.ThumbnailSourceStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Placeholders without blob storage: palette colors only, never on disk.
+ */
+class ThumbnailServiceTests {
+
+    @TempDir
+    Path directory;
+
+    private ThumbnailService service;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        service = new ThumbnailService(new ThumbnailRenderer(0.8f),
+                new ThumbnailSourceStore("", "thumbnails"),
+                new ThumbnailDiskCache(meterRegistry, directory, 1_000_000),
+                meterRegistry,
+                "6c3fc5",
+                List.of("6c3fc5", "3A86C8"),
+                Duration.ofMinutes(5));
+    }
+
+    @Test
+    void rejectsColorsOutsideThePalette() {
+        ThumbnailRequest request = ThumbnailRequest.builder().title("Quantum Horizon").color("123456").build();
+
+        assertThatThrownBy(() -> service.resolve("quantum-horizon", request))
+                .isInstanceOf(InvalidThumbnailRequestException.class);
+        assertThat(service.resolve("quantum-horizon", ThumbnailRequest.builder().color("3a86c8").build()))
+                .isNotNull();
+    }
+
+    @Test
+    void placeholdersAreNotWrittenToDisk() throws IOException {
+        ThumbnailRequest request = ThumbnailRequest.builder().title("Quantum Horizon").color("3a86c8").build();
+        String hash = service.resolve("quantum-horizon", request);
+
+        Optional<byte[]> first = service.get("quantum-horizon", request, hash);
+        Optional<byte[]> second = service.get("quantum-horizon", request, hash);
+
+        assertThat(first).isPresent();
+        assertThat(second.get()).isSameAs(first.get());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.toList()).isEmpty();
+        }
+    }
+
+    @Test
+    void unknownHashIsNotRendered() {
+        ThumbnailRequest request = ThumbnailRequest.builder().title("Quantum Horizon").build();
+
+        assertThat(service.get("quantum-horizon", request, "0123456789abcdef")).isEmpty();
+    }
+}
@@ -1,9 +1,14 @@
 package com.uvod.user;
 
+import com.uvod.user.config.UserRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@ImportRuntimeHints(UserRuntimeHints.class)
+@EnableScheduling
 public class UserApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,291 @@
+package com.uvod.user.cache;
+
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.models.CosmosQueryRequestOptions;
+import com.azure.cosmos.models.FeedResponse;
+import com.azure.cosmos.models.SqlParameter;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.azure.cosmos.util.CosmosPagedFlux;
+import com.azure.spring.data.cosmos.CosmosFactory;
+import com.azure.spring.data.cosmos.core.CosmosOperations;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.uvod.user.model.User;
+import com.uvod.user.repository.UserRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Which user ids are registered, answered from a Bloom filter.
+ *
+ * An id the filter has never seen is certainly not registered, and is
+ * answered without calling Cosmos: that is the common case of
+ * is-registered, right after a new user's first login. A "maybe" is
+ * confirmed with existsById; the confirmations that find nothing are the
+ * false positives, counted so the configured rate can be checked.
+ *
+ * The filter is seeded by streaming every id of the users container, then
+ * kept up to date by register on this instance and, for registrations made
+ * through other replicas, by polling the ids of the users written since the
+ * last poll (_ts, which the default indexing policy covers). Every replica
+ * needs every id, so there is no lease to share the work; instead a poll
+ * only reads ids, not the documents the change feed would return, and a
+ * replica that answered no check since its last poll skips it; its filter
+ * then no longer counts as synced, and checks go to Cosmos until the next
+ * drained poll. A poll
+ * that stops at user.registered-filter.max-pages-per-poll resumes from its
+ * continuation; the filter only counts as synced once a poll drained the
+ * query. Until the first seed, or when it has not been synced for
+ * user.registered-filter.max-staleness, every check goes to Cosmos.
+ * Users are never deleted, so ids are never removed.
+ */
+@Component
+public class RegisteredUsers {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegisteredUsers.class);
+
+    private static final int SEED_PAGE_SIZE = 1000;
+    private static final int POLL_PAGE_SIZE = 1000;
+
+    private static final String WRITTEN_SINCE =
+            "SELECT c.id, c._ts FROM c WHERE c._ts >= @since ORDER BY c._ts";
+
+    /**
+     * Seconds of _ts read again by the next poll: writes that commit late
+     * in the second (or on a partition whose clock lags) are not missed.
+     */
+    private static final long TIMESTAMP_OVERLAP_SECONDS = 5;
+
+    private final UserRepo userRepo;
+    private final CosmosFactory cosmosFactory;
+    private final CosmosOperations cosmosOperations;
+    private final long expectedUsers;
+    private final double falsePositiveRate;
+    private final long maxStalenessNanos;
+    private final int maxPagesPerPoll;
+
+    /**
+     * Serializes seeds and polls. A ReentrantLock rather than synchronized:
+     * both hold it across blocking Cosmos calls, which would pin a virtual
+     * thread to its carrier (JDK 21).
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Null until the first seed */
+    private volatile BloomFilter filter;
+    private volatile long lastSyncNanos;
+
+    /** False from a skipped or partial poll until the next drained one */
+    private volatile boolean synced;
+
+    /** _ts from which polls read; newest _ts seen by the current poll */
+    private volatile long since;
+    private volatile long newestTimestamp;
+
+    /** Where the current poll resumes; null once it drained the query */
+    private volatile String pollContinuation;
+
+    /** Whether the filter answered a check since the last poll */
+    private volatile boolean checkedSinceSync;
+
+    /** Registrations on this instance while a seed builds the next filter */
+    private volatile boolean seeding;
+    private final Set<String> addedDuringSeed = ConcurrentHashMap.newKeySet();
+
+    private final Counter absent;
+    private final Counter confirmed;
+    private final Counter falsePositives;
+    private final Counter unfiltered;
+
+    public RegisteredUsers(UserRepo userRepo,
+            CosmosFactory cosmosFactory,
+            CosmosOperations cosmosOperations,
+            MeterRegistry meterRegistry,
+            @Value("${user.registered-filter.expected-users:100000}") long expectedUsers,
+            @Value("${user.registered-filter.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${user.registered-filter.max-staleness:30s}") Duration maxStaleness,
+            @Value("${user.registered-filter.max-pages-per-poll:20}") int maxPagesPerPoll) {
+        this.userRepo = userRepo;
+        this.cosmosFactory = cosmosFactory;
+        this.cosmosOperations = cosmosOperations;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.maxPagesPerPoll = maxPagesPerPoll;
+
+        this.absent = Counter.builder("user.registered.checks").tag("answer", "absent")
+                .description("Unregistered ids answered by the filter alone").register(meterRegistry);
+        this.confirmed = Counter.builder("user.registered.checks").tag("answer", "confirmed")
+                .description("Filter hits confirmed in Cosmos").register(meterRegistry);
+        this.falsePositives = Counter.builder("user.registered.checks").tag("answer", "false-positive")
+                .description("Filter hits not found in Cosmos").register(meterRegistry);
+        this.unfiltered = Counter.builder("user.registered.checks").tag("answer", "unfiltered")
+                .description("Checks sent to Cosmos because the filter was not seeded, synced or fresh")
+                .register(meterRegistry);
+        Gauge.builder("user.registered.filter.insertions", this, r -> r.filter != null ? r.filter.insertions() : 0)
+                .description("Ids added to the filter").register(meterRegistry);
+        Gauge.builder("user.registered.filter.capacity", this, r -> r.filter != null ? r.filter.capacity() : 0)
+                .description("Ids the filter is sized for").register(meterRegistry);
+        Gauge.builder("user.registered.filter.expected-fpp", this,
+                r -> r.filter != null ? r.filter.expectedFalsePositiveRate() : 0)
+                .description("False positive probability expected at the current insertions")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return whether the user is registered; a negative answer may come
+     *         from the filter alone
+     */
+    public boolean isRegistered(String userId) {
+        checkedSinceSync = true;
+        BloomFilter current = filter;
+        if (current == null || !synced || System.nanoTime() - lastSyncNanos > maxStalenessNanos) {
+            unfiltered.increment();
+            return userRepo.existsById(userId);
+        }
+        if (!current.mightContain(userId)) {
+            absent.increment();
+            return false;
+        }
+        boolean exists = userRepo.existsById(userId);
+        (exists ? confirmed : falsePositives).increment();
+        return exists;
+    }
+
+    /**
+     * Records a registration made through this instance, so that it is
+     * answered at once rather than at the next poll.
+     */
+    public void add(String userId) {
+        if (seeding) {
+            addedDuringSeed.add(userId);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.add(userId);
+        }
+    }
+
+    /**
+     * Seeds the filter, or reseeds it once more ids than its capacity were
+     * added; otherwise adds the ids written through other replicas.
+     */
+    @Scheduled(fixedDelayString = "${user.registered-filter.poll-ms:1000}")
+    public void sync() {
+        lock.lock();
+        try {
+            BloomFilter current = filter;
+            if (current == null || current.insertions() > current.capacity()) {
+                seed();
+            } else {
+                poll();
+            }
+        } catch (RuntimeException e) {
+            // Checks fall back to Cosmos once the filter is too stale
+            logger.warn("Registered users sync failed: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void seed() {
+        long start = System.nanoTime();
+        addedDuringSeed.clear();
+        seeding = true;
+        try {
+            CosmosAsyncContainer container = usersContainer();
+
+            // Take the poll position BEFORE reading the ids:
+            // registrations made during the scan are re-applied on the next poll.
+            long position = newestTimestamp(container);
+            Long count = container
+                    .queryItems("SELECT VALUE COUNT(1) FROM c", new CosmosQueryRequestOptions(), Long.class)
+                    .blockFirst();
+            BloomFilter next = new BloomFilter(Math.max(expectedUsers, 2 * (count != null ? count : 0)),
+                    falsePositiveRate);
+            for (FeedResponse<String> page : container
+                    .queryItems("SELECT VALUE c.id FROM c", new CosmosQueryRequestOptions(), String.class)
+                    .byPage(SEED_PAGE_SIZE)
+                    .toIterable()) {
+                page.getResults().forEach(next::add);
+            }
+
+            this.filter = next;
+            this.since = position - TIMESTAMP_OVERLAP_SECONDS;
+            this.newestTimestamp = position;
+            this.pollContinuation = null;
+            this.lastSyncNanos = System.nanoTime();
+            this.synced = true;
+            logger.info("Registered users filter seeded: {} ids for a capacity of {} in {} ms",
+                    next.insertions(), next.capacity(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } finally {
+            seeding = false;
+            addedDuringSeed.forEach(this::add);
+        }
+    }
+
+    private void poll() {
+        if (pollContinuation == null && !checkedSinceSync) {
+            // Idle replica: registrations elsewhere go unseen until the poll
+            // after the next check, which goes to Cosmos meanwhile
+            synced = false;
+            return;
+        }
+        checkedSinceSync = false;
+
+        CosmosPagedFlux<JsonNode> query = usersContainer().queryItems(
+                new SqlQuerySpec(WRITTEN_SINCE, new SqlParameter("@since", since)),
+                new CosmosQueryRequestOptions(), JsonNode.class);
+        BloomFilter current = filter;
+        String continuation = pollContinuation;
+        long newest = newestTimestamp;
+        for (FeedResponse<JsonNode> page : (continuation != null
+                ? query.byPage(continuation, POLL_PAGE_SIZE)
+                : query.byPage(POLL_PAGE_SIZE))
+                .take(maxPagesPerPoll)
+                .toIterable()) {
+            // Updates come through too; adding a known id changes nothing
+            for (JsonNode node : page.getResults()) {
+                current.add(node.get("id").asText());
+                newest = Math.max(newest, node.get("_ts").asLong());
+            }
+            continuation = page.getContinuationToken();
+        }
+        this.newestTimestamp = newest;
+        this.pollContinuation = continuation;
+        if (continuation == null) {
+            // Drained: only now is every write up to newest in the filter
+            this.since = newest - TIMESTAMP_OVERLAP_SECONDS;
+            this.lastSyncNanos = System.nanoTime();
+            this.synced = true;
+        } else {
+            // A backlog: ids beyond this poll are not in the filter yet
+            this.synced = false;
+        }
+    }
+
+    /** Newest _ts in the container, or the local clock if it is empty */
+    private long newestTimestamp(CosmosAsyncContainer container) {
+        Long newest = container
+                .queryItems("SELECT VALUE MAX(c._ts) FROM c", new CosmosQueryRequestOptions(), Long.class)
+                .blockFirst();
+        return newest != null ? newest : Instant.now().getEpochSecond();
+    }
+
+    private CosmosAsyncContainer usersContainer() {
+        return cosmosFactory.getCosmosAsyncClient()
+                .getDatabase(cosmosFactory.getDatabaseName())
+                .getContainer(cosmosOperations.getContainerName(User.class));
+    }
+}
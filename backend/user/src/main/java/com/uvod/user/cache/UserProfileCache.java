@@ -0,0 +1,143 @@
+package com.uvod.user.cache;
+
+import com.uvod.user.model.User;
+import com.uvod.user.repository.UserRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+
+/**
+ * User documents cached per instance, read by profile requests and as
+ * the starting point of updates.
+ *
+ * Writes made through this instance are written through: the service
+ * puts the document Cosmos returned. Writes made through other replicas
+ * are caught by revalidation: an entry older than
+ * user.profile-cache.revalidate-after is checked with its ETag
+ * (If-None-Match), and an unchanged document costs a 304 without a body.
+ * An update that starts from a stale entry is still safe, since its write
+ * is conditional on that ETag: on 412 the entry is evicted and the update
+ * reads again. A decision taken without a write (nothing to change, a
+ * limit reached) has no such guard, and is taken on {@link #getFresh}.
+ *
+ * The cache is LRU, bounded by the number of users. Cached users are
+ * shared between requests and must not be modified.
+ */
+@Component
+public class UserProfileCache {
+
+    private record Entry(User user, long revalidateAt) {
+    }
+
+    private final UserRepo userRepo;
+    private final int maxEntries;
+    private final long revalidateAfterNanos;
+
+    /** Access-ordered: iteration starts from the least recently used entry */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final Counter hits;
+    private final Counter revalidated;
+    private final Counter stale;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public UserProfileCache(UserRepo userRepo,
+            MeterRegistry meterRegistry,
+            @Value("${user.profile-cache.max-entries:5000}") int maxEntries,
+            @Value("${user.profile-cache.revalidate-after:10s}") Duration revalidateAfter) {
+        this.userRepo = userRepo;
+        this.maxEntries = maxEntries;
+        this.revalidateAfterNanos = revalidateAfter.toNanos();
+        this.hits = Counter.builder("user.profile.cache.gets").tag("result", "hit")
+                .description("Users served from memory").register(meterRegistry);
+        this.revalidated = Counter.builder("user.profile.cache.gets").tag("result", "revalidated")
+                .description("Cached users found unchanged in Cosmos (304)").register(meterRegistry);
+        this.stale = Counter.builder("user.profile.cache.gets").tag("result", "stale")
+                .description("Cached users changed or deleted through another instance").register(meterRegistry);
+        this.misses = Counter.builder("user.profile.cache.gets").tag("result", "miss")
+                .description("Users read from Cosmos").register(meterRegistry);
+        this.evictions = Counter.builder("user.profile.cache.evictions")
+                .description("Users dropped to stay within max-entries").register(meterRegistry);
+        Gauge.builder("user.profile.cache.entries", this, UserProfileCache::entryCount)
+                .description("Users held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns a user, from memory if its entry is recent enough, otherwise
+     * revalidated or read from Cosmos and cached.
+     *
+     * @return the user, or empty if there is none
+     */
+    public Optional<User> get(String userId) {
+        Entry entry = lookup(userId);
+        if (entry != null && System.nanoTime() - entry.revalidateAt() < 0) {
+            hits.increment();
+            return Optional.of(entry.user());
+        }
+        return load(userId, entry);
+    }
+
+    /**
+     * Returns a user as it currently is in Cosmos: a cached entry is
+     * revalidated whatever its age, which costs a 304 if it is unchanged.
+     *
+     * @return the user, or empty if there is none
+     */
+    public Optional<User> getFresh(String userId) {
+        return load(userId, lookup(userId));
+    }
+
+    private Optional<User> load(String userId, Entry entry) {
+        Optional<User> user;
+        if (entry == null) {
+            misses.increment();
+            user = userRepo.findById(userId);
+        } else {
+            user = userRepo.revalidate(entry.user());
+            (user.isPresent() && user.get() == entry.user() ? revalidated : stale).increment();
+        }
+        user.ifPresentOrElse(this::put, () -> evict(userId));
+        return user;
+    }
+
+    /**
+     * Caches a user as just returned by Cosmos. Of two concurrent writes
+     * the last put wins even if it carries the older version; the entry is
+     * then corrected at the next revalidation or conditional write.
+     */
+    public void put(User user) {
+        store(user.getId(), new Entry(user, System.nanoTime() + revalidateAfterNanos));
+    }
+
+    /** Drops a user, so that the next get reads it from Cosmos */
+    public synchronized void evict(String userId) {
+        entries.remove(userId);
+    }
+
+    private synchronized Entry lookup(String userId) {
+        return entries.get(userId);
+    }
+
+    private synchronized void store(String userId, Entry entry) {
+        entries.put(userId, entry);
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private synchronized int entryCount() {
+        return entries.size();
+    }
+}
@@ -4,8 +4,9 @@ import com.azure.cosmos.CosmosClientBuilder;
 import com.azure.cosmos.GatewayConnectionConfig;
 import com.azure.identity.DefaultAzureCredentialBuilder;
 import com.azure.spring.data.cosmos.config.AbstractCosmosConfiguration;
+import com.azure.spring.data.cosmos.config.CosmosConfig;
 import com.azure.spring.data.cosmos.repository.config.EnableCosmosRepositories;
-
+import com.uvod.common.cosmos.CosmosResponseRecorder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -29,6 +30,18 @@ public class UserCosmosConfig extends AbstractCosmosConfiguration {
         return dbName;
     }
 
+    /**
+     * Attributes the request charge of every response to the
+     * repository method that issued it (cosmos.repository.* metrics).
+     */
+    @Override
+    @Bean
+    public CosmosConfig cosmosConfig() {
+        return CosmosConfig.builder()
+                .responseDiagnosticsProcessor(new CosmosResponseRecorder())
+                .build();
+    }
+
     @Bean
     public CosmosClientBuilder cosmosClientBuilder() {
         if (!StringUtils.hasText(key)) {
@@ -0,0 +1,23 @@
+package com.uvod.user.config;
+
+import com.uvod.common.cosmos.CosmosRuntimeHints;
+import com.uvod.user.model.FavoriteItem;
+import com.uvod.user.model.SupportedLocale;
+import com.uvod.user.model.User;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection hints for the native image (-Pnative).
+ *
+ * Request and response DTOs all appear in controller signatures and are
+ * registered by Spring MVC's AOT processing; MapStruct mappers are plain
+ * generated beans. What is left is the Cosmos document.
+ */
+public class UserRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        CosmosRuntimeHints.registerEntities(hints, User.class, FavoriteItem.class, SupportedLocale.class);
+    }
+}
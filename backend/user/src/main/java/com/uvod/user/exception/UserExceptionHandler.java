@@ -50,6 +50,16 @@ public class UserExceptionHandler {
         return buildResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), request);
     }
 
+    /**
+     * Handles UserUpdateConflictException → 409 Conflict
+     */
+    @ExceptionHandler(UserUpdateConflictException.class)
+    public ResponseEntity<ErrorResponse> handleUserUpdateConflict(
+            UserUpdateConflictException ex,
+            HttpServletRequest request) {
+        return buildResponse(HttpStatus.CONFLICT, ex.getMessage(), request);
+    }
+
     /**
      * Helper to build the error response.
      * Uses the same ErrorResponse format from the common module.
@@ -0,0 +1,14 @@
+package com.uvod.user.exception;
+
+/**
+ * Exception thrown when a user document keeps changing under an update
+ * (e.g. favorites toggled from several devices at once) and the update
+ * runs out of retries.
+ * Converted to HTTP 409 Conflict by UserExceptionHandler.
+ */
+public class UserUpdateConflictException extends RuntimeException {
+
+    public UserUpdateConflictException(String userId) {
+        super("User " + userId + " was modified concurrently, please retry");
+    }
+}
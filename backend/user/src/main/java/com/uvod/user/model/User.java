@@ -4,6 +4,7 @@ import java.time.Instant;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 
 import com.azure.spring.data.cosmos.core.mapping.Container;
 import com.azure.spring.data.cosmos.core.mapping.PartitionKey;
@@ -19,7 +20,7 @@ import lombok.Setter;
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class User {
     @Id
     @PartitionKey
@@ -40,4 +41,11 @@ public class User {
     private Instant updatedAt;
 
     private List<FavoriteItem> favorites;
+
+    /**
+     * Document version: full saves and favorites patches are conditional
+     * on it, so neither overwrites a concurrent change.
+     */
+    @Version
+    private String _etag;
 }
@@ -0,0 +1,35 @@
+package com.uvod.user.repository;
+
+import com.azure.spring.data.cosmos.exception.CosmosPreconditionFailedException;
+import com.uvod.user.model.FavoriteItem;
+import com.uvod.user.model.User;
+
+import java.time.Instant;
+
+/**
+ * Favorites mutations as partial-document patches.
+ *
+ * Each patch touches /favorites and /updatedAt only, and is applied only
+ * if the document is still at the ETag it was read with: the caller checks
+ * the limit and duplicates on that version, then retries on a newer one.
+ */
+public interface UserFavoritesRepository {
+
+    /**
+     * Appends a favorite to the end of the list.
+     *
+     * @param etag ETag of the version the caller read
+     * @return the patched user
+     * @throws CosmosPreconditionFailedException if the document changed since
+     */
+    User appendFavorite(String userId, String etag, FavoriteItem item, Instant updatedAt);
+
+    /**
+     * Removes the favorite at the given position, as read at that ETag.
+     *
+     * @param etag ETag of the version the caller read
+     * @return the patched user
+     * @throws CosmosPreconditionFailedException if the document changed since
+     */
+    User removeFavoriteAt(String userId, String etag, int index, Instant updatedAt);
+}
@@ -0,0 +1,43 @@
+package com.uvod.user.repository;
+
+import com.azure.cosmos.models.CosmosPatchItemRequestOptions;
+import com.azure.cosmos.models.CosmosPatchOperations;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.spring.data.cosmos.core.CosmosOperations;
+import com.uvod.user.model.FavoriteItem;
+import com.uvod.user.model.User;
+
+import java.time.Instant;
+
+/**
+ * Picked up by Spring Data as the implementation of the
+ * UserFavoritesRepository fragment of UserRepo (Impl suffix).
+ */
+public class UserFavoritesRepositoryImpl implements UserFavoritesRepository {
+
+    private final CosmosOperations cosmosOperations;
+
+    public UserFavoritesRepositoryImpl(CosmosOperations cosmosOperations) {
+        this.cosmosOperations = cosmosOperations;
+    }
+
+    @Override
+    public User appendFavorite(String userId, String etag, FavoriteItem item, Instant updatedAt) {
+        return patch(userId, etag, CosmosPatchOperations.create()
+                .add("/favorites/-", item)
+                .set("/updatedAt", updatedAt));
+    }
+
+    @Override
+    public User removeFavoriteAt(String userId, String etag, int index, Instant updatedAt) {
+        return patch(userId, etag, CosmosPatchOperations.create()
+                .remove("/favorites/" + index)
+                .set("/updatedAt", updatedAt));
+    }
+
+    private User patch(String userId, String etag, CosmosPatchOperations operations) {
+        CosmosPatchItemRequestOptions options = new CosmosPatchItemRequestOptions();
+        options.setIfMatchETag(etag);
+        return cosmosOperations.patch(userId, new PartitionKey(userId), User.class, operations, options);
+    }
+}
@@ -0,0 +1,19 @@
+package com.uvod.user.repository;
+
+import com.azure.spring.data.cosmos.exception.CosmosConflictException;
+import com.uvod.user.model.User;
+
+/**
+ * Create-only write. CrudRepository.save upserts, so it cannot tell a new
+ * user from an existing one.
+ */
+public interface UserInsertRepository {
+
+    /**
+     * Creates a user document.
+     *
+     * @return the created user
+     * @throws CosmosConflictException if a user with the same id exists
+     */
+    User insert(User user);
+}
@@ -0,0 +1,23 @@
+package com.uvod.user.repository;
+
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.spring.data.cosmos.core.CosmosOperations;
+import com.uvod.user.model.User;
+
+/**
+ * Picked up by Spring Data as the implementation of the
+ * UserInsertRepository fragment of UserRepo (Impl suffix).
+ */
+public class UserInsertRepositoryImpl implements UserInsertRepository {
+
+    private final CosmosOperations cosmosOperations;
+
+    public UserInsertRepositoryImpl(CosmosOperations cosmosOperations) {
+        this.cosmosOperations = cosmosOperations;
+    }
+
+    @Override
+    public User insert(User user) {
+        return cosmosOperations.insert(user, new PartitionKey(user.getId()));
+    }
+}
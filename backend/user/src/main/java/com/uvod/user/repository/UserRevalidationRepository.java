@@ -0,0 +1,21 @@
+package com.uvod.user.repository;
+
+import com.uvod.user.model.User;
+
+import java.util.Optional;
+
+/**
+ * Conditional point read, which spring-data-cosmos does not expose.
+ */
+public interface UserRevalidationRepository {
+
+    /**
+     * Reads a user again only if it changed since the given copy was read
+     * (If-None-Match on its ETag). An unchanged document comes back as
+     * 304, without its body.
+     *
+     * @return {@code cached} itself if unchanged, the new version if it
+     *         changed, or empty if the user was deleted
+     */
+    Optional<User> revalidate(User cached);
+}
@@ -0,0 +1,57 @@
+package com.uvod.user.repository;
+
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.models.CosmosItemRequestOptions;
+import com.azure.cosmos.models.CosmosItemResponse;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.spring.data.cosmos.CosmosFactory;
+import com.azure.spring.data.cosmos.core.CosmosOperations;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.uvod.user.model.User;
+import org.springframework.http.HttpStatus;
+
+import java.util.Optional;
+
+/**
+ * Picked up by Spring Data as the implementation of the
+ * UserRevalidationRepository fragment of UserRepo (Impl suffix).
+ *
+ * The database, the container and the mapping of the document are the
+ * ones Spring Data uses for User, so they cannot drift from the
+ * repository's own reads.
+ */
+public class UserRevalidationRepositoryImpl implements UserRevalidationRepository {
+
+    private final CosmosFactory cosmosFactory;
+    private final CosmosOperations cosmosOperations;
+
+    public UserRevalidationRepositoryImpl(CosmosFactory cosmosFactory, CosmosOperations cosmosOperations) {
+        this.cosmosFactory = cosmosFactory;
+        this.cosmosOperations = cosmosOperations;
+    }
+
+    @Override
+    public Optional<User> revalidate(User cached) {
+        CosmosItemRequestOptions options = new CosmosItemRequestOptions();
+        options.setIfNoneMatchETag(cached.get_etag());
+        try {
+            CosmosItemResponse<JsonNode> response = cosmosFactory.getCosmosAsyncClient()
+                    .getDatabase(cosmosFactory.getDatabaseName())
+                    .getContainer(cosmosOperations.getContainerName(User.class))
+                    .readItem(cached.getId(), new PartitionKey(cached.getId()), options, JsonNode.class)
+                    .block();
+            if (response == null || response.getStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+                return Optional.of(cached);
+            }
+            return Optional.of(cosmosOperations.getConverter().read(User.class, response.getItem()));
+        } catch (CosmosException e) {
+            if (e.getStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+                return Optional.of(cached);
+            }
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND.value()) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+}
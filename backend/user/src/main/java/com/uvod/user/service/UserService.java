@@ -1,5 +1,9 @@
 package com.uvod.user.service;
 
+import com.azure.spring.data.cosmos.exception.CosmosConflictException;
+import com.azure.spring.data.cosmos.exception.CosmosPreconditionFailedException;
+import com.uvod.user.cache.RegisteredUsers;
+import com.uvod.user.cache.UserProfileCache;
 import com.uvod.user.dto.FavoriteRequest;
 import com.uvod.user.dto.RegisterRequest;
 import com.uvod.user.dto.UpdateProfileRequest;
@@ -7,6 +11,7 @@ import com.uvod.user.dto.UserResponse;
 import com.uvod.user.exception.FavoriteLimitReachedException;
 import com.uvod.user.exception.UserAlreadyExistsException;
 import com.uvod.user.exception.UserNotFoundException;
+import com.uvod.user.exception.UserUpdateConflictException;
 import com.uvod.user.mapper.UserMapper;
 import com.uvod.user.model.FavoriteItem;
 import com.uvod.user.model.SupportedLocale;
@@ -16,6 +21,8 @@ import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Service for user management.
@@ -26,40 +33,51 @@ public class UserService {
 
     private static final int MAX_FAVORITES = 30;
 
+    /** Attempts of an update that lost the race to a concurrent one */
+    private static final int MAX_UPDATE_ATTEMPTS = 5;
+
     private final UserRepo userRepo;
     private final UserMapper userMapper;
+    private final UserProfileCache profileCache;
+    private final RegisteredUsers registeredUsers;
 
-    public UserService(UserRepo userRepo, UserMapper userMapper) {
+    public UserService(UserRepo userRepo, UserMapper userMapper, UserProfileCache profileCache,
+            RegisteredUsers registeredUsers) {
         this.userRepo = userRepo;
         this.userMapper = userMapper;
+        this.profileCache = profileCache;
+        this.registeredUsers = registeredUsers;
     }
 
     /**
-     * Retrieves a user's profile.
+     * Retrieves a user's profile, from the profile cache when possible.
      *
      * @param userId User ID (from X-User-Id header)
      * @return UserResponse with profile data
      * @throws UserNotFoundException if the user does not exist
      */
     public UserResponse getProfile(String userId) {
-        User user = userRepo.findById(userId)
+        User user = profileCache.get(userId)
                 .orElseThrow(() -> new UserNotFoundException(userId));
 
         return userMapper.toResponse(user);
     }
 
     /**
-     * Checks if a user is already registered.
+     * Checks if a user is already registered. Users that are not are
+     * usually answered from memory (see RegisteredUsers).
      *
      * @param userId User ID (from X-User-Id header)
      * @return true if the user exists, false otherwise
      */
     public boolean isRegistered(String userId) {
-        return userRepo.existsById(userId);
+        return registeredUsers.isRegistered(userId);
     }
 
     /**
-     * Registers a new user.
+     * Registers a new user, with a single create-only write: an existing
+     * user is reported by Cosmos as a conflict, so two concurrent
+     * registrations cannot both succeed.
      *
      * @param userId   User ID (from X-User-Id header)
      * @param provider Identity provider (from X-User-Provider header)
@@ -68,11 +86,6 @@ public class UserService {
      * @throws UserAlreadyExistsException if the user is already registered
      */
     public UserResponse register(String userId, String provider, RegisterRequest request) {
-
-        if (userRepo.existsById(userId)) {
-            throw new UserAlreadyExistsException(userId);
-        }
-
         Instant now = Instant.now();
 
         User user = User.builder()
@@ -87,7 +100,16 @@ public class UserService {
                 .favorites(new ArrayList<>())
                 .build();
 
-        User savedUser = userRepo.save(user);
+        User savedUser;
+        try {
+            savedUser = userRepo.insert(user);
+        } catch (CosmosConflictException e) {
+            // Registered through another replica, maybe not in its filter yet
+            registeredUsers.add(userId);
+            throw new UserAlreadyExistsException(userId);
+        }
+        profileCache.put(savedUser);
+        registeredUsers.add(userId);
 
         return userMapper.toResponse(savedUser);
     }
@@ -98,79 +120,140 @@ public class UserService {
      * @param userId  User ID (from X-User-Id header)
      * @param request Update data
      * @return UserResponse with updated profile data
-     * @throws UserNotFoundException if the user does not exist
+     * @throws UserNotFoundException       if the user does not exist
+     * @throws UserUpdateConflictException if the user keeps changing concurrently
      */
     public UserResponse updateProfile(String userId, UpdateProfileRequest request) {
-        User user = userRepo.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException(userId));
+        return retryOnConcurrentUpdate(userId, () -> {
+            User cached = profileCache.get(userId)
+                    .orElseThrow(() -> new UserNotFoundException(userId));
 
-        user.setUsername(request.getUsername());
-        user.setAvatarUrl(request.getAvatarUrl());
-        if (request.getLocale() != null) {
-            user.setLocale(request.getLocale());
-        }
-        user.setUpdatedAt(Instant.now());
+            // Cached users are shared: change a copy
+            User user = cached.toBuilder()
+                    .username(request.getUsername())
+                    .avatarUrl(request.getAvatarUrl())
+                    .locale(request.getLocale() != null ? request.getLocale() : cached.getLocale())
+                    .updatedAt(Instant.now())
+                    .build();
 
-        User savedUser = userRepo.save(user);
-        return userMapper.toResponse(savedUser);
+            // Conditional on the ETag read above (@Version)
+            User savedUser = userRepo.save(user);
+            profileCache.put(savedUser);
+            return userMapper.toResponse(savedUser);
+        });
     }
 
     /**
      * Adds a film to the user's favorites list.
      * Idempotent: if the film is already present, returns 200 with current data.
      *
+     * The item is appended with a patch conditioned on the ETag of the
+     * version whose limit and duplicates were checked; if another update
+     * got in between, the checks are repeated on the new version. Answers
+     * that need no write (already present, limit reached) are only given
+     * on a revalidated copy, never on a possibly stale cached one.
+     *
      * @param userId  User ID (from X-User-Id header)
      * @param request Favorite data (denormalized film info)
      * @return UserResponse with updated favorites
      * @throws UserNotFoundException         if the user does not exist
      * @throws FavoriteLimitReachedException if the list is at max capacity (30)
+     * @throws UserUpdateConflictException   if the user keeps changing concurrently
      */
     public UserResponse addFavorite(String userId, FavoriteRequest request) {
-        User user = userRepo.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException(userId));
-
-        // Idempotent: if already present, return current state
-        boolean alreadyPresent = user.getFavorites().stream()
-                .anyMatch(f -> f.getMovieId().equals(request.getMovieId()));
+        FavoriteItem item = userMapper.toFavoriteItem(request);
 
-        if (alreadyPresent) {
-            return userMapper.toResponse(user);
-        }
+        return retryOnConcurrentUpdate(userId, () -> {
+            User user = profileCache.get(userId)
+                    .orElseThrow(() -> new UserNotFoundException(userId));
+            if (indexOf(user.getFavorites(), request.getMovieId()) >= 0
+                    || user.getFavorites().size() >= MAX_FAVORITES) {
+                user = fresh(userId);
+            }
 
-        // Check limit
-        if (user.getFavorites().size() >= MAX_FAVORITES) {
-            throw new FavoriteLimitReachedException();
-        }
+            // Idempotent: if already present, return current state
+            if (indexOf(user.getFavorites(), request.getMovieId()) >= 0) {
+                return userMapper.toResponse(user);
+            }
 
-        FavoriteItem item = userMapper.toFavoriteItem(request);
-        user.getFavorites().add(item);
-        user.setUpdatedAt(Instant.now());
+            // Check limit
+            if (user.getFavorites().size() >= MAX_FAVORITES) {
+                throw new FavoriteLimitReachedException();
+            }
 
-        User savedUser = userRepo.save(user);
-        return userMapper.toResponse(savedUser);
+            User savedUser = userRepo.appendFavorite(userId, user.get_etag(), item, Instant.now());
+            profileCache.put(savedUser);
+            return userMapper.toResponse(savedUser);
+        });
     }
 
     /**
      * Removes a film from the user's favorites list.
      * Idempotent: if the film is not present, returns 200 with current data.
      *
+     * The patch removes by position, which the ETag condition guarantees
+     * is still the position of that film. A film missing from the cached
+     * copy is looked for again in a revalidated one before answering.
+     *
      * @param userId  User ID (from X-User-Id header)
      * @param movieId The film ID to remove
      * @return UserResponse with updated favorites
-     * @throws UserNotFoundException if the user does not exist
+     * @throws UserNotFoundException       if the user does not exist
+     * @throws UserUpdateConflictException if the user keeps changing concurrently
      */
     public UserResponse removeFavorite(String userId, String movieId) {
-        User user = userRepo.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException(userId));
+        return retryOnConcurrentUpdate(userId, () -> {
+            User user = profileCache.get(userId)
+                    .orElseThrow(() -> new UserNotFoundException(userId));
 
-        boolean removed = user.getFavorites().removeIf(f -> f.getMovieId().equals(movieId));
+            int index = indexOf(user.getFavorites(), movieId);
+            if (index < 0) {
+                user = fresh(userId);
+                index = indexOf(user.getFavorites(), movieId);
+            }
+            if (index < 0) {
+                return userMapper.toResponse(user);
+            }
 
-        if (removed) {
-            user.setUpdatedAt(Instant.now());
-            User savedUser = userRepo.save(user);
+            User savedUser = userRepo.removeFavoriteAt(userId, user.get_etag(), index, Instant.now());
+            profileCache.put(savedUser);
             return userMapper.toResponse(savedUser);
+        });
+    }
+
+    /**
+     * The user as currently in Cosmos, for a decision that no conditional
+     * write will check.
+     */
+    private User fresh(String userId) {
+        return profileCache.getFresh(userId)
+                .orElseThrow(() -> new UserNotFoundException(userId));
+    }
+
+    private static int indexOf(List<FavoriteItem> favorites, String movieId) {
+        for (int i = 0; i < favorites.size(); i++) {
+            if (favorites.get(i).getMovieId().equals(movieId)) {
+                return i;
+            }
         }
+        return -1;
+    }
 
-        return userMapper.toResponse(user);
+    /**
+     * Runs a read-check-write update again, from a fresh read, when its
+     * conditional write finds that the document changed since (possibly
+     * because the cached copy it started from was stale).
+     */
+    private <T> T retryOnConcurrentUpdate(String userId, Supplier<T> update) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return update.get();
+            } catch (CosmosPreconditionFailedException e) {
+                profileCache.evict(userId);
+                if (attempt == MAX_UPDATE_ATTEMPTS) {
+                    throw new UserUpdateConflictException(userId);
+                }
+            }
+        }
     }
-}
\ No newline at end of file
+}
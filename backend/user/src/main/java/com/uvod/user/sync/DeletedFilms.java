@@ -0,0 +1,36 @@
+package com.uvod.user.sync;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Favorited films missing from the films container.
+ *
+ * Removing their favorites cannot be undone, so a result that rather
+ * points at a wrong films container (empty, being reseeded, another
+ * database) is not acted upon: see {@link #plausible}.
+ *
+ * @param ids       ids of the missing films
+ * @param favorited number of distinct favorited films
+ * @param existing  number of them found in the films container
+ */
+record DeletedFilms(Set<String> ids, int favorited, int existing) {
+
+    static DeletedFilms of(Collection<String> favorited, Collection<String> existing) {
+        Set<String> distinct = new HashSet<>(favorited);
+        Set<String> ids = new HashSet<>(distinct);
+        ids.removeAll(existing);
+        return new DeletedFilms(ids, distinct.size(), distinct.size() - ids.size());
+    }
+
+    /**
+     * @param maxShare largest share of the favorited films that may be
+     *                 found deleted at once
+     * @return false if none of the favorited films exists, or more than
+     *         maxShare of them are missing
+     */
+    boolean plausible(double maxShare) {
+        return existing > 0 && ids.size() <= maxShare * favorited;
+    }
+}
@@ -0,0 +1,80 @@
+package com.uvod.user.sync;
+
+import com.azure.cosmos.models.CosmosPatchOperations;
+import com.uvod.user.model.FavoriteItem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * What refreshing one user's favorites changes, decided on the version
+ * read: the positions whose film data is stale, and the positions of
+ * deleted films.
+ *
+ * Positions are those of that version, so the patches must be applied
+ * conditionally on its ETag. Updates go first, then removals from the
+ * last position down, so that no operation shifts a position used by a
+ * later one.
+ *
+ * @param updates  position → current film data
+ * @param removals positions to remove, in descending order
+ */
+record FavoritesPatch(SortedMap<Integer, FavoriteItem> updates, List<Integer> removals) {
+
+    /** Cosmos limit on operations per patch */
+    static final int MAX_PATCH_OPERATIONS = 10;
+
+    /**
+     * @param current film data of the changed films, by id
+     * @param deleted ids of the films deleted from the catalog
+     */
+    static FavoritesPatch of(List<FavoriteItem> favorites, Map<String, FavoriteItem> current,
+            Collection<String> deleted) {
+        SortedMap<Integer, FavoriteItem> updates = new TreeMap<>();
+        List<Integer> removals = new ArrayList<>();
+        for (int i = 0; i < favorites.size(); i++) {
+            String movieId = favorites.get(i).getMovieId();
+            if (deleted.contains(movieId)) {
+                removals.add(i);
+                continue;
+            }
+            FavoriteItem fresh = current.get(movieId);
+            if (fresh != null && !fresh.equals(favorites.get(i))) {
+                updates.put(i, fresh);
+            }
+        }
+        removals.sort(Comparator.reverseOrder());
+        return new FavoritesPatch(updates, removals);
+    }
+
+    boolean isEmpty() {
+        return updates.isEmpty() && removals.isEmpty();
+    }
+
+    /**
+     * The patch requests to send, in order, each within the operation limit.
+     */
+    List<CosmosPatchOperations> operations() {
+        List<CosmosPatchOperations> requests = new ArrayList<>();
+        CosmosPatchOperations operations = null;
+        int count = 0;
+        for (Map.Entry<Integer, FavoriteItem> update : updates.entrySet()) {
+            if (count++ % MAX_PATCH_OPERATIONS == 0) {
+                requests.add(operations = CosmosPatchOperations.create());
+            }
+            operations.set("/favorites/" + update.getKey(), update.getValue());
+        }
+        for (int position : removals) {
+            if (count++ % MAX_PATCH_OPERATIONS == 0) {
+                requests.add(operations = CosmosPatchOperations.create());
+            }
+            operations.remove("/favorites/" + position);
+        }
+        return requests;
+    }
+}
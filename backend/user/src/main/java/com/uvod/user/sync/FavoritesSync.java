@@ -0,0 +1,396 @@
+package com.uvod.user.sync;
+
+import com.azure.cosmos.ChangeFeedProcessor;
+import com.azure.cosmos.ChangeFeedProcessorBuilder;
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosAsyncDatabase;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.models.ChangeFeedProcessorOptions;
+import com.azure.cosmos.models.CosmosContainerProperties;
+import com.azure.cosmos.models.CosmosItemResponse;
+import com.azure.cosmos.models.CosmosPatchItemRequestOptions;
+import com.azure.cosmos.models.CosmosPatchOperations;
+import com.azure.cosmos.models.CosmosQueryRequestOptions;
+import com.azure.cosmos.models.FeedResponse;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlParameter;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.azure.spring.data.cosmos.CosmosFactory;
+import com.azure.spring.data.cosmos.core.CosmosOperations;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.uvod.user.model.FavoriteItem;
+import com.uvod.user.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Keeps the film data denormalized into users' favorites in sync with the
+ * catalog.
+ *
+ * A change feed processor watches the films container. Its leases (in the
+ * "leases" container of the user database) split the feed between the
+ * running instances, so each film change is handled by one of them. For
+ * a batch of changed films, the affected users are found through the
+ * index Cosmos keeps on /favorites/[]/movieId, which serves as the
+ * movieId → users reverse index. The users are read and patched a page
+ * at a time, so a popular film does not load all its fans into memory.
+ * Each stale favorite is then replaced with a patch conditioned on the
+ * user's ETag (see FavoritesPatch).
+ *
+ * Users are patched with bounded parallelism and a request unit budget,
+ * so a bulk catalog change does not starve user requests of throughput.
+ * A batch is checkpointed only once all its users are patched; after a
+ * failure it is delivered again, and the patches are idempotent.
+ * The change feed does not report deletes: every
+ * user.favorites-sync.reconcile-interval-ms, the favorited film ids are
+ * compared with those of the films container, and the favorites of the
+ * films that are gone are removed the same way. One instance per interval
+ * runs it, under a lease in the leases container. Since removals cannot be
+ * undone, nothing is removed when the films container holds none of the
+ * favorited films, or when more than user.favorites-sync.max-deleted-share
+ * of them are missing: that rather means a wrong or reseeded container.
+ */
+@Component
+public class FavoritesSync implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(FavoritesSync.class);
+
+    private static final String FILMS_CONTAINER = "films";
+    private static final String LEASES_CONTAINER = "leases";
+    private static final String LEASE_PREFIX = "user-favorites-";
+
+    /** Outside LEASE_PREFIX, so the change feed processor ignores it */
+    private static final String RECONCILE_LEASE_ID = "favorites-reconcile";
+
+    /** Film ids per reverse lookup query */
+    private static final int MOVIE_IDS_PER_QUERY = 100;
+
+    /** Users read, then patched, at a time */
+    private static final int USERS_PER_PAGE = 100;
+
+    private static final int MAX_PATCH_ATTEMPTS = 3;
+
+    private static final String AFFECTED_USERS_QUERY = "SELECT c.id, c._etag, c.favorites FROM c"
+            + " WHERE EXISTS(SELECT VALUE f FROM f IN c.favorites WHERE ARRAY_CONTAINS(@movieIds, f.movieId))";
+
+    private static final String FAVORITED_FILMS_QUERY = "SELECT DISTINCT VALUE f.movieId FROM c JOIN f IN c.favorites";
+
+    private static final String EXISTING_FILMS_QUERY = "SELECT VALUE c.id FROM c WHERE ARRAY_CONTAINS(@movieIds, c.id)";
+
+    private final CosmosFactory cosmosFactory;
+    private final CosmosOperations cosmosOperations;
+    private final boolean enabled;
+    private final String filmsDbName;
+    private final int parallelism;
+    private final RequestUnitBudget budget;
+    private final Duration reconcileInterval;
+    private final double maxDeletedShare;
+
+    private final Counter filmsProcessed;
+    private final Counter usersPatched;
+    private final Counter deletedFilms;
+    private final Counter conflicts;
+    private final Counter requestCharge;
+
+    /** Set once the processor has started */
+    private volatile ChangeFeedProcessor processor;
+    private volatile ExecutorService executor;
+
+    public FavoritesSync(CosmosFactory cosmosFactory,
+            CosmosOperations cosmosOperations,
+            MeterRegistry meterRegistry,
+            @Value("${user.favorites-sync.enabled:true}") boolean enabled,
+            @Value("${user.favorites-sync.films-database:${AZURE_COSMOS_DB}}") String filmsDbName,
+            @Value("${user.favorites-sync.parallelism:4}") int parallelism,
+            @Value("${user.favorites-sync.max-ru-per-second:100}") double maxRuPerSecond,
+            @Value("${user.favorites-sync.reconcile-interval-ms:3600000}") long reconcileIntervalMs,
+            @Value("${user.favorites-sync.max-deleted-share:0.1}") double maxDeletedShare) {
+        this.cosmosFactory = cosmosFactory;
+        this.cosmosOperations = cosmosOperations;
+        this.enabled = enabled;
+        this.filmsDbName = filmsDbName;
+        this.parallelism = parallelism;
+        this.budget = new RequestUnitBudget(maxRuPerSecond, maxRuPerSecond);
+        this.reconcileInterval = Duration.ofMillis(reconcileIntervalMs);
+        this.maxDeletedShare = maxDeletedShare;
+
+        this.filmsProcessed = Counter.builder("user.favorites.sync.films")
+                .description("Film changes read from the catalog change feed").register(meterRegistry);
+        this.usersPatched = Counter.builder("user.favorites.sync.users")
+                .description("Users whose favorites were refreshed").register(meterRegistry);
+        this.deletedFilms = Counter.builder("user.favorites.sync.deleted-films")
+                .description("Favorited films found deleted from the catalog").register(meterRegistry);
+        this.conflicts = Counter.builder("user.favorites.sync.conflicts")
+                .description("Favorites patches retried after a concurrent user update").register(meterRegistry);
+        this.requestCharge = Counter.builder("user.favorites.sync.request.charge")
+                .description("Request units spent refreshing favorites")
+                .baseUnit("RU")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            logger.info("Favorites sync disabled");
+            return;
+        }
+        executor = Executors.newFixedThreadPool(parallelism, Thread.ofVirtual().name("favorites-sync-", 0).factory());
+        ChangeFeedProcessor starting = new ChangeFeedProcessorBuilder()
+                .hostName(hostName())
+                .feedContainer(filmsContainer())
+                .leaseContainer(leaseContainer())
+                .handleChanges(this::handleChanges)
+                .options(new ChangeFeedProcessorOptions().setLeasePrefix(LEASE_PREFIX))
+                .buildChangeFeedProcessor();
+        starting.start().subscribe(
+                unused -> {
+                },
+                e -> logger.error("Favorites sync could not start: {}", e.getMessage()),
+                () -> started(starting));
+    }
+
+    private synchronized void started(ChangeFeedProcessor started) {
+        if (executor == null) {
+            // Stopped while starting
+            started.stop().subscribe();
+            return;
+        }
+        processor = started;
+        logger.info("Favorites sync started on the {} change feed", FILMS_CONTAINER);
+    }
+
+    @Override
+    public synchronized void stop() {
+        ChangeFeedProcessor current = processor;
+        if (current != null) {
+            current.stop().block();
+            processor = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    /**
+     * Refreshes the favorites of every user holding one of the changed
+     * films. Throwing makes the processor deliver the batch again.
+     */
+    void handleChanges(List<JsonNode> films) {
+        Map<String, FavoriteItem> current = new LinkedHashMap<>();
+        for (JsonNode film : films) {
+            FavoriteItem item = cosmosOperations.getConverter().read(FavoriteItem.class, film);
+            item.setMovieId(film.get("id").asText());
+            current.put(item.getMovieId(), item);
+        }
+        filmsProcessed.increment(films.size());
+        refreshUsersHolding(current.keySet(), current, Set.of());
+    }
+
+    /**
+     * Removes the favorites of films deleted from the catalog. No-op
+     * until the processor has started, and on the instances that do not
+     * get the lease for this interval.
+     */
+    @Scheduled(initialDelayString = "${user.favorites-sync.reconcile-interval-ms:3600000}",
+            fixedDelayString = "${user.favorites-sync.reconcile-interval-ms:3600000}")
+    public void removeDeletedFilms() {
+        if (processor == null) {
+            return;
+        }
+        try {
+            // Held for most of the interval: the next instance whose schedule
+            // comes after it expires runs the following reconcile
+            ReconcileLease lease = new ReconcileLease(leases(), RECONCILE_LEASE_ID, hostName(),
+                    reconcileInterval.multipliedBy(9).dividedBy(10));
+            if (!lease.tryAcquire()) {
+                return;
+            }
+            List<String> favorited = queryIds(usersContainer(), new SqlQuerySpec(FAVORITED_FILMS_QUERY));
+            List<String> existing = new ArrayList<>();
+            for (int from = 0; from < favorited.size(); from += MOVIE_IDS_PER_QUERY) {
+                List<String> chunk = favorited.subList(from, Math.min(from + MOVIE_IDS_PER_QUERY, favorited.size()));
+                existing.addAll(queryIds(filmsContainer(),
+                        new SqlQuerySpec(EXISTING_FILMS_QUERY, new SqlParameter("@movieIds", chunk))));
+            }
+            DeletedFilms deleted = DeletedFilms.of(favorited, existing);
+            if (deleted.ids().isEmpty()) {
+                return;
+            }
+            if (!deleted.plausible(maxDeletedShare)) {
+                logger.error("Favorites reconcile skipped: {} of {} favorited films are missing from {}/{},"
+                        + " which looks like a wrong or reseeded films container",
+                        deleted.ids().size(), deleted.favorited(), filmsDbName, FILMS_CONTAINER);
+                return;
+            }
+            deletedFilms.increment(deleted.ids().size());
+            logger.info("Removing {} deleted film(s) from favorites", deleted.ids().size());
+            refreshUsersHolding(deleted.ids(), Map.of(), deleted.ids());
+        } catch (RuntimeException e) {
+            logger.warn("Favorites reconcile failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Finds the users holding one of the films, a page at a time, and
+     * patches each page's users before reading the next.
+     */
+    private void refreshUsersHolding(Collection<String> films, Map<String, FavoriteItem> current,
+            Set<String> deleted) {
+        List<String> movieIds = new ArrayList<>(films);
+        for (int from = 0; from < movieIds.size(); from += MOVIE_IDS_PER_QUERY) {
+            List<String> chunk = movieIds.subList(from, Math.min(from + MOVIE_IDS_PER_QUERY, movieIds.size()));
+            SqlQuerySpec query = new SqlQuerySpec(AFFECTED_USERS_QUERY, new SqlParameter("@movieIds", chunk));
+            for (FeedResponse<JsonNode> page : usersContainer()
+                    .queryItems(query, new CosmosQueryRequestOptions(), JsonNode.class)
+                    .byPage(USERS_PER_PAGE)
+                    .toIterable()) {
+                charge(page.getRequestCharge());
+                List<Future<?>> patches = new ArrayList<>();
+                for (JsonNode node : page.getResults()) {
+                    User user = cosmosOperations.getConverter().read(User.class, node);
+                    patches.add(executor.submit(() -> {
+                        refresh(user, current, deleted);
+                        return null;
+                    }));
+                }
+                awaitAll(patches);
+            }
+        }
+    }
+
+    /**
+     * Patches the user's stale favorites and removes the deleted ones, by
+     * position. The positions are those of the version read, hence the
+     * ETag condition; on conflict the user is read again.
+     */
+    private void refresh(User user, Map<String, FavoriteItem> current, Set<String> deleted) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                patch(user, FavoritesPatch.of(user.getFavorites(), current, deleted));
+                return;
+            } catch (CosmosException e) {
+                if (e.getStatusCode() != HttpStatus.PRECONDITION_FAILED.value() || attempt == MAX_PATCH_ATTEMPTS) {
+                    throw e;
+                }
+                conflicts.increment();
+                CosmosItemResponse<JsonNode> reread = usersContainer()
+                        .readItem(user.getId(), new PartitionKey(user.getId()), JsonNode.class)
+                        .block();
+                charge(reread.getRequestCharge());
+                user = cosmosOperations.getConverter().read(User.class, reread.getItem());
+            }
+        }
+    }
+
+    private void patch(User user, FavoritesPatch patch) {
+        if (patch.isEmpty()) {
+            return;
+        }
+        String etag = user.get_etag();
+        for (CosmosPatchOperations operations : patch.operations()) {
+            CosmosPatchItemRequestOptions options = new CosmosPatchItemRequestOptions();
+            options.setIfMatchETag(etag);
+            CosmosItemResponse<JsonNode> response = usersContainer()
+                    .patchItem(user.getId(), new PartitionKey(user.getId()), operations, options, JsonNode.class)
+                    .block();
+            charge(response.getRequestCharge());
+            etag = response.getETag();
+        }
+        usersPatched.increment();
+    }
+
+    private List<String> queryIds(CosmosAsyncContainer container, SqlQuerySpec query) {
+        List<String> ids = new ArrayList<>();
+        for (FeedResponse<String> page : container
+                .queryItems(query, new CosmosQueryRequestOptions(), String.class)
+                .byPage()
+                .toIterable()) {
+            charge(page.getRequestCharge());
+            ids.addAll(page.getResults());
+        }
+        return ids;
+    }
+
+    private void charge(double requestUnits) {
+        requestCharge.increment(requestUnits);
+        try {
+            budget.consume(requestUnits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Favorites sync interrupted", e);
+        }
+    }
+
+    private static void awaitAll(List<Future<?>> futures) {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Favorites sync interrupted", e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw e.getCause() instanceof RuntimeException runtime
+                    ? runtime
+                    : new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * The lease container, created on first start; it reads before
+     * creating, so it also works where it is provisioned by Terraform.
+     */
+    private CosmosAsyncContainer leaseContainer() {
+        CosmosAsyncDatabase database = cosmosFactory.getCosmosAsyncClient()
+                .getDatabase(cosmosFactory.getDatabaseName());
+        database.createContainerIfNotExists(new CosmosContainerProperties(LEASES_CONTAINER, "/id")).block();
+        return database.getContainer(LEASES_CONTAINER);
+    }
+
+    private CosmosAsyncContainer leases() {
+        return cosmosFactory.getCosmosAsyncClient()
+                .getDatabase(cosmosFactory.getDatabaseName())
+                .getContainer(LEASES_CONTAINER);
+    }
+
+    private static String hostName() {
+        return ManagementFactory.getRuntimeMXBean().getName();
+    }
+
+    private CosmosAsyncContainer usersContainer() {
+        return cosmosFactory.getCosmosAsyncClient()
+                .getDatabase(cosmosFactory.getDatabaseName())
+                .getContainer(cosmosOperations.getContainerName(User.class));
+    }
+
+    private CosmosAsyncContainer filmsContainer() {
+        return cosmosFactory.getCosmosAsyncClient().getDatabase(filmsDbName).getContainer(FILMS_CONTAINER);
+    }
+}
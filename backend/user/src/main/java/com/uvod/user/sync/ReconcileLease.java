@@ -0,0 +1,81 @@
+package com.uvod.user.sync;
+
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.models.CosmosItemRequestOptions;
+import com.azure.cosmos.models.CosmosItemResponse;
+import com.azure.cosmos.models.PartitionKey;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+
+/**
+ * Lets one instance at a time run a periodic job: a document in the
+ * leases container holding its owner and expiry, taken with a
+ * create-only write, or an If-Match replace once it has expired. Of two
+ * instances racing for it, the write of one fails (409 or 412).
+ *
+ * The id is outside the change feed processor's lease prefix, so the
+ * processor never reads it.
+ */
+final class ReconcileLease {
+
+    private final CosmosAsyncContainer container;
+    private final String id;
+    private final String owner;
+    private final long durationMillis;
+
+    ReconcileLease(CosmosAsyncContainer container, String id, String owner, Duration duration) {
+        this.container = container;
+        this.id = id;
+        this.owner = owner;
+        this.durationMillis = duration.toMillis();
+    }
+
+    /**
+     * @return whether this instance now holds the lease, for its duration
+     */
+    boolean tryAcquire() {
+        long now = System.currentTimeMillis();
+        CosmosItemResponse<JsonNode> current;
+        try {
+            current = container.readItem(id, new PartitionKey(id), JsonNode.class).block();
+        } catch (CosmosException e) {
+            if (e.getStatusCode() != HttpStatus.NOT_FOUND.value()) {
+                throw e;
+            }
+            return write(() -> container.createItem(lease(now), new PartitionKey(id), new CosmosItemRequestOptions())
+                    .block());
+        }
+        if (current.getItem().path("expiresAt").asLong() > now) {
+            return false;
+        }
+        CosmosItemRequestOptions options = new CosmosItemRequestOptions();
+        options.setIfMatchETag(current.getETag());
+        return write(() -> container.replaceItem(lease(now), id, new PartitionKey(id), options).block());
+    }
+
+    private boolean write(Runnable write) {
+        try {
+            write.run();
+            return true;
+        } catch (CosmosException e) {
+            if (e.getStatusCode() == HttpStatus.CONFLICT.value()
+                    || e.getStatusCode() == HttpStatus.PRECONDITION_FAILED.value()) {
+                // Another instance took it first
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private ObjectNode lease(long now) {
+        return JsonNodeFactory.instance.objectNode()
+                .put("id", id)
+                .put("owner", owner)
+                .put("expiresAt", now + durationMillis);
+    }
+}
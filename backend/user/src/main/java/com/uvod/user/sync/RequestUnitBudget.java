@@ -0,0 +1,63 @@
+package com.uvod.user.sync;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket of request units, refilled at a fixed rate.
+ *
+ * The charge of a Cosmos call is only known from its response, so calls
+ * are not admitted up front: each charge is taken from the bucket after
+ * the fact, and the caller waits until the bucket is out of debt. Over
+ * time, consumption converges to the rate.
+ */
+final class RequestUnitBudget {
+
+    private final double ruPerNano;
+    private final double burst;
+    private final LongSupplier nanoTime;
+
+    private double available;
+    private long refilledAt;
+
+    /**
+     * @param ruPerSecond sustained rate
+     * @param burst       request units that can be spent at once after idling
+     */
+    RequestUnitBudget(double ruPerSecond, double burst) {
+        this(ruPerSecond, burst, System::nanoTime);
+    }
+
+    RequestUnitBudget(double ruPerSecond, double burst, LongSupplier nanoTime) {
+        if (ruPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("RU rate and burst must be positive");
+        }
+        this.ruPerNano = ruPerSecond / 1e9;
+        this.burst = burst;
+        this.nanoTime = nanoTime;
+        this.available = burst;
+        this.refilledAt = nanoTime.getAsLong();
+    }
+
+    /**
+     * Takes a charge from the bucket, then waits until it is out of debt.
+     */
+    void consume(double requestCharge) throws InterruptedException {
+        long waitNanos = debit(requestCharge);
+        if (waitNanos > 0) {
+            Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+        }
+    }
+
+    /**
+     * Takes a charge from the bucket.
+     *
+     * @return nanoseconds until the bucket is out of debt, 0 if it is not in debt
+     */
+    synchronized long debit(double requestCharge) {
+        long now = nanoTime.getAsLong();
+        available = Math.min(burst, available + (now - refilledAt) * ruPerNano);
+        refilledAt = now;
+        available -= requestCharge;
+        return available >= 0 ? 0 : (long) Math.ceil(-available / ruPerNano);
+    }
+}
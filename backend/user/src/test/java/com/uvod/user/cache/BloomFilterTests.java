@@ -0,0 +1,55 @@
+package com.uvod.user.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * No false negatives, and a false positive rate close to the configured one.
+ */
+class BloomFilterTests {
+
+    private static final int USERS = 50_000;
+
+    @Test
+    void neverMissesAnAddedId() {
+        BloomFilter filter = new BloomFilter(USERS, 0.01);
+        for (int i = 0; i < USERS; i++) {
+            filter.add(userId(i));
+        }
+        for (int i = 0; i < USERS; i++) {
+            assertThat(filter.mightContain(userId(i))).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateMatchesConfiguration() {
+        BloomFilter filter = new BloomFilter(USERS, 0.01);
+        for (int i = 0; i < USERS; i++) {
+            filter.add(userId(i));
+        }
+        int falsePositives = 0;
+        for (int i = USERS; i < 2 * USERS; i++) {
+            if (filter.mightContain(userId(i))) {
+                falsePositives++;
+            }
+        }
+        assertThat((double) falsePositives / USERS).isLessThan(0.015);
+        assertThat(filter.expectedFalsePositiveRate()).isLessThan(0.015);
+    }
+
+    @Test
+    void addingAKnownIdChangesNothing() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        assertThat(filter.add("d75b260a64504067bfc5b2905e3b8182")).isTrue();
+        assertThat(filter.add("d75b260a64504067bfc5b2905e3b8182")).isFalse();
+        assertThat(filter.insertions()).isEqualTo(1L);
+    }
+
+    /** Static Web Apps user ids: 32 hex digits */
+    private static String userId(int i) {
+        return new UUID(i * 0x9E3779B97F4A7C15L, i).toString().replace("-", "");
+    }
+}
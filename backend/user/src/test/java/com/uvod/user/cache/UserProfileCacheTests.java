@@ -0,0 +1,85 @@
+package com.uvod.user.cache;
+
+import com.uvod.user.model.User;
+import com.uvod.user.repository.UserRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recent entries served from memory; getFresh always sees the document
+ * as it is in Cosmos.
+ */
+class UserProfileCacheTests {
+
+    /** Documents "in Cosmos", changed behind the cache's back by the tests */
+    private final Map<String, User> documents = new HashMap<>();
+
+    private final UserProfileCache cache = new UserProfileCache(userRepo(), new SimpleMeterRegistry(),
+            100, Duration.ofMinutes(10));
+
+    @Test
+    void recentEntryIsServedFromMemory() {
+        documents.put("u1", user("u1", "alice", "1"));
+        assertThat(cache.get("u1")).isPresent();
+
+        documents.put("u1", user("u1", "alice2", "2"));
+
+        assertThat(cache.get("u1").get().getUsername()).isEqualTo("alice");
+    }
+
+    @Test
+    void getFreshSeesChangesMadeElsewhere() {
+        documents.put("u1", user("u1", "alice", "1"));
+        User cached = cache.get("u1").get();
+
+        assertThat(cache.getFresh("u1").get()).isSameAs(cached);
+
+        documents.put("u1", user("u1", "alice2", "2"));
+
+        assertThat(cache.getFresh("u1").get().getUsername()).isEqualTo("alice2");
+        // The new version replaced the entry
+        assertThat(cache.get("u1").get().get_etag()).isEqualTo("2");
+    }
+
+    @Test
+    void getFreshDropsDeletedUsers() {
+        documents.put("u1", user("u1", "alice", "1"));
+        cache.get("u1");
+
+        documents.remove("u1");
+
+        assertThat(cache.getFresh("u1")).isEmpty();
+        assertThat(cache.get("u1")).isEmpty();
+    }
+
+    private UserRepo userRepo() {
+        return (UserRepo) Proxy.newProxyInstance(UserRepo.class.getClassLoader(), new Class<?>[] { UserRepo.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.ofNullable(documents.get((String) args[0]));
+                    case "revalidate" -> {
+                        User cached = (User) args[0];
+                        User current = documents.get(cached.getId());
+                        yield current != null && current.get_etag().equals(cached.get_etag())
+                                ? Optional.of(cached)
+                                : Optional.ofNullable(current);
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static User user(String id, String username, String etag) {
+        return User.builder()
+                .id(id)
+                .username(username)
+                ._etag(etag)
+                .build();
+    }
+}
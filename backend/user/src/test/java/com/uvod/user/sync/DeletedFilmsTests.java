@@ -0,0 +1,50 @@
+package com.uvod.user.sync;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Which favorited films count as deleted, and when the reconcile refuses
+ * to remove them.
+ */
+class DeletedFilmsTests {
+
+    @Test
+    void missingFilmsAreDeleted() {
+        DeletedFilms deleted = DeletedFilms.of(List.of("f1", "f2", "f3", "f2"), List.of("f1", "f3"));
+
+        assertThat(deleted.ids()).containsExactly("f2");
+        assertThat(deleted.favorited()).isEqualTo(3);
+        assertThat(deleted.existing()).isEqualTo(2);
+    }
+
+    @Test
+    void fewDeletionsArePlausible() {
+        DeletedFilms deleted = DeletedFilms.of(ids(20), ids(19));
+
+        assertThat(deleted.plausible(0.1)).isTrue();
+    }
+
+    @Test
+    void emptyFilmsContainerIsNotPlausible() {
+        DeletedFilms deleted = DeletedFilms.of(ids(20), List.of());
+
+        assertThat(deleted.plausible(1.0)).isFalse();
+    }
+
+    @Test
+    void deletingMoreThanTheShareIsNotPlausible() {
+        DeletedFilms deleted = DeletedFilms.of(ids(20), ids(15));
+
+        assertThat(deleted.plausible(0.1)).isFalse();
+        assertThat(deleted.plausible(0.25)).isTrue();
+    }
+
+    private static List<String> ids(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "f" + i).toList();
+    }
+}
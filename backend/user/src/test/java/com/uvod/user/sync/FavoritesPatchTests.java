@@ -0,0 +1,85 @@
+package com.uvod.user.sync;
+
+import com.uvod.user.model.FavoriteItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Which favorites a film change or a film delete rewrites.
+ */
+class FavoritesPatchTests {
+
+    private final List<FavoriteItem> favorites = List.of(
+            item("f1", "Quantum Horizon", 2024),
+            item("f2", "Neon Abyss", 2023),
+            item("f3", "The Last Signal", 2025));
+
+    @Test
+    void userWithoutTheChangedFilmsIsNotTouched() {
+        FavoritesPatch patch = FavoritesPatch.of(favorites, Map.of("f9", item("f9", "Chrome Veins", 2024)), Set.of());
+
+        assertThat(patch.isEmpty()).isTrue();
+        assertThat(patch.operations()).isEmpty();
+    }
+
+    @Test
+    void upToDateFavoriteIsNotTouched() {
+        FavoritesPatch patch = FavoritesPatch.of(favorites, Map.of("f2", item("f2", "Neon Abyss", 2023)), Set.of());
+
+        assertThat(patch.isEmpty()).isTrue();
+    }
+
+    @Test
+    void staleFavoriteIsReplacedAtItsPosition() {
+        FavoriteItem renamed = item("f2", "Neon Abyss: Director's Cut", 2023);
+
+        FavoritesPatch patch = FavoritesPatch.of(favorites, Map.of("f2", renamed), Set.of());
+
+        assertThat(patch.updates()).containsOnlyKeys(1);
+        assertThat(patch.updates().get(1)).isEqualTo(renamed);
+        assertThat(patch.removals()).isEmpty();
+        assertThat(patch.operations()).hasSize(1);
+    }
+
+    @Test
+    void deletedFilmsAreRemovedFromTheLastPositionDown() {
+        FavoritesPatch patch = FavoritesPatch.of(favorites, Map.of(), Set.of("f1", "f3"));
+
+        assertThat(patch.removals()).containsExactly(2, 0);
+        assertThat(patch.updates()).isEmpty();
+    }
+
+    @Test
+    void manyChangesAreSplitWithinTheOperationLimit() {
+        List<FavoriteItem> many = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            many.add(item("m" + i, "Film " + i, 2000));
+        }
+        Map<String, FavoriteItem> current = new HashMap<>();
+        for (int i = 0; i < 15; i++) {
+            current.put("m" + i, item("m" + i, "Film " + i, 2001));
+        }
+
+        FavoritesPatch patch = FavoritesPatch.of(many, current, Set.of("m20", "m21"));
+
+        assertThat(patch.updates()).hasSize(15);
+        assertThat(patch.removals()).containsExactly(21, 20);
+        assertThat(patch.operations()).hasSize(2);
+    }
+
+    private static FavoriteItem item(String movieId, String title, int releaseYear) {
+        return FavoriteItem.builder()
+                .movieId(movieId)
+                .title(title)
+                .releaseYear(releaseYear)
+                .genre("Sci-Fi")
+                .build();
+    }
+}
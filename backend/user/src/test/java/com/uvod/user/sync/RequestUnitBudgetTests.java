@@ -0,0 +1,52 @@
+package com.uvod.user.sync;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Burst, debt and refill of the request unit bucket, on a fake clock.
+ */
+class RequestUnitBudgetTests {
+
+    private long now = 1_000_000_000L;
+
+    private final RequestUnitBudget budget = new RequestUnitBudget(100, 50, () -> now);
+
+    @Test
+    void burstIsSpentWithoutWaiting() {
+        assertThat(budget.debit(30)).isZero();
+        assertThat(budget.debit(20)).isZero();
+    }
+
+    @Test
+    void debtIsRepaidAtTheRate() {
+        budget.debit(50);
+
+        // 10 RU of debt at 100 RU/s
+        assertThat(budget.debit(10)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+
+        now += TimeUnit.MILLISECONDS.toNanos(100);
+        assertThat(budget.debit(0)).isZero();
+    }
+
+    @Test
+    void idleRefillIsCappedAtTheBurst() {
+        budget.debit(50);
+        now += TimeUnit.SECONDS.toNanos(60);
+
+        assertThat(budget.debit(50)).isZero();
+        assertThat(budget.debit(1)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    @Test
+    void rejectsNonPositiveRates() {
+        assertThatThrownBy(() -> new RequestUnitBudget(0, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RequestUnitBudget(10, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -1,38 +1,18 @@
 import { defineStore } from 'pinia'
-import { ref, computed } from 'vue'
+import { ref } from 'vue'
 import type { Film } from '@/types/Film'
+import type { HomePage } from '@/types/Home'
+import type { Suggestion } from '@/types/Suggestion'
 
 export const useCatalogStore = defineStore('catalog', () => {
   // --- State ---
   const films = ref<Film[]>([])
+  const home = ref<HomePage | null>(null)
   const currentFilm = ref<Film | null>(null)
+  const similarFilms = ref<Film[]>([])
   const isLoading = ref(false)
   const error = ref<string | null>(null)
 
-  // --- Getters ---
-
-  /** Films grouped by genre: { "Sci-Fi": [...], "Thriller": [...], ... } */
-  const filmsByGenre = computed(() => {
-    const grouped: Record<string, Film[]> = {}
-    for (const film of films.value) {
-      if (!grouped[film.genre]) {
-        grouped[film.genre] = []
-      }
-      grouped[film.genre]!.push(film)
-    }
-    return grouped
-  })
-
-  /** List of unique genres */
-  const allGenres = computed(() => Object.keys(filmsByGenre.value))
-
-  /** Random film for the hero banner */
-  const heroFilm = computed(() => {
-    if (films.value.length === 0) return null
-    const index = Math.floor(Math.random() * films.value.length)
-    return films.value[index]
-  })
-
   // --- Actions ---
 
   async function fetchAllFilms() {
@@ -49,6 +29,21 @@ export const useCatalogStore = defineStore('catalog', () => {
     }
   }
 
+  /** Hero and genre rows in one small, server-cached request */
+  async function fetchHome() {
+    isLoading.value = true
+    error.value = null
+    try {
+      const response = await fetch('/api/catalog/home', { credentials: 'include' })
+      if (!response.ok) throw new Error(`Error ${response.status}: ${response.statusText}`)
+      home.value = await response.json()
+    } catch (e) {
+      error.value = e instanceof Error ? e.message : String(e)
+    } finally {
+      isLoading.value = false
+    }
+  }
+
   async function fetchFilmBySlug(slug: string) {
     isLoading.value = true
     error.value = null
@@ -65,6 +60,18 @@ export const useCatalogStore = defineStore('catalog', () => {
     }
   }
 
+  /** "More like this" rail; failures are silent (the rail is optional) */
+  async function fetchSimilarFilms(id: string) {
+    try {
+      const response = await fetch(`/api/catalog/${encodeURIComponent(id)}/similar`, {
+        credentials: 'include',
+      })
+      similarFilms.value = response.ok ? await response.json() : []
+    } catch {
+      similarFilms.value = []
+    }
+  }
+
   async function fetchFilmsByGenre(genre: string) {
     isLoading.value = true
     error.value = null
@@ -103,6 +110,18 @@ export const useCatalogStore = defineStore('catalog', () => {
     }
   }
 
+  /** Typeahead completions; failures are silent (suggestions are optional) */
+  async function fetchSuggestions(prefix: string): Promise<Suggestion[]> {
+    try {
+      const response = await fetch(`/api/catalog/suggest?prefix=${encodeURIComponent(prefix)}`, {
+        credentials: 'include',
+      })
+      return response.ok ? await response.json() : []
+    } catch {
+      return []
+    }
+  }
+
   function clearSearch() {
     searchQuery.value = ''
     searchResults.value = []
@@ -110,23 +129,26 @@ export const useCatalogStore = defineStore('catalog', () => {
 
   function clearCurrentFilm() {
     currentFilm.value = null
+    similarFilms.value = []
   }
 
   return {
     films,
+    home,
     searchQuery,
     searchResults,
     currentFilm,
+    similarFilms,
     isLoading,
     isSearching,
     error,
-    filmsByGenre,
-    allGenres,
-    heroFilm,
     fetchAllFilms,
+    fetchHome,
     fetchFilmBySlug,
+    fetchSimilarFilms,
     fetchFilmsByGenre,
     searchFilms,
+    fetchSuggestions,
     clearSearch,
     clearCurrentFilm,
   }
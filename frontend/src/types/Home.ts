@@ -0,0 +1,13 @@
+import type { Film } from '@/types/Film'
+
+export interface GenreRow {
+  genre: string
+  totalFilms: number
+  films: Film[]
+}
+
+/** Payload of GET /catalog/home */
+export interface HomePage {
+  hero: Film | null
+  rows: GenreRow[]
+}
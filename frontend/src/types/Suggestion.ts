@@ -0,0 +1,5 @@
+export interface Suggestion {
+  text: string
+  type: 'title' | 'cast' | 'tag'
+  slug: string | null
+}
@@ -0,0 +1,13 @@
+/**
+ * Thumbnails served by the streaming service are rendered per size:
+ * `card` for the rails, `hero` for the banner and the detail page.
+ * Other URLs (external images, older favorites) are returned as-is.
+ */
+export type ThumbnailSize = 'card' | 'hero'
+
+const STREAMING_THUMBNAILS = '/api/streaming/thumbnails/'
+
+export function thumbnailSrc(url: string, size: ThumbnailSize): string {
+  if (!url.startsWith(STREAMING_THUMBNAILS)) return url
+  return `${url}${url.includes('?') ? '&' : '?'}size=${size}`
+}
@@ -31,6 +31,12 @@ resource "azurerm_container_app" "catalog_service" {
         value = azurerm_user_assigned_identity.backend_identity.client_id
       }
 
+      # Production catalog is managed separately: skip startup seeding entirely
+      env {
+        name  = "CATALOG_SEED_MODE"
+        value = "none"
+      }
+
       startup_probe {
         transport               = "TCP"
         port                    = 8080
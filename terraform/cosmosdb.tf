@@ -51,4 +51,13 @@ resource "azurerm_cosmosdb_sql_container" "films" {
   database_name       = azurerm_cosmosdb_sql_database.db.name
   
   partition_key_paths = ["/genre"]
+}
+
+resource "azurerm_cosmosdb_sql_container" "leases" {
+  name                = "leases"
+  resource_group_name = azurerm_resource_group.rg.name
+  account_name        = azurerm_cosmosdb_account.db_account.name
+  database_name       = azurerm_cosmosdb_sql_database.db.name
+  
+  partition_key_paths = ["/id"]
 }
\ No newline at end of file